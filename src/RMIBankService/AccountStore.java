@@ -0,0 +1,260 @@
+package RMIBankService;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ============================================================
+ * ACCOUNT STORE - PRIMITIVE FIXED-POINT BALANCES
+ * ============================================================
+ * Accounts are numbered from 0 in creation order; the bank's
+ * "ACC1001", "ACC1002", ... map to indexes 0, 1, ... without any
+ * lookup table (see parseIndex).
+ *
+ * Balances are long minor units (cents), so money adds up
+ * exactly, held in AtomicLongArray segments of SEGMENT_SIZE
+ * accounts: a plain long[] underneath, updated with CAS, so
+ * single-account operations allocate nothing.
+ * Holder names live in a parallel reference segment; an account
+ * exists once its holder is set (written last, after the
+ * opening balance).
+ *
+ * Per account: 8 bytes of balance plus a 4-byte holder
+ * reference (and the holder String itself), instead of two
+ * HashMap entries, a key String and a boxed Double.
+ *
+ * Transfers are atomic. Accounts map to one of STRIPES
+ * StampedLocks by index. A transfer holds the write locks of
+ * both accounts' stripes (lower stripe first, so opposite
+ * transfers cannot deadlock) while it debits and credits.
+ * Deposits and withdrawals hold their stripe's read lock, which
+ * they share with each other, so they only wait for a transfer
+ * touching the same stripe. Balance reads are optimistic and
+ * retry under the read lock if a transfer overlapped them, so
+ * a read never observes a transfer half done.
+ *
+ * Segments are never moved, so growing the store only copies
+ * the small segment directories, under a lock that only account
+ * creation takes; the holder directory is published last, and
+ * everything is reached through it.
+ * ============================================================
+ */
+class AccountStore {
+
+    static final long INSUFFICIENT_FUNDS = Long.MIN_VALUE;   // Result of a refused withdrawal
+
+    // ========== SEGMENT LAYOUT ==========
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    // ========== LOCK STRIPES ==========
+    private static final int STRIPES = 256;
+    private static final int STRIPE_MASK = STRIPES - 1;
+
+    // ========== ACCOUNT NUMBERS ==========
+    private static final String PREFIX = "ACC";
+    private static final int FIRST_NUMBER = 1001;
+
+    // ========== STORAGE ==========
+    private volatile AtomicLongArray[] balances = new AtomicLongArray[0];
+    private volatile AtomicReferenceArray<String>[] holders = newHolderDirectory(0);
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final StampedLock[] stripes = new StampedLock[STRIPES];
+
+    AccountStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new StampedLock();
+        }
+    }
+
+    // ========================================================
+    // ACCOUNT NUMBERS
+    // ========================================================
+    static String accountNumber(int index) {
+        return PREFIX + (FIRST_NUMBER + index);
+    }
+
+    /**
+     * Parse "ACC" + digits (no leading zeros) without allocating.
+     *
+     * @return The account index, or -1 if the number is malformed
+     */
+    static int parseIndex(String accountNumber) {
+        if (accountNumber == null || !accountNumber.startsWith(PREFIX)
+                || accountNumber.length() == PREFIX.length() || accountNumber.length() > PREFIX.length() + 10
+                || accountNumber.charAt(PREFIX.length()) == '0') {
+            return -1;
+        }
+        long number = 0;
+        for (int i = PREFIX.length(); i < accountNumber.length(); i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        long index = number - FIRST_NUMBER;
+        return index >= 0 && index <= Integer.MAX_VALUE ? (int) index : -1;
+    }
+
+    // ========================================================
+    // ACCOUNTS
+    // ========================================================
+    /**
+     * @return Index of the new account
+     */
+    int create(String holder, long openingBalance) {
+        int index = nextIndex.getAndIncrement();
+        int segment = index >>> SEGMENT_BITS;
+        if (segment >= holders.length) {
+            grow(segment);
+        }
+        balances[segment].set(index & SEGMENT_MASK, openingBalance);
+        holders[segment].set(index & SEGMENT_MASK, holder != null ? holder : "");   // Publishes the account
+        return index;
+    }
+
+    private synchronized void grow(int segment) {
+        int count = holders.length;
+        if (segment < count) {
+            return; // Another creator grew it
+        }
+        AtomicLongArray[] grownBalances = Arrays.copyOf(balances, segment + 1);
+        AtomicReferenceArray<String>[] grownHolders = Arrays.copyOf(holders, segment + 1);
+        for (int i = count; i <= segment; i++) {
+            grownBalances[i] = new AtomicLongArray(SEGMENT_SIZE);
+            grownHolders[i] = new AtomicReferenceArray<>(SEGMENT_SIZE);
+        }
+        // Balances first: whoever sees the new holders also sees them
+        balances = grownBalances;
+        holders = grownHolders;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<String>[] newHolderDirectory(int size) {
+        return (AtomicReferenceArray<String>[]) new AtomicReferenceArray<?>[size];
+    }
+
+    boolean exists(int index) {
+        if (index < 0) {
+            return false;
+        }
+        AtomicReferenceArray<String>[] directory = holders;
+        int segment = index >>> SEGMENT_BITS;
+        return segment < directory.length && directory[segment].get(index & SEGMENT_MASK) != null;
+    }
+
+    /** @param index An existing account */
+    String holder(int index) {
+        return holders[index >>> SEGMENT_BITS].get(index & SEGMENT_MASK);
+    }
+
+    // ========================================================
+    // BALANCES (existing accounts, amounts > 0)
+    // ========================================================
+    long balance(int index) {
+        AtomicLongArray segment = balances[index >>> SEGMENT_BITS];
+        int slot = index & SEGMENT_MASK;
+        StampedLock lock = stripes[index & STRIPE_MASK];
+        long stamp = lock.tryOptimisticRead();
+        long balance = segment.get(slot);
+        if (!lock.validate(stamp)) {
+            // A transfer held the stripe: read again once it is done
+            stamp = lock.readLock();
+            try {
+                balance = segment.get(slot);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return balance;
+    }
+
+    /**
+     * @return The new balance
+     * @throws ArithmeticException if the balance would overflow
+     */
+    long deposit(int index, long amount) {
+        AtomicLongArray segment = balances[index >>> SEGMENT_BITS];
+        int slot = index & SEGMENT_MASK;
+        StampedLock lock = stripes[index & STRIPE_MASK];
+        long stamp = lock.readLock();
+        try {
+            while (true) {
+                long current = segment.get(slot);
+                long updated = Math.addExact(current, amount);
+                if (segment.compareAndSet(slot, current, updated)) {
+                    return updated;
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return The new balance, or INSUFFICIENT_FUNDS (balance unchanged)
+     */
+    long withdraw(int index, long amount) {
+        AtomicLongArray segment = balances[index >>> SEGMENT_BITS];
+        int slot = index & SEGMENT_MASK;
+        StampedLock lock = stripes[index & STRIPE_MASK];
+        long stamp = lock.readLock();
+        try {
+            while (true) {
+                long current = segment.get(slot);
+                if (current < amount) {
+                    return INSUFFICIENT_FUNDS;
+                }
+                if (segment.compareAndSet(slot, current, current - amount)) {
+                    return current - amount;
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Move money between two accounts atomically: with both
+     * stripes write-locked, nobody else updates or reads either
+     * balance until both are written.
+     *
+     * @return false (nothing moved) if the source has too little
+     * @throws ArithmeticException if the destination would overflow
+     *         (nothing moved)
+     */
+    boolean transfer(int from, int to, long amount) {
+        StampedLock first = stripes[Math.min(from & STRIPE_MASK, to & STRIPE_MASK)];
+        StampedLock second = stripes[Math.max(from & STRIPE_MASK, to & STRIPE_MASK)];
+        long firstStamp = first.writeLock();
+        long secondStamp = second != first ? second.writeLock() : 0;
+        try {
+            AtomicLongArray source = balances[from >>> SEGMENT_BITS];
+            AtomicLongArray target = balances[to >>> SEGMENT_BITS];
+            int sourceSlot = from & SEGMENT_MASK;
+            int targetSlot = to & SEGMENT_MASK;
+            long sourceBalance = source.get(sourceSlot);
+            if (sourceBalance < amount) {
+                return false;
+            }
+            source.set(sourceSlot, sourceBalance - amount);
+            try {
+                target.set(targetSlot, Math.addExact(target.get(targetSlot), amount));
+            } catch (ArithmeticException e) {
+                source.set(sourceSlot, sourceBalance);   // Still locked: never seen
+                throw e;
+            }
+            return true;
+        } finally {
+            if (second != first) {
+                second.unlockWrite(secondStamp);
+            }
+            first.unlockWrite(firstStamp);
+        }
+    }
+}
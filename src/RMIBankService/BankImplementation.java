@@ -2,34 +2,45 @@ package RMIBankService;
 
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
-import java.util.HashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ============================================================
  * RMI BANK SERVICE IMPLEMENTATION
  * ============================================================
  * Implementation of the Bank remote interface.
- * Manages accounts using HashMaps for storage.
+ * Manages accounts in an AccountStore: balances are long cents
+ * in primitive arrays, indexed straight from the account number.
  * 
  * Features:
  *   - Account creation with unique IDs
  *   - Deposit and withdrawal operations
  *   - Balance inquiry
  *   - Inter-account transfers
+ * 
+ * Money: amounts arrive as doubles (the remote interface) and
+ * are rounded to whole cents once; from then on balances add up
+ * exactly, with no floating-point drift.
+ * 
+ * Concurrency: RMI runs every client call on its own thread.
+ * Deposits and withdrawals are compare-and-set updates of one
+ * account under a shared stripe lock, so they never wait for
+ * each other. A transfer write-locks the stripes of both
+ * accounts, lower stripe first, and is atomic: it never creates
+ * or loses money, and no reader sees it half done.
+ * 
+ * Options:
+ *   -Dbank.verbose=false   Disable per-operation console logs
+ *                          (the console is itself a global lock)
  * ============================================================
  */
 public class BankImplementation extends UnicastRemoteObject implements BankInterface {
 
+    // ========== CONFIGURATION ==========
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("bank.verbose", "true"));
+    private static final double MINOR_UNITS = 100.0;   // Cents per unit
+
     // ========== ACCOUNT STORAGE ==========
-    // HashMap storing account balances
-    private HashMap<String, Double> accountBalances = new HashMap<>();
-    
-    // HashMap storing account holder names
-    private HashMap<String, String> accountHolders = new HashMap<>();
-    
-    // Counter for generating unique account numbers
-    private AtomicInteger accountCounter = new AtomicInteger(1000);
+    private final AccountStore accounts = new AccountStore();
 
     // ========== CONSTRUCTOR ==========
     public BankImplementation() throws RemoteException {
@@ -37,122 +48,145 @@ public class BankImplementation extends UnicastRemoteObject implements BankInter
         System.out.println("Bank Service initialized with empty accounts.");
     }
 
+    // ========== FIXED-POINT CONVERSION ==========
+    private static long toMinorUnits(double amount) {
+        return Math.round(amount * MINOR_UNITS); // NaN becomes 0
+    }
+
+    private static double toAmount(long minorUnits) {
+        return minorUnits / MINOR_UNITS;
+    }
+
     // ========== ACCOUNT MANAGEMENT ==========
     
     @Override
-    public synchronized String createAccount(String accountHolder, double initialDeposit) throws RemoteException {
-        // Generate unique account number
-        String accountNumber = "ACC" + accountCounter.incrementAndGet();
+    public String createAccount(String accountHolder, double initialDeposit) throws RemoteException {
+        // Next account number, with its opening balance
+        int index = accounts.create(accountHolder, toMinorUnits(initialDeposit));
+        String accountNumber = AccountStore.accountNumber(index);
         
-        // Store account information
-        accountBalances.put(accountNumber, initialDeposit);
-        accountHolders.put(accountNumber, accountHolder);
-        
-        System.out.println("[CREATE] Account " + accountNumber + " created for " + accountHolder);
+        if (VERBOSE) {
+            System.out.println("[CREATE] Account " + accountNumber + " created for " + accountHolder);
+        }
         return accountNumber;
     }
     
     @Override
     public boolean accountExists(String accountNumber) throws RemoteException {
-        return accountBalances.containsKey(accountNumber);
+        return accounts.exists(AccountStore.parseIndex(accountNumber));
     }
 
     // ========== TRANSACTIONS ==========
     
     @Override
-    public synchronized String deposit(String accountNumber, double amount) throws RemoteException {
+    public String deposit(String accountNumber, double amount) throws RemoteException {
         // Validate account
-        if (!accountExists(accountNumber)) {
+        int index = AccountStore.parseIndex(accountNumber);
+        if (!accounts.exists(index)) {
             return "Error: Account " + accountNumber + " not found.";
         }
         
         // Validate amount
-        if (amount <= 0) {
+        long cents = toMinorUnits(amount);
+        if (cents <= 0) {
             return "Error: Deposit amount must be positive.";
         }
         
         // Perform deposit
-        double currentBalance = accountBalances.get(accountNumber);
-        double newBalance = currentBalance + amount;
-        accountBalances.put(accountNumber, newBalance);
+        long newBalance;
+        try {
+            newBalance = accounts.deposit(index, cents);
+        } catch (ArithmeticException e) {
+            return "Error: Deposit would exceed the balance limit.";
+        }
         
-        System.out.println("[DEPOSIT] " + accountNumber + " deposited " + amount + " | New Balance: " + newBalance);
-        return String.format("Deposited %.2f. New balance: %.2f", amount, newBalance);
+        if (VERBOSE) {
+            System.out.println("[DEPOSIT] " + accountNumber + " deposited " + toAmount(cents)
+                               + " | New Balance: " + toAmount(newBalance));
+        }
+        return String.format("Deposited %.2f. New balance: %.2f", toAmount(cents), toAmount(newBalance));
     }
     
     @Override
-    public synchronized String withdraw(String accountNumber, double amount) throws RemoteException {
+    public String withdraw(String accountNumber, double amount) throws RemoteException {
         // Validate account
-        if (!accountExists(accountNumber)) {
+        int index = AccountStore.parseIndex(accountNumber);
+        if (!accounts.exists(index)) {
             return "Error: Account " + accountNumber + " not found.";
         }
         
         // Validate amount
-        if (amount <= 0) {
+        long cents = toMinorUnits(amount);
+        if (cents <= 0) {
             return "Error: Withdrawal amount must be positive.";
         }
         
-        // Check sufficient balance
-        double currentBalance = accountBalances.get(accountNumber);
-        if (currentBalance < amount) {
-            return "Error: Insufficient balance. Current balance: " + currentBalance;
+        // Withdraw only if the balance covers it (checked and applied atomically)
+        long newBalance = accounts.withdraw(index, cents);
+        if (newBalance == AccountStore.INSUFFICIENT_FUNDS) {
+            return "Error: Insufficient balance. Current balance: " + toAmount(accounts.balance(index));
         }
         
-        // Perform withdrawal
-        double newBalance = currentBalance - amount;
-        accountBalances.put(accountNumber, newBalance);
-        
-        System.out.println("[WITHDRAW] " + accountNumber + " withdrew " + amount + " | New Balance: " + newBalance);
-        return String.format("Withdrew %.2f. New balance: %.2f", amount, newBalance);
+        if (VERBOSE) {
+            System.out.println("[WITHDRAW] " + accountNumber + " withdrew " + toAmount(cents)
+                               + " | New Balance: " + toAmount(newBalance));
+        }
+        return String.format("Withdrew %.2f. New balance: %.2f", toAmount(cents), toAmount(newBalance));
     }
     
     @Override
-    public synchronized String transfer(String fromAccount, String toAccount, double amount) throws RemoteException {
+    public String transfer(String fromAccount, String toAccount, double amount) throws RemoteException {
         // Validate both accounts
-        if (!accountExists(fromAccount)) {
+        int from = AccountStore.parseIndex(fromAccount);
+        int to = AccountStore.parseIndex(toAccount);
+        if (!accounts.exists(from)) {
             return "Error: Source account " + fromAccount + " not found.";
         }
-        if (!accountExists(toAccount)) {
+        if (!accounts.exists(to)) {
             return "Error: Destination account " + toAccount + " not found.";
         }
         
         // Validate amount
-        if (amount <= 0) {
+        long cents = toMinorUnits(amount);
+        if (cents <= 0) {
             return "Error: Transfer amount must be positive.";
         }
         
-        // Check sufficient balance
-        double fromBalance = accountBalances.get(fromAccount);
-        if (fromBalance < amount) {
-            return "Error: Insufficient balance in source account.";
-        }
-        
         // Perform transfer
-        accountBalances.put(fromAccount, fromBalance - amount);
-        accountBalances.put(toAccount, accountBalances.get(toAccount) + amount);
+        try {
+            if (!accounts.transfer(from, to, cents)) {
+                return "Error: Insufficient balance in source account.";
+            }
+        } catch (ArithmeticException e) {
+            return "Error: Transfer would exceed the destination's balance limit.";
+        }
         
-        System.out.println("[TRANSFER] " + fromAccount + " -> " + toAccount + " Amount: " + amount);
-        return String.format("Transferred %.2f from %s to %s", amount, fromAccount, toAccount);
+        if (VERBOSE) {
+            System.out.println("[TRANSFER] " + fromAccount + " -> " + toAccount + " Amount: " + toAmount(cents));
+        }
+        return String.format("Transferred %.2f from %s to %s", toAmount(cents), fromAccount, toAccount);
     }
 
     // ========== INQUIRY ==========
     
     @Override
     public double getBalance(String accountNumber) throws RemoteException {
-        if (!accountExists(accountNumber)) {
+        int index = AccountStore.parseIndex(accountNumber);
+        if (!accounts.exists(index)) {
             return -1; // Account not found
         }
-        return accountBalances.get(accountNumber);
+        return toAmount(accounts.balance(index));
     }
     
     @Override
     public String getAccountDetails(String accountNumber) throws RemoteException {
-        if (!accountExists(accountNumber)) {
+        int index = AccountStore.parseIndex(accountNumber);
+        if (!accounts.exists(index)) {
             return "Error: Account " + accountNumber + " not found.";
         }
         
-        String holder = accountHolders.get(accountNumber);
-        double balance = accountBalances.get(accountNumber);
+        String holder = accounts.holder(index);
+        double balance = toAmount(accounts.balance(index));
         
         return String.format("Account: %s | Holder: %s | Balance: %.2f", 
                             accountNumber, holder, balance);
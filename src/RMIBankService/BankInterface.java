@@ -56,7 +56,8 @@ public interface BankInterface extends Remote {
     String withdraw(String accountNumber, double amount) throws RemoteException;
     
     /**
-     * Transfer money between accounts
+     * Transfer money between accounts (atomically: both
+     * balances change together, or neither does)
      * @param fromAccount Source account
      * @param toAccount Destination account
      * @param amount Amount to transfer
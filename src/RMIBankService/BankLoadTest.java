@@ -0,0 +1,193 @@
+package RMIBankService;
+
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * RMI BANK LOAD TEST
+ * ============================================================
+ * Many RMI clients hammering one bank with a mix of random
+ * operations on random accounts:
+ *
+ *   40% transfer, 25% deposit, 25% withdraw, 10% balance
+ *
+ * Two banks are served from one registry:
+ *   - GLOBAL:  every call synchronized on the bank object (how
+ *              BankImplementation used to lock)
+ *   - CAS:     BankImplementation itself (CAS updates of
+ *              primitive balances under striped locks, see
+ *              AccountStore)
+ *
+ * Each runs with a growing number of client threads; reported
+ * are operations per second and a money check: the sum of all
+ * balances must equal the initial deposits plus successful
+ * deposits minus successful withdrawals (transfers move money,
+ * they never create or lose it). Amounts are whole units, so
+ * the check is exact.
+ *
+ * Usage:
+ *   java RMIBankService.BankLoadTest [accounts] [seconds]
+ *   (defaults: 1000 accounts, 5 s per run)
+ *   BankStoreBenchmark measures the store without RMI.
+ *   -Dbank.loadtest.port=1101      Port of the test's RMI registry
+ *   -Dbank.loadtest.clients=1,8,64 Client thread counts to run
+ * ============================================================
+ */
+public class BankLoadTest {
+
+    private static final int PORT = Integer.getInteger("bank.loadtest.port", 1101);
+    private static final double INITIAL_DEPOSIT = 1_000.0;
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws Exception {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String[] clientCounts = System.getProperty("bank.loadtest.clients", "1,8,64").split(",");
+        if (System.getProperty("bank.verbose") == null) {
+            System.setProperty("bank.verbose", "false");
+        }
+
+        Registry registry = LocateRegistry.createRegistry(PORT);
+        registry.rebind("global", new GlobalLockBank(new BankImplementation()));
+        registry.rebind("cas", new BankImplementation());
+
+        System.out.println("============================================");
+        System.out.println("   RMI BANK LOAD TEST");
+        System.out.println("============================================");
+        System.out.println(accounts + " accounts, " + seconds + " s per run, "
+                           + Runtime.getRuntime().availableProcessors() + " cores");
+
+        String[] names = {"global", "cas"};
+        String[][] numbers = new String[names.length][accounts];
+        DoubleAdder[] expectedTotals = new DoubleAdder[names.length];
+        for (int b = 0; b < names.length; b++) {
+            BankInterface bank = (BankInterface) LocateRegistry.getRegistry("localhost", PORT).lookup(names[b]);
+            for (int i = 0; i < accounts; i++) {
+                numbers[b][i] = bank.createAccount("Customer " + i, INITIAL_DEPOSIT);
+            }
+            expectedTotals[b] = new DoubleAdder();
+            expectedTotals[b].add(accounts * INITIAL_DEPOSIT);
+        }
+        // Both banks warmed up before either is measured
+        for (int b = 0; b < names.length; b++) {
+            run(names[b], numbers[b], 8, 2, expectedTotals[b]);
+        }
+
+        for (int b = 0; b < names.length; b++) {
+            BankInterface bank = (BankInterface) LocateRegistry.getRegistry("localhost", PORT).lookup(names[b]);
+            for (String clients : clientCounts) {
+                double opsPerSecond = run(names[b], numbers[b], Integer.parseInt(clients.trim()), seconds,
+                                          expectedTotals[b]);
+                double total = 0;
+                for (String number : numbers[b]) {
+                    total += bank.getBalance(number);
+                }
+                double expected = expectedTotals[b].sum();
+                boolean balanced = total == expected;
+                System.out.printf("   %-8s %3s clients  %9.0f ops/s   money %s%n", names[b].toUpperCase(),
+                                  clients.trim(), opsPerSecond, balanced ? "balanced" : "MISMATCH (" + total + ")");
+            }
+        }
+        System.out.println("============================================");
+        System.exit(0); // RMI exports keep the JVM alive
+    }
+
+    // ========== ONE RUN ==========
+    /**
+     * @return Operations per second over all clients
+     */
+    private static double run(String name, String[] numbers, int clients, int seconds, DoubleAdder expectedTotal)
+            throws Exception {
+        LongAdder completed = new LongAdder();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] threads = new Thread[clients];
+        for (int t = 0; t < clients; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    BankInterface bank = (BankInterface) LocateRegistry.getRegistry("localhost", PORT).lookup(name);
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        String account = numbers[random.nextInt(numbers.length)];
+                        double amount = 1 + random.nextInt(100);
+                        int op = random.nextInt(100);
+                        if (op < 40) {
+                            bank.transfer(account, numbers[random.nextInt(numbers.length)], amount);
+                        } else if (op < 65) {
+                            if (!bank.deposit(account, amount).startsWith("Error")) {
+                                expectedTotal.add(amount);
+                            }
+                        } else if (op < 90) {
+                            if (!bank.withdraw(account, amount).startsWith("Error")) {
+                                expectedTotal.add(-amount);
+                            }
+                        } else {
+                            bank.getBalance(account);
+                        }
+                        completed.increment();
+                    }
+                } catch (Exception e) {
+                    System.err.println("Client failed: " + e);
+                }
+            }, "bank-client-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return completed.sum() / (double) seconds;
+    }
+
+    // ========================================================
+    // BASELINE - ONE LOCK FOR THE WHOLE BANK
+    // ========================================================
+    private static class GlobalLockBank extends UnicastRemoteObject implements BankInterface {
+        private static final long serialVersionUID = 1L;
+
+        private final BankInterface bank;
+
+        GlobalLockBank(BankInterface bank) throws RemoteException {
+            this.bank = bank;
+        }
+
+        @Override
+        public synchronized String createAccount(String holder, double deposit) throws RemoteException {
+            return bank.createAccount(holder, deposit);
+        }
+
+        @Override
+        public boolean accountExists(String accountNumber) throws RemoteException {
+            return bank.accountExists(accountNumber);
+        }
+
+        @Override
+        public synchronized String deposit(String accountNumber, double amount) throws RemoteException {
+            return bank.deposit(accountNumber, amount);
+        }
+
+        @Override
+        public synchronized String withdraw(String accountNumber, double amount) throws RemoteException {
+            return bank.withdraw(accountNumber, amount);
+        }
+
+        @Override
+        public synchronized String transfer(String from, String to, double amount) throws RemoteException {
+            return bank.transfer(from, to, amount);
+        }
+
+        @Override
+        public double getBalance(String accountNumber) throws RemoteException {
+            return bank.getBalance(accountNumber);
+        }
+
+        @Override
+        public String getAccountDetails(String accountNumber) throws RemoteException {
+            return bank.getAccountDetails(accountNumber);
+        }
+    }
+}
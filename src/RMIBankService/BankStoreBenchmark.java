@@ -0,0 +1,138 @@
+package RMIBankService;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * ============================================================
+ * BANK STORE BENCHMARK - BOXED MAPS VS PRIMITIVE STORE
+ * ============================================================
+ * Compares the account storage BankImplementation used to have
+ * (HashMap<String, Double> balances + HashMap<String, String>
+ * holders) with AccountStore, in one thread, without RMI:
+ *
+ *   - Memory:   heap per account (all holders share one name,
+ *               so only the storage itself is counted)
+ *   - Deposits: account number -> balance update, time and
+ *               bytes allocated per operation; account numbers
+ *               are a pool of REQUESTS fresh String copies (as
+ *               RMI delivers them: just deserialized, so in
+ *               cache) naming random accounts
+ *   - Drift:    DRIFT_DEPOSITS deposits of 0.10 into one account,
+ *               summed as double and as long cents
+ *
+ * Usage:
+ *   java RMIBankService.BankStoreBenchmark [accounts] [operations]
+ *   (defaults: 1000000 accounts, 20000000 operations)
+ * ============================================================
+ */
+public class BankStoreBenchmark {
+
+    private static final int DRIFT_DEPOSITS = 10_000_000;
+    private static final int REQUESTS = 4_096;   // Power of two
+    private static final int ROUNDS = 3;
+    private static final String HOLDER = "Customer";
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+
+        System.out.println("============================================");
+        System.out.println("   BANK ACCOUNT STORE BENCHMARK");
+        System.out.println("============================================");
+
+        // Account numbers as clients send them (built up front, not measured)
+        String[] numbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            numbers[i] = AccountStore.accountNumber(i);
+        }
+        String[] requests = new String[REQUESTS];
+        Random random = new Random(42);
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new String(numbers[random.nextInt(accounts)]);
+        }
+
+        // ========== MEMORY ==========
+        long before = usedHeap();
+        AccountStore store = new AccountStore();
+        for (int i = 0; i < accounts; i++) {
+            store.create(HOLDER, 100_000L);
+        }
+        long storeBytes = usedHeap() - before;
+
+        before = usedHeap();
+        Map<String, Double> balances = new HashMap<>();
+        Map<String, String> holders = new HashMap<>();
+        for (int i = 0; i < accounts; i++) {
+            balances.put(numbers[i], 1_000.0);
+            holders.put(numbers[i], HOLDER);
+        }
+        long mapBytes = usedHeap() - before;
+
+        System.out.printf("Memory (%d accounts, account-number keys excluded):%n", accounts);
+        System.out.printf("   %-14s %6.1f bytes/account%n", "HashMaps", mapBytes / (double) accounts);
+        System.out.printf("   %-14s %6.1f bytes/account%n", "AccountStore", storeBytes / (double) accounts);
+
+        // ========== DEPOSITS ==========
+        double[] mapResult = new double[2];
+        double[] storeResult = new double[2];
+        for (int round = 0; round < ROUNDS; round++) {   // Last round reported
+            mapResult = measure(() -> {
+                for (int i = 0; i < operations; i++) {
+                    String number = requests[i & (REQUESTS - 1)];
+                    balances.put(number, balances.get(number) + 0.01);
+                }
+            }, operations);
+            storeResult = measure(() -> {
+                for (int i = 0; i < operations; i++) {
+                    store.deposit(AccountStore.parseIndex(requests[i & (REQUESTS - 1)]), 1);
+                }
+            }, operations);
+        }
+        System.out.printf("Deposits (%d, %d request strings):%n", operations, REQUESTS);
+        System.out.printf("   %-14s %6.1f ns/op | %5.1f bytes allocated/op%n", "HashMaps", mapResult[0], mapResult[1]);
+        System.out.printf("   %-14s %6.1f ns/op | %5.1f bytes allocated/op%n", "AccountStore", storeResult[0], storeResult[1]);
+
+        // ========== DRIFT ==========
+        double floating = 0;
+        int account = store.create(HOLDER, 0);
+        for (int i = 0; i < DRIFT_DEPOSITS; i++) {
+            floating += 0.10;
+            store.deposit(account, 10);
+        }
+        System.out.printf("Drift (%d deposits of 0.10, expected %.2f):%n", DRIFT_DEPOSITS, DRIFT_DEPOSITS / 10.0);
+        System.out.println("   double         " + floating);
+        System.out.println("   long cents     " + store.balance(account) / 100 + "." + String.format("%02d", store.balance(account) % 100));
+        System.out.println("============================================");
+
+        // Keep every store alive until here, so the heap figures above cannot shrink
+        Reference.reachabilityFence(store);
+        Reference.reachabilityFence(balances);
+        Reference.reachabilityFence(holders);
+    }
+
+    // ========== HELPERS ==========
+    /**
+     * @return {ns per operation, bytes allocated per operation}
+     */
+    private static double[] measure(Runnable work, int operations) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        work.run();
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+        return new double[]{elapsed / (double) operations, allocated / (double) operations};
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
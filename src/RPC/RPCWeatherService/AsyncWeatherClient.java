@@ -0,0 +1,332 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.net.*;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ============================================================
+ * ASYNC WEATHER CLIENT - POOLED, NON-BLOCKING RPC CLIENT
+ * ============================================================
+ * Programmatic client for services: every call returns a
+ * CompletableFuture instead of blocking the caller.
+ *
+ * Connection pool:
+ *   - A fixed number of persistent RPCConnections, opened
+ *     lazily and reopened after a failure
+ *   - Each call goes to the connection with the fewest calls in
+ *     flight (ties rotate), up to maxInFlight per connection
+ *   - When every connection is full, calls wait in one FIFO
+ *     queue and are sent in arrival order as responses come
+ *     back, so no caller can starve another
+ *
+ * Timeouts are measured from submission, including time spent
+ * in the queue. Failures complete the future exceptionally:
+ *   - SocketTimeoutException: no response within the timeout
+ *   - IOException:            connection failure
+ *   - RPCException:           error response from the server
+ * The remaining timeout is sent with the request, so the server
+ * drops calls whose caller has already given up. Cancelling a
+ * returned future drops a waiting call or cancels it on the
+ * server, and frees its connection slot at once.
+ *
+ * Returned futures complete on a virtual thread (one per
+ * response, named weather-client-callback), never on a
+ * connection's reader thread: continuations may block, even on
+ * further calls through this client, without stalling the other
+ * calls on that connection. Waiting calls freed by a response
+ * are sent from the same thread.
+ *
+ * Configuration (system properties, see fromSystemProperties):
+ *   -Dweather.client.connections=4    Pooled connections
+ *   -Dweather.client.max.inflight=256 Calls in flight per connection
+ *   -Dweather.client.timeout.ms=2000  Per-call timeout (0 = none)
+ * ============================================================
+ */
+public class AsyncWeatherClient implements Closeable {
+
+    // ========== SHARED CALLBACK THREADS ==========
+    private static final ExecutorService CALLBACKS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("weather-client-callback-", 0).factory());
+
+    // ========== CONFIGURATION ==========
+    private final String host;
+    private final int port;
+    private final int maxInFlight;
+    private final long timeoutMillis;
+
+    // ========== CONNECTION POOL ==========
+    private final Slot[] slots;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    // ========== WAITING CALLS (FIFO) ==========
+    private final Queue<QueuedCall> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private volatile boolean closed;
+
+    // ========== CONSTRUCTORS ==========
+    /**
+     * @param connections Number of pooled connections
+     * @param maxInFlight Calls in flight per connection before calls queue
+     * @param timeoutMillis Per-call timeout from submission (0 waits forever)
+     */
+    public AsyncWeatherClient(String host, int port, int connections, int maxInFlight, long timeoutMillis) {
+        if (connections < 1 || maxInFlight < 1 || timeoutMillis < 0) {
+            throw new IllegalArgumentException("Need at least one connection and one call in flight");
+        }
+        this.host = host;
+        this.port = port;
+        this.maxInFlight = maxInFlight;
+        this.timeoutMillis = timeoutMillis;
+        this.slots = new Slot[connections];
+        for (int i = 0; i < connections; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public static AsyncWeatherClient fromSystemProperties(String host, int port) {
+        return new AsyncWeatherClient(host, port,
+                                      Integer.getInteger("weather.client.connections", 4),
+                                      Integer.getInteger("weather.client.max.inflight", 256),
+                                      Long.getLong("weather.client.timeout.ms", 2_000L));
+    }
+
+    // ========================================================
+    // WEATHER SERVICE CALLS
+    // ========================================================
+    public CompletableFuture<WeatherData> getWeatherAsync(String city) {
+        return callAsync("getWeather", new Object[]{city}).thenApply(WeatherData.class::cast);
+    }
+
+    public CompletableFuture<WeatherBatchResult> getWeatherBatchAsync(String... cities) {
+        return callAsync("getWeatherBatch", new Object[]{cities}).thenApply(WeatherBatchResult.class::cast);
+    }
+
+    public CompletableFuture<String[]> getAllCitiesAsync() {
+        return callAsync("getAllCities", null).thenApply(String[].class::cast);
+    }
+
+    /**
+     * Call any method registered on the server.
+     *
+     * @return Future completed with the call's result
+     */
+    public CompletableFuture<Object> callAsync(String methodName, Object[] parameters) {
+        return callAsync(methodName, parameters, timeoutMillis);
+    }
+
+    /**
+     * Call any method registered on the server with its own timeout.
+     *
+     * @param timeoutMillis Timeout from submission (0 waits forever)
+     * @return Future completed with the call's result
+     */
+    public CompletableFuture<Object> callAsync(String methodName, Object[] parameters, long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Negative timeout: " + timeoutMillis);
+        }
+        QueuedCall call = new QueuedCall(methodName, parameters, timeoutMillis);
+        if (closed) {
+            call.result.completeExceptionally(new IOException("Client closed"));
+            return call.result;
+        }
+
+        // Fast path: nobody is waiting and a connection has room
+        if (waiting.isEmpty()) {
+            Slot slot = acquireSlot();
+            if (slot != null) {
+                send(slot, call);
+                return call.result;
+            }
+        }
+        waiting.add(call);
+        drain();
+        return call.result;
+    }
+
+    public int getQueuedCalls() { return waiting.size(); }
+
+    public int getInFlightCalls() {
+        int total = 0;
+        for (Slot slot : slots) {
+            total += slot.inFlight.get();
+        }
+        return total;
+    }
+
+    // ========================================================
+    // SCHEDULING
+    // ========================================================
+    /**
+     * Reserve room on the least-loaded connection.
+     *
+     * @return The reserved slot, or null if every connection is full
+     */
+    private Slot acquireSlot() {
+        int start = (nextSlot.getAndIncrement() & Integer.MAX_VALUE) % slots.length;
+        while (true) {
+            Slot best = null;
+            int bestLoad = maxInFlight;
+            for (int i = 0; i < slots.length; i++) {
+                Slot slot = slots[(start + i) % slots.length];
+                int load = slot.inFlight.get();
+                if (load < bestLoad) {
+                    best = slot;
+                    bestLoad = load;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            if (best.inFlight.compareAndSet(bestLoad, bestLoad + 1)) {
+                return best;
+            }
+        }
+    }
+
+    /**
+     * Send waiting calls while connections have room. Only one
+     * thread drains at a time; a request made meanwhile makes it
+     * loop again, so no call is left behind.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            while (!waiting.isEmpty()) {
+                Slot slot = acquireSlot();
+                if (slot == null) {
+                    break; // Completions will drain again
+                }
+                QueuedCall call = waiting.poll();
+                if (call == null) {
+                    slot.inFlight.decrementAndGet();
+                    break;
+                }
+                send(slot, call);
+            }
+            requests = drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private void send(Slot slot, QueuedCall call) {
+        if (call.result.isDone()) {
+            release(slot); // Cancelled while waiting
+            return;
+        }
+        long callTimeoutMillis = 0;
+        if (call.timeoutMillis > 0) {
+            long remainingNanos = call.deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                release(slot);
+                call.result.completeExceptionally(new SocketTimeoutException(
+                        call.methodName + " timed out after " + call.timeoutMillis + " ms waiting for a connection"));
+                return;
+            }
+            callTimeoutMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+        }
+
+        RPCConnection connection;
+        try {
+            if (closed) {
+                throw new IOException("Client closed");
+            }
+            connection = slot.connection(host, port);
+        } catch (IOException e) {
+            release(slot);
+            call.result.completeExceptionally(e);
+            return;
+        }
+        CompletableFuture<RPCResponse> sent = connection.callAsync(call.methodName, call.parameters, callTimeoutMillis);
+        // Off the reader thread: release may send waiting calls, and continuations may block
+        sent.whenComplete((response, error) -> CALLBACKS.execute(() -> {
+            release(slot); // Free the slot before running the caller's continuations
+            if (error != null) {
+                call.result.completeExceptionally(error);
+            } else if (response.isSuccess()) {
+                call.result.complete(response.getResult());
+            } else {
+                call.result.completeExceptionally(new RPCException(response.getErrorMessage()));
+            }
+        }));
+        call.result.whenComplete((value, error) -> {
+            if (call.result.isCancelled()) {
+                sent.cancel(false); // Cancels on the server and frees the slot
+            }
+        });
+    }
+
+    private void release(Slot slot) {
+        slot.inFlight.decrementAndGet();
+        if (!waiting.isEmpty()) {
+            drain();
+        }
+    }
+
+    // ========== SHUTDOWN ==========
+    /**
+     * Close every connection; in-flight and waiting calls fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Slot slot : slots) {
+            slot.close();
+        }
+        QueuedCall call;
+        while ((call = waiting.poll()) != null) {
+            call.result.completeExceptionally(new IOException("Client closed"));
+        }
+    }
+
+    // ========================================================
+    // SLOT - ONE POOLED CONNECTION
+    // ========================================================
+    private static final class Slot {
+        final AtomicInteger inFlight = new AtomicInteger();
+        private volatile RPCConnection connection;
+
+        RPCConnection connection(String host, int port) throws IOException {
+            RPCConnection current = connection;
+            if (current != null && current.isOpen()) {
+                return current;
+            }
+            synchronized (this) {
+                if (connection == null || !connection.isOpen()) {
+                    connection = new RPCConnection(host, port);
+                }
+                return connection;
+            }
+        }
+
+        synchronized void close() {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    // ========== CALL WAITING FOR A CONNECTION ==========
+    private static final class QueuedCall {
+        final String methodName;
+        final Object[] parameters;
+        final long timeoutMillis;
+        final long deadlineNanos;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        QueuedCall(String methodName, Object[] parameters, long timeoutMillis) {
+            this.methodName = methodName;
+            this.parameters = parameters;
+            this.timeoutMillis = timeoutMillis;
+            this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        }
+    }
+}
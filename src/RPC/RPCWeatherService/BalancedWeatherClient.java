@@ -0,0 +1,629 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.net.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * BALANCED WEATHER CLIENT - LOAD BALANCING ACROSS REPLICAS
+ * ============================================================
+ * Spreads calls over several WeatherServer replicas. Each
+ * replica gets its own AsyncWeatherClient pool; this class only
+ * decides which replica serves a call.
+ *
+ * Balancing (-Dweather.lb.balancing):
+ *   - ROUND_ROBIN:       replicas in turn (baseline)
+ *   - LEAST_OUTSTANDING: replica with the fewest calls in flight
+ *   - POWER_OF_TWO:      two random replicas, the cheaper one wins;
+ *                        cost = latency EWMA x (calls in flight + 1)
+ *                        (default)
+ *
+ * The latency EWMA jumps up at once on a slow response and
+ * decays over about a second, so a replica that degrades loses
+ * traffic within a few calls and wins it back once it recovers.
+ *
+ * Health and ejection (-Dweather.lb.ejection=true):
+ *   - Every health interval each replica is pinged (HealthService)
+ *   - failureThreshold transport failures in a row (calls or
+ *     pings) eject a replica immediately
+ *   - Once per interval, a replica whose mean latency is over
+ *     slowFactor x the median of all replicas (and over the
+ *     slow floor) is ejected, at most maxEjectedPercent of them
+ *   - Ejection lasts eject.ms x times ejected (max 30 s); the
+ *     replica returns when that has passed and a ping succeeds
+ *   - If every replica is ejected, all of them are used again
+ *
+ * A call that fails with a transport error (not a timeout or
+ * server error) is retried once on another replica, so only
+ * use this client for idempotent calls (every WeatherService
+ * read is).
+ *
+ * Hedging (-Dweather.lb.hedge=true): if a call has no answer
+ * after the hedge delay (p95 of recent call latency, refreshed
+ * every health interval) a copy goes to another replica; the
+ * first answer wins and the other copy is cancelled on its
+ * server. Hedges are capped at a percentage of calls so a
+ * general slowdown cannot double the load.
+ *
+ * Deadlines and cancellation: callAsync with a timeout bounds
+ * the whole call, retry and hedge included; each copy carries
+ * the time left, and a timer fails the call at the deadline
+ * and cancels the copies still in flight. Cancelling the returned future cancels every
+ * copy still in flight.
+ *
+ * Configuration (system properties, see fromSystemProperties):
+ *   -Dweather.servers=localhost:5001         Replicas, comma separated
+ *   -Dweather.lb.balancing=POWER_OF_TWO      Balancing strategy
+ *   -Dweather.lb.ejection=true               Eject failing/slow replicas
+ *   -Dweather.lb.health.ms=500               Health check interval
+ *   -Dweather.lb.failures=3                  Failures in a row to eject
+ *   -Dweather.lb.slow.factor=3.0             Slow = factor x median latency
+ *   -Dweather.lb.slow.min.ms=5               ...and at least this slow
+ *   -Dweather.lb.eject.ms=2000               Base ejection time
+ *   -Dweather.lb.max.ejected.percent=50      Cap for slowness ejections
+ *   -Dweather.lb.hedge=false                 Hedge slow calls
+ *   -Dweather.lb.hedge.min.ms=2              Shortest hedge delay
+ *   -Dweather.lb.hedge.max.percent=10        Hedges as a share of calls
+ *   plus weather.client.* for each replica's connection pool
+ * ============================================================
+ */
+public class BalancedWeatherClient implements Closeable {
+
+    // ========== BALANCING STRATEGIES ==========
+    public enum Balancing { ROUND_ROBIN, LEAST_OUTSTANDING, POWER_OF_TWO }
+
+    // ========== CONFIGURATION ==========
+    private static final int FAILURE_THRESHOLD = Integer.getInteger("weather.lb.failures", 3);
+    private static final double SLOW_FACTOR =
+            Double.parseDouble(System.getProperty("weather.lb.slow.factor", "3.0"));
+    private static final long SLOW_FLOOR_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("weather.lb.slow.min.ms", 5L));
+    private static final long EJECTION_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("weather.lb.eject.ms", 2_000L));
+    private static final long MAX_EJECTION_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int MAX_EJECTED_PERCENT = Integer.getInteger("weather.lb.max.ejected.percent", 50);
+    private static final int MIN_SAMPLES = 5;             // Per interval before judging latency
+    private static final int HEALTHY_TICKS_TO_FORGIVE = 10;
+    private static final double DECAY_NANOS = 1e9;        // Latency EWMA time constant
+    private static final double INITIAL_LATENCY_NANOS = 1e6;
+    private static final long HEDGE_FLOOR_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("weather.lb.hedge.min.ms", 2L));
+    private static final int MAX_HEDGE_PERCENT = Integer.getInteger("weather.lb.hedge.max.percent", 10);
+    private static final int LATENCY_SAMPLES = 1024;      // Recent calls behind the hedge delay
+
+    private final Balancing balancing;
+    private final boolean ejection;
+    private final boolean hedging;
+
+    // ========== REPLICAS ==========
+    private final Replica[] replicas;
+    private volatile Replica[] rotation;                  // Replicas not ejected
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor healthChecker;   // Also runs hedge timers
+
+    // ========== HEDGING ==========
+    private final long[] recentLatencies = new long[LATENCY_SAMPLES];  // Ring, written without locking
+    private final AtomicInteger nextLatency = new AtomicInteger();
+    private volatile long hedgeDelayNanos = Long.MAX_VALUE;           // Until enough samples exist
+    private final LongAdder totalCalls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    // ========== CONSTRUCTORS ==========
+    public BalancedWeatherClient(List<InetSocketAddress> servers, Balancing balancing, boolean ejection,
+                                 long healthIntervalMillis) {
+        this(servers, balancing, ejection, false, healthIntervalMillis);
+    }
+
+    /**
+     * @param servers Replica addresses
+     * @param hedging Send a copy of slow calls to a second replica
+     * @param healthIntervalMillis Time between health checks
+     */
+    public BalancedWeatherClient(List<InetSocketAddress> servers, Balancing balancing, boolean ejection,
+                                 boolean hedging, long healthIntervalMillis) {
+        if (servers.isEmpty() || healthIntervalMillis < 1) {
+            throw new IllegalArgumentException("Need at least one server and a health interval");
+        }
+        this.balancing = balancing;
+        this.ejection = ejection;
+        this.hedging = hedging;
+        this.replicas = new Replica[servers.size()];
+        for (int i = 0; i < replicas.length; i++) {
+            replicas[i] = new Replica(servers.get(i));
+        }
+        this.rotation = replicas.clone();
+        this.healthChecker = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "weather-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.setRemoveOnCancelPolicy(true); // Answered calls drop their hedge timer at once
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static BalancedWeatherClient fromSystemProperties() {
+        return new BalancedWeatherClient(
+                parseServers(System.getProperty("weather.servers", "localhost:5001")),
+                Balancing.valueOf(System.getProperty("weather.lb.balancing", "POWER_OF_TWO").toUpperCase(Locale.ROOT)),
+                Boolean.parseBoolean(System.getProperty("weather.lb.ejection", "true")),
+                Boolean.getBoolean("weather.lb.hedge"),
+                Long.getLong("weather.lb.health.ms", 500L));
+    }
+
+    /**
+     * @param servers "host:port,host:port,..."
+     */
+    public static List<InetSocketAddress> parseServers(String servers) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String server : servers.split(",")) {
+            String trimmed = server.trim();
+            int colon = trimmed.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Expected host:port, got: " + trimmed);
+            }
+            addresses.add(InetSocketAddress.createUnresolved(trimmed.substring(0, colon),
+                                                             Integer.parseInt(trimmed.substring(colon + 1))));
+        }
+        return addresses;
+    }
+
+    // ========================================================
+    // WEATHER SERVICE CALLS
+    // ========================================================
+    public CompletableFuture<WeatherData> getWeatherAsync(String city) {
+        return callAsync("getWeather", new Object[]{city}).thenApply(WeatherData.class::cast);
+    }
+
+    public CompletableFuture<WeatherBatchResult> getWeatherBatchAsync(String... cities) {
+        return callAsync("getWeatherBatch", new Object[]{cities}).thenApply(WeatherBatchResult.class::cast);
+    }
+
+    public CompletableFuture<String[]> getAllCitiesAsync() {
+        return callAsync("getAllCities", null).thenApply(String[].class::cast);
+    }
+
+    /**
+     * Call any idempotent method registered on the servers. Each
+     * copy of the call gets the replica clients' own timeout.
+     *
+     * @return Future completed with the call's result, failing as
+     *         AsyncWeatherClient futures do
+     */
+    public CompletableFuture<Object> callAsync(String methodName, Object[] parameters) {
+        return callAsync(methodName, parameters, 0);
+    }
+
+    /**
+     * Call any idempotent method registered on the servers.
+     *
+     * @param timeoutMillis Deadline for the whole call, retry and hedge
+     *        included (0 = each copy uses the replica clients' timeout)
+     * @return Future completed with the first answer; cancelling it
+     *         cancels every copy in flight
+     */
+    public CompletableFuture<Object> callAsync(String methodName, Object[] parameters, long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Negative timeout: " + timeoutMillis);
+        }
+        Call call = new Call(methodName, parameters, timeoutMillis);
+        totalCalls.increment();
+        if (call.deadlineNanos != 0) {
+            // Copies in flight are cancelled by the completion below
+            ScheduledFuture<?> deadline = healthChecker.schedule(
+                    () -> call.result.completeExceptionally(call.timedOut()),
+                    call.remainingNanos(), TimeUnit.NANOSECONDS);
+            call.result.whenComplete((value, error) -> deadline.cancel(false));
+        }
+        Replica first = choose(null);
+        send(call, first, false);
+        if (hedging && replicas.length > 1) {
+            long delay = hedgeDelayNanos;
+            if (delay != Long.MAX_VALUE && (call.deadlineNanos == 0 || delay < call.remainingNanos())) {
+                ScheduledFuture<?> hedge = healthChecker.schedule(() -> hedge(call, first), delay, TimeUnit.NANOSECONDS);
+                call.result.whenComplete((value, error) -> hedge.cancel(false));
+            }
+        }
+        call.result.whenComplete((value, error) -> call.cancelAttempts());
+        return call.result;
+    }
+
+    private void send(Call call, Replica replica, boolean isHedge) {
+        CompletableFuture<Object> attempt;
+        if (call.deadlineNanos == 0) {
+            attempt = replica.client.callAsync(call.methodName, call.parameters);
+        } else {
+            long remainingNanos = call.remainingNanos();
+            if (remainingNanos <= 0) {
+                call.result.completeExceptionally(call.timedOut());
+                return;
+            }
+            attempt = replica.client.callAsync(call.methodName, call.parameters,
+                                               Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos)));
+        }
+        replica.outstanding.incrementAndGet();
+        replica.calls.increment();
+        call.attempts.incrementAndGet();
+        call.inFlight.add(attempt);
+        if (call.result.isDone()) {
+            attempt.cancel(false); // Answered (or cancelled) while this copy was being sent
+        }
+        long start = System.nanoTime();
+        attempt.whenComplete((value, error) -> {
+            replica.outstanding.decrementAndGet();
+            call.inFlight.remove(attempt);
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            long elapsedNanos = System.nanoTime() - start;
+            if (cause instanceof CancellationException) {
+                call.attempts.decrementAndGet();
+                if (!isHedge && call.result.isDone() && !call.result.isCancelled()) {
+                    replica.observe(elapsedNanos); // Lost to its hedge: at least this slow
+                }
+                return;
+            }
+            record(replica, elapsedNanos, cause);
+            if (cause == null) {
+                recentLatencies[(nextLatency.getAndIncrement() & Integer.MAX_VALUE) % LATENCY_SAMPLES] = elapsedNanos;
+                if (call.result.complete(value) && isHedge) {
+                    hedgeWins.increment();
+                }
+            } else if (isRetryable(cause) && replicas.length > 1 && call.claimRetry()) {
+                send(call, choose(replica), false);
+                if (call.attempts.decrementAndGet() == 0) {
+                    call.result.completeExceptionally(cause); // The retry failed at once too
+                }
+            } else if (call.attempts.decrementAndGet() == 0) {
+                call.result.completeExceptionally(cause); // No other copy left to answer
+            }
+        });
+    }
+
+    /** Runs when the first copy has not answered within the hedge delay. */
+    private void hedge(Call call, Replica first) {
+        if (call.result.isDone() || hedges.sum() * 100 >= totalCalls.sum() * MAX_HEDGE_PERCENT) {
+            return;
+        }
+        hedges.increment();
+        send(call, choose(first), true);
+    }
+
+    /** Connection failures never reached the server; timeouts might have. */
+    private static boolean isRetryable(Throwable error) {
+        return error instanceof IOException && !(error instanceof SocketTimeoutException);
+    }
+
+    // ========================================================
+    // REPLICA CHOICE
+    // ========================================================
+    /**
+     * @param exclude Replica to avoid (the one a retry failed on), or null
+     */
+    private Replica choose(Replica exclude) {
+        Replica[] pool = rotation;
+        if (pool.length == 0 || (pool.length == 1 && pool[0] == exclude)) {
+            pool = replicas; // Nothing else in rotation: use everything
+        }
+        int count = pool.length;
+        if (count == 1) {
+            return pool[0];
+        }
+        switch (balancing) {
+            case ROUND_ROBIN: {
+                Replica next = pool[(nextReplica.getAndIncrement() & Integer.MAX_VALUE) % count];
+                return next != exclude ? next : pool[(nextReplica.getAndIncrement() & Integer.MAX_VALUE) % count];
+            }
+            case LEAST_OUTSTANDING: {
+                int start = (nextReplica.getAndIncrement() & Integer.MAX_VALUE) % count; // Ties rotate
+                Replica best = null;
+                for (int i = 0; i < count; i++) {
+                    Replica candidate = pool[(start + i) % count];
+                    if (candidate != exclude
+                        && (best == null || candidate.outstanding.get() < best.outstanding.get())) {
+                        best = candidate;
+                    }
+                }
+                return best;
+            }
+            default: {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int first = random.nextInt(count);
+                int second = (first + 1 + random.nextInt(count - 1)) % count; // Distinct from first
+                Replica a = pool[first];
+                Replica b = pool[second];
+                if (a == exclude) {
+                    return b;
+                }
+                if (b == exclude) {
+                    return a;
+                }
+                return a.cost() <= b.cost() ? a : b;
+            }
+        }
+    }
+
+    // ========================================================
+    // OUTCOMES AND HEALTH
+    // ========================================================
+    /**
+     * Record one call or ping outcome.
+     *
+     * @param error Transport failure, server error (RPCException) or null
+     */
+    private void record(Replica replica, long elapsedNanos, Throwable error) {
+        if (error != null && !(error instanceof RPCException)) {
+            replica.failures.increment();
+            if (replica.consecutiveFailures.incrementAndGet() >= FAILURE_THRESHOLD && ejection) {
+                eject(replica);
+            }
+            return;
+        }
+        replica.consecutiveFailures.set(0);
+        replica.observe(elapsedNanos);
+    }
+
+    private void checkHealth() {
+        try {
+            if (hedging) {
+                updateHedgeDelay();
+            }
+            long now = System.nanoTime();
+            for (Replica replica : replicas) {
+                if (replica.ejected && now >= replica.ejectedUntilNanos && replica.lastPingOk) {
+                    reinstate(replica);
+                }
+            }
+            if (ejection) {
+                ejectSlowReplicas();
+            }
+            for (Replica replica : replicas) {
+                ping(replica);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Health check failed: " + e.getMessage()); // Keep checking
+        }
+    }
+
+    /** Hedge delay = p95 of the recent call latencies (at least the floor). */
+    private void updateHedgeDelay() {
+        int samples = Math.min(nextLatency.get() & Integer.MAX_VALUE, LATENCY_SAMPLES);
+        if (samples < LATENCY_SAMPLES / 4) {
+            return; // Keep the previous delay until there is enough history
+        }
+        long[] sorted = Arrays.copyOf(recentLatencies, samples);
+        Arrays.sort(sorted);
+        hedgeDelayNanos = Math.max(HEDGE_FLOOR_NANOS, sorted[(int) (samples * 0.95)]);
+    }
+
+    private void ping(Replica replica) {
+        if (!replica.pingInFlight.compareAndSet(false, true)) {
+            return; // The previous ping has not answered yet
+        }
+        long start = System.nanoTime();
+        replica.client.callAsync("ping", null).whenComplete((value, error) -> {
+            replica.pingInFlight.set(false);
+            replica.lastPingOk = error == null;
+            record(replica, System.nanoTime() - start, error);
+        });
+    }
+
+    /** Compare each replica's mean latency this interval with the median of all of them. */
+    private synchronized void ejectSlowReplicas() {
+        double[] means = new double[replicas.length];
+        int judged = 0;
+        for (int i = 0; i < replicas.length; i++) {
+            means[i] = replicas[i].takeWindowMean();
+            if (!Double.isNaN(means[i])) {
+                judged++;
+            }
+        }
+        if (judged < 2) {
+            return; // Nothing to compare with
+        }
+        double[] sorted = new double[judged];
+        int n = 0;
+        for (double mean : means) {
+            if (!Double.isNaN(mean)) {
+                sorted[n++] = mean;
+            }
+        }
+        Arrays.sort(sorted);
+        double median = sorted[judged / 2];
+
+        int maxEjected = replicas.length * MAX_EJECTED_PERCENT / 100;
+        for (int i = 0; i < replicas.length; i++) {
+            Replica replica = replicas[i];
+            boolean slow = !Double.isNaN(means[i]) && means[i] > SLOW_FLOOR_NANOS && means[i] > SLOW_FACTOR * median;
+            if (replica.ejected) {
+                continue;
+            }
+            if (slow || replica.consecutiveFailures.get() > 0) {
+                replica.healthyTicks = 0;
+                if (slow && replicas.length - rotation.length < maxEjected) {
+                    eject(replica);
+                }
+            } else if (++replica.healthyTicks >= HEALTHY_TICKS_TO_FORGIVE) {
+                replica.ejections = 0; // Healthy for a while: the next ejection is short again
+            }
+        }
+    }
+
+    private synchronized void eject(Replica replica) {
+        if (replica.ejected) {
+            return;
+        }
+        replica.ejections++;
+        replica.healthyTicks = 0;
+        replica.ejectedUntilNanos = System.nanoTime() + Math.min(MAX_EJECTION_NANOS, EJECTION_NANOS * replica.ejections);
+        replica.lastPingOk = false;
+        replica.ejected = true;
+        updateRotation();
+    }
+
+    private synchronized void reinstate(Replica replica) {
+        replica.ejected = false;
+        replica.consecutiveFailures.set(0);
+        replica.resetLatency();
+        updateRotation();
+    }
+
+    private void updateRotation() {
+        List<Replica> inRotation = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (!replica.ejected) {
+                inRotation.add(replica);
+            }
+        }
+        rotation = inRotation.toArray(new Replica[0]);
+    }
+
+    // ========== STATISTICS GETTERS ==========
+    public int getReplicaCount() { return replicas.length; }
+    public InetSocketAddress getAddress(int replica) { return replicas[replica].address; }
+    public boolean isEjected(int replica) { return replicas[replica].ejected; }
+    public long getCalls(int replica) { return replicas[replica].calls.sum(); }
+    public long getFailures(int replica) { return replicas[replica].failures.sum(); }
+    public int getEjections(int replica) { return replicas[replica].ejections; }
+    public double getLatencyMillis(int replica) { return replicas[replica].latencyNanos / 1e6; }
+    public long getHedges() { return hedges.sum(); }
+    public long getHedgeWins() { return hedgeWins.sum(); }
+
+    /** @return Current hedge delay, or -1 before there is enough history */
+    public double getHedgeDelayMillis() {
+        long delay = hedgeDelayNanos;
+        return delay == Long.MAX_VALUE ? -1 : delay / 1e6;
+    }
+
+    // ========== SHUTDOWN ==========
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.client.close();
+        }
+    }
+
+    // ========================================================
+    // CALL - ONE LOGICAL CALL AND ITS COPIES
+    // ========================================================
+    private static final class Call {
+        final String methodName;
+        final Object[] parameters;
+        final long timeoutMillis;
+        final long deadlineNanos;                              // 0 = no overall deadline
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final Queue<CompletableFuture<Object>> inFlight = new ConcurrentLinkedQueue<>();
+        final AtomicInteger attempts = new AtomicInteger();   // Copies that may still answer
+        private final AtomicBoolean retried = new AtomicBoolean();
+
+        Call(String methodName, Object[] parameters, long timeoutMillis) {
+            this.methodName = methodName;
+            this.parameters = parameters;
+            this.timeoutMillis = timeoutMillis;
+            this.deadlineNanos = timeoutMillis > 0
+                    ? (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) | 1 // Never 0
+                    : 0;
+        }
+
+        long remainingNanos() {
+            return deadlineNanos - System.nanoTime();
+        }
+
+        SocketTimeoutException timedOut() {
+            return new SocketTimeoutException(methodName + " timed out after " + timeoutMillis + " ms");
+        }
+
+        /** @return true for the one failure allowed to retry */
+        boolean claimRetry() {
+            return retried.compareAndSet(false, true);
+        }
+
+        void cancelAttempts() {
+            CompletableFuture<Object> attempt;
+            while ((attempt = inFlight.poll()) != null) {
+                attempt.cancel(false);
+            }
+        }
+    }
+
+    // ========================================================
+    // REPLICA - ONE SERVER AND ITS CONNECTION POOL
+    // ========================================================
+    private static final class Replica {
+        final InetSocketAddress address;
+        final AsyncWeatherClient client;
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        final AtomicBoolean pingInFlight = new AtomicBoolean();
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        // Peak EWMA, updated without locking (an approximate figure is enough)
+        volatile double latencyNanos = INITIAL_LATENCY_NANOS;
+        private volatile long lastObservedNanos = System.nanoTime();
+
+        // This health interval
+        private final LongAdder windowNanos = new LongAdder();
+        private final LongAdder windowSamples = new LongAdder();
+
+        // Ejection state, written under the client's lock
+        volatile boolean ejected;
+        volatile long ejectedUntilNanos;
+        volatile boolean lastPingOk;
+        int ejections;
+        int healthyTicks;
+
+        Replica(InetSocketAddress address) {
+            this.address = address;
+            this.client = AsyncWeatherClient.fromSystemProperties(address.getHostString(), address.getPort());
+        }
+
+        double cost() {
+            return latencyNanos * (outstanding.get() + 1);
+        }
+
+        void observe(long elapsedNanos) {
+            long now = System.nanoTime();
+            double current = latencyNanos;
+            if (elapsedNanos > current) {
+                latencyNanos = elapsedNanos; // Slowness counts at once
+            } else {
+                double weight = Math.exp(-(now - lastObservedNanos) / DECAY_NANOS);
+                latencyNanos = current * weight + elapsedNanos * (1 - weight);
+            }
+            lastObservedNanos = now;
+            windowNanos.add(elapsedNanos);
+            windowSamples.increment();
+        }
+
+        /** @return Mean latency since the last call, or NaN if too few samples */
+        double takeWindowMean() {
+            long samples = windowSamples.sumThenReset();
+            long total = windowNanos.sumThenReset();
+            return samples >= MIN_SAMPLES ? (double) total / samples : Double.NaN;
+        }
+
+        void resetLatency() {
+            latencyNanos = INITIAL_LATENCY_NANOS;
+            lastObservedNanos = System.nanoTime();
+            windowNanos.reset();
+            windowSamples.reset();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package RPC.RPCWeatherService;
+
+import java.net.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * ============================================================
+ * RPC LOAD BALANCING TEST
+ * ============================================================
+ * Starts several WeatherServer replicas on free local ports,
+ * each behind a FaultProxy, and drives them through one
+ * BalancedWeatherClient with many blocking callers. Each
+ * balancing setup runs the same phases:
+ *
+ *   1. healthy:   all replicas normal
+ *   2. slow:      replica 1 delays every request by delayMs
+ *   3. down:      replica 1 recovered, replica 2 cut off
+ *   4. recovered: all replicas normal again
+ *   5. stalls:    replica 0 stalls stallPercent of requests by delayMs
+ *
+ * Reports per phase: throughput, latency p50 / p99 / max,
+ * failed calls, hedged calls and each replica's share of the
+ * calls (* marks a replica ejected at the end of the phase).
+ *
+ * Usage:
+ *   java RPC.RPCWeatherService.BalancerLoadTest [replicas] [secondsPerPhase] [callers] [setups...]
+ *   setups: ROUND_ROBIN, LEAST_OUTSTANDING, POWER_OF_TWO (with
+ *   ejection), NAME:noeject, NAME:hedge or NAME:noeject:hedge
+ *   (defaults: 3 replicas, 5 s, 32 callers,
+ *    ROUND_ROBIN:noeject POWER_OF_TWO POWER_OF_TWO:hedge)
+ *   -Dweather.lb.test.delay.ms=50   Delay of the slow replica
+ *   -Dweather.lb.test.stall.percent=2 Stalled requests in phase 5
+ * ============================================================
+ */
+public class BalancerLoadTest {
+
+    // ========== TEST CONFIGURATION ==========
+    private static final String HOST = "localhost";
+    private static final String[] CITIES = {"Colombo", "Kandy", "Galle", "Jaffna", "Nuwara Eliya"};
+    private static final long DELAY_MS = Long.getLong("weather.lb.test.delay.ms", 50L);
+    private static final double STALL_PERCENT =
+            Double.parseDouble(System.getProperty("weather.lb.test.stall.percent", "2"));
+    private static final String[] PHASES = {"healthy", "slow", "down", "recovered", "stalls"};
+
+    private static volatile int phase;
+    private static volatile boolean running;
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws Exception {
+        int replicaCount = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int callers = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        String[] setups = args.length > 3 ? Arrays.copyOfRange(args, 3, args.length)
+                                          : new String[]{"ROUND_ROBIN:noeject", "POWER_OF_TWO", "POWER_OF_TWO:hedge"};
+        if (replicaCount < 3) {
+            throw new IllegalArgumentException("Need at least 3 replicas (one slow, one down, one healthy)");
+        }
+        if (System.getProperty("weather.verbose") == null) {
+            System.setProperty("weather.verbose", "false");
+        }
+
+        System.out.println("============================================");
+        System.out.println("   RPC LOAD BALANCING TEST");
+        System.out.println("   " + replicaCount + " replicas, " + callers + " callers, "
+                           + seconds + " s per phase, slow replica +" + DELAY_MS + " ms");
+        System.out.println("============================================");
+
+        for (String setup : setups) {
+            String[] parts = setup.split(":");
+            BalancedWeatherClient.Balancing balancing =
+                    BalancedWeatherClient.Balancing.valueOf(parts[0].toUpperCase(Locale.ROOT));
+            boolean ejection = true;
+            boolean hedging = false;
+            for (int i = 1; i < parts.length; i++) {
+                ejection &= !parts[i].equalsIgnoreCase("noeject");
+                hedging |= parts[i].equalsIgnoreCase("hedge");
+            }
+            runSetup(balancing, ejection, hedging, replicaCount, seconds, callers);
+        }
+    }
+
+    // ========== ONE BALANCING SETUP ==========
+    private static void runSetup(BalancedWeatherClient.Balancing balancing, boolean ejection, boolean hedging,
+                                 int replicaCount, int seconds, int callers) throws Exception {
+        WeatherServer[] servers = new WeatherServer[replicaCount];
+        FaultProxy[] proxies = new FaultProxy[replicaCount];
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < replicaCount; i++) {
+            servers[i] = new WeatherServer(0, WeatherServer.ExecutionMode.FIXED_POOL);
+            servers[i].start();
+            proxies[i] = new FaultProxy(HOST, servers[i].getPort());
+            addresses.add(InetSocketAddress.createUnresolved(HOST, proxies[i].getPort()));
+        }
+        BalancedWeatherClient client = new BalancedWeatherClient(addresses, balancing, ejection, hedging,
+                                                                 Long.getLong("weather.lb.health.ms", 500L));
+
+        System.out.println("\n" + balancing + (ejection ? " with ejection" : " without ejection")
+                           + (hedging ? ", hedging" : ""));
+        LatencyLog[][] logs = new LatencyLog[callers][PHASES.length];
+        Thread[] threads = new Thread[callers];
+        phase = 0;
+        running = true;
+        for (int c = 0; c < callers; c++) {
+            final int caller = c;
+            for (int p = 0; p < PHASES.length; p++) {
+                logs[c][p] = new LatencyLog();
+            }
+            threads[c] = new Thread(() -> {
+                for (int i = 0; running; i++) {
+                    LatencyLog log = logs[caller][phase];
+                    long start = System.nanoTime();
+                    try {
+                        client.getWeatherAsync(CITIES[(caller + i) % CITIES.length]).get();
+                        log.add(System.nanoTime() - start);
+                    } catch (ExecutionException e) {
+                        log.failures++;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "balancer-caller-" + c);
+            threads[c].start();
+        }
+
+        // Replica call counts and ejections at each phase boundary
+        long[][] calls = new long[PHASES.length + 1][replicaCount];
+        long[] hedges = new long[PHASES.length + 1];
+        boolean[][] ejected = new boolean[PHASES.length][replicaCount];
+        for (int p = 0; p < PHASES.length; p++) {
+            switch (p) {
+                case 1:
+                    proxies[1].setDelayMillis(DELAY_MS);
+                    break;
+                case 2:
+                    proxies[1].setDelayMillis(0);
+                    proxies[2].setDown(true);
+                    break;
+                case 3:
+                    proxies[2].setDown(false);
+                    break;
+                case 4:
+                    proxies[0].setStalls(STALL_PERCENT / 100, DELAY_MS);
+                    break;
+                default:
+            }
+            for (int i = 0; i < replicaCount; i++) {
+                calls[p][i] = client.getCalls(i);
+            }
+            hedges[p] = client.getHedges();
+            phase = p;
+            Thread.sleep(seconds * 1000L);
+            for (int i = 0; i < replicaCount; i++) {
+                ejected[p][i] = client.isEjected(i);
+            }
+        }
+
+        running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < replicaCount; i++) {
+            calls[PHASES.length][i] = client.getCalls(i);
+        }
+        hedges[PHASES.length] = client.getHedges();
+        for (int p = 0; p < PHASES.length; p++) {
+            report(PHASES[p], logs, p, seconds, calls[p], calls[p + 1], hedges[p + 1] - hedges[p], ejected[p]);
+        }
+        if (hedging) {
+            System.out.printf("  hedge delay %.2f ms, %d of %d hedges answered first%n",
+                              client.getHedgeDelayMillis(), client.getHedgeWins(), client.getHedges());
+        }
+        client.close();
+        for (int i = 0; i < replicaCount; i++) {
+            proxies[i].close();
+            servers[i].stop();
+        }
+    }
+
+    // ========== REPORTING ==========
+    private static void report(String name, LatencyLog[][] logs, int p, int seconds,
+                               long[] callsBefore, long[] callsAfter, long hedged, boolean[] ejected) {
+        int total = 0;
+        long failures = 0;
+        for (LatencyLog[] callerLogs : logs) {
+            total += callerLogs[p].size;
+            failures += callerLogs[p].failures;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (LatencyLog[] callerLogs : logs) {
+            System.arraycopy(callerLogs[p].values, 0, all, offset, callerLogs[p].size);
+            offset += callerLogs[p].size;
+        }
+        Arrays.sort(all);
+
+        long phaseCalls = 0;
+        for (int i = 0; i < callsBefore.length; i++) {
+            phaseCalls += callsAfter[i] - callsBefore[i];
+        }
+        StringBuilder shares = new StringBuilder();
+        for (int i = 0; i < callsBefore.length; i++) {
+            shares.append(String.format(" %3.0f%%%s", 100.0 * (callsAfter[i] - callsBefore[i]) / Math.max(1, phaseCalls),
+                                        ejected[i] ? "*" : " "));
+        }
+        System.out.printf("  %-10s %7.0f calls/s | p50 %7.2f ms | p99 %7.2f ms | max %7.2f ms | failed %d"
+                          + " | hedged %d | share%s%n",
+                          name, total / (double) seconds, percentileMillis(all, 0.50), percentileMillis(all, 0.99),
+                          total > 0 ? all[total - 1] / 1e6 : 0.0, failures, hedged, shares);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // ========== PER-CALLER SAMPLES OF ONE PHASE ==========
+    private static final class LatencyLog {
+        long[] values = new long[1024];
+        int size;
+        long failures;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+    }
+}
@@ -0,0 +1,824 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * ============================================================
+ * BINARY CODEC - SCHEMA-DRIVEN RPC WIRE FORMAT
+ * ============================================================
+ * Compact replacement for Java serialization. Every message is
+ * a frame:  length(varint) payload
+ *
+ * Request payload:
+ *   requestId(varint) method(string) paramCount(varint) value*
+ *   [timeoutMillis(varint) [traceId(varint)]]
+ *   (optional trailer: absent = no deadline, not traced)
+ *
+ * Response payload:
+ *   requestId(varint) success(byte) value | error(string)
+ *
+ * Values are a type tag followed by a fixed schema:
+ *   NULL          -
+ *   STRING        length(varint) UTF-8 bytes
+ *   STRING_ARRAY  count(varint) string*
+ *   WEATHER_DATA  city(string) temperature(double) humidity(double)
+ *                 condition(string) timestamp(string)
+ *   INT / LONG    zig-zag varint
+ *   DOUBLE        8 raw bytes (IEEE 754, big-endian)
+ *   BOOLEAN       byte
+ *   OBJECT_ARRAY  count(varint) value*  (exactly Object[]; other
+ *                 array types go SERIALIZED, keeping their type)
+ *   WEATHER_BATCH count(varint) { 1 weather-fields | 0 error(string) }*
+ *   WEATHER_LEASE weather-fields leaseMillis(varint)
+ *   DAILY_WEATHER city(string) count(varint) { epochDay(zig-zag)
+ *                 readings(varint) min max avg humidity (double) }*
+ *   WEATHER_TREND city from to (string) days(varint) readings(varint)
+ *                 min max avg humidity slope (double)
+ *   SERIALIZED    length(varint) Java-serialized bytes (any other
+ *                 Serializable type, so new services still work)
+ *
+ * Compressed responses (only on connections that negotiated
+ * DEFLATE, see RPCCodec): every response payload starts with a
+ * flag byte,
+ *   0  plain payload
+ *   1  uncompressedLength(varint) zlib stream of the payload
+ * A response is deflated only when the server marks its method
+ * compressible, it is at least -Drpc.compress.min.bytes (default
+ * 1024) and deflating actually makes it smaller. Requests are
+ * never compressed. Level: -Drpc.compress.level (default 1,
+ * fastest; big string arrays gain little from higher levels).
+ * One Deflater / Inflater per connection, created on first use,
+ * reset for every message and ended by release() when the
+ * connection closes (their zlib state is native memory).
+ *
+ * Writes hold a ReentrantLock rather than a monitor, so a
+ * virtual thread blocked on a slow socket unmounts instead of
+ * pinning its carrier.
+ *
+ * Encoder and decoder buffers belong to the connection and are
+ * reused for every message. Immutable values can be encoded once
+ * up front: registered constants (e.g. the city list) and cached
+ * WeatherData carry their wire form and are written by copying.
+ * ============================================================
+ */
+class BinaryCodec implements RPCCodec {
+
+    // ========== VALUE TAGS ==========
+    static final byte TAG_NULL = 0;
+    static final byte TAG_STRING = 1;
+    static final byte TAG_STRING_ARRAY = 2;
+    static final byte TAG_WEATHER_DATA = 3;
+    static final byte TAG_INT = 4;
+    static final byte TAG_LONG = 5;
+    static final byte TAG_DOUBLE = 6;
+    static final byte TAG_BOOLEAN = 7;
+    static final byte TAG_OBJECT_ARRAY = 8;
+    static final byte TAG_WEATHER_BATCH = 9;
+    static final byte TAG_WEATHER_LEASE = 10;
+    static final byte TAG_DAILY_WEATHER = 11;
+    static final byte TAG_WEATHER_TREND = 12;
+    static final byte TAG_SERIALIZED = 15;
+
+    static final int MAX_FRAME_BYTES = 16 << 20;
+
+    // ========== RESPONSE COMPRESSION ==========
+    static final byte FRAME_PLAIN = 0;
+    static final byte FRAME_DEFLATED = 1;
+    static final int COMPRESS_MIN_BYTES = Integer.getInteger("rpc.compress.min.bytes", 1024);
+    static final int COMPRESS_LEVEL = Integer.getInteger("rpc.compress.level", Deflater.BEST_SPEED);
+
+    // ========== PRE-ENCODED CONSTANTS ==========
+    // Few and long-lived; copied on registration, read lock-free
+    private static volatile Constant[] constants = new Constant[0];
+
+    // ========== CONNECTION STATE ==========
+    private final InputStream in;
+    private final OutputStream out;
+    private final Encoder encoder = new Encoder();
+    private final ReentrantLock writeLock = new ReentrantLock();   // Guards encoder
+    private final Decoder decoder = new Decoder();
+    private long lastDecodeNanos = -1;   // Reader thread only
+
+    // Compression (negotiated); deflate side guarded by writeLock
+    private final boolean compression;
+    private final Encoder deflated = new Encoder();
+    private final Decoder inflated = new Decoder();
+    private final ReentrantLock inflateLock = new ReentrantLock();   // Guards inflater
+    private Deflater deflater;
+    private Inflater inflater;
+    private volatile boolean released;
+
+    // ========== CONSTRUCTORS ==========
+    BinaryCodec(InputStream in, OutputStream out) {
+        this(in, out, false);
+    }
+
+    /**
+     * @param compression Whether response frames carry the
+     *        compression flag (negotiated in the handshake)
+     */
+    BinaryCodec(InputStream in, OutputStream out, boolean compression) {
+        this.in = in;
+        this.out = out;
+        this.compression = compression;
+    }
+
+    // ========================================================
+    // MESSAGES
+    // ========================================================
+    @Override
+    public void writeRequest(RPCRequest request) throws IOException {
+        writeLock.lock();
+        try {
+            encoder.reset();
+            encodeRequest(encoder, request);
+            encoder.writeFrame(out);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public RPCRequest readRequest() throws IOException {
+        if (!decoder.readFrame(in)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        RPCRequest request = decodeRequest(decoder);
+        lastDecodeNanos = System.nanoTime() - start;
+        return request;
+    }
+
+    @Override
+    public long getLastDecodeNanos() { return lastDecodeNanos; }
+
+    @Override
+    public void writeResponse(RPCResponse response) throws IOException {
+        writeResponse(response, false);
+    }
+
+    @Override
+    public void writeResponse(RPCResponse response, boolean compressible) throws IOException {
+        writeLock.lock();
+        try {
+            encoder.reset();
+            if (!compression) {
+                encodeResponse(encoder, response);
+                encoder.writeFrame(out);
+                return;
+            }
+            encoder.writeByte(FRAME_PLAIN);
+            encodeResponse(encoder, response);
+            int length = encoder.size() - 1;
+            if (compressible && length >= COMPRESS_MIN_BYTES) {
+                if (released) {
+                    throw new IOException("Connection closed");
+                }
+                if (deflater == null) {
+                    deflater = new Deflater(COMPRESS_LEVEL);
+                }
+                deflated.reset();
+                deflated.writeByte(FRAME_DEFLATED);
+                deflated.writeVarint(length);
+                if (deflated.writeDeflated(deflater, encoder.buffer, 1, length, encoder.size())) {
+                    deflated.writeFrame(out);
+                    return;
+                }
+            }
+            encoder.writeFrame(out); // Small, not compressible, or would not shrink
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public RPCResponse readResponse() throws IOException {
+        if (!decoder.readFrame(in)) {
+            return null;
+        }
+        if (!compression) {
+            return decodeResponse(decoder);
+        }
+        int flag = decoder.readByte();
+        if (flag == FRAME_PLAIN) {
+            return decodeResponse(decoder);
+        }
+        if (flag != FRAME_DEFLATED) {
+            throw new IOException("Unknown frame flag: " + flag);
+        }
+        inflateLock.lock();
+        try {
+            if (released) {
+                throw new IOException("Connection closed");
+            }
+            if (inflater == null) {
+                inflater = new Inflater();
+            }
+            inflated.inflateFrom(inflater, decoder);
+        } finally {
+            inflateLock.unlock();
+        }
+        return decodeResponse(inflated);
+    }
+
+    @Override
+    public void release() {
+        released = true;
+        writeLock.lock();
+        try {
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        inflateLock.lock();
+        try {
+            if (inflater != null) {
+                inflater.end();
+                inflater = null;
+            }
+        } finally {
+            inflateLock.unlock();
+        }
+    }
+
+    @Override
+    public byte getId() { return BINARY; }
+
+    // ========================================================
+    // ENVELOPE SCHEMA
+    // ========================================================
+    static void encodeRequest(Encoder encoder, RPCRequest request) throws IOException {
+        Object[] params = request.getParameters();
+        encoder.writeVarint(request.getRequestId());
+        encoder.writeString(request.getMethodName());
+        encoder.writeVarint(params != null ? params.length : 0);
+        if (params != null) {
+            for (Object param : params) {
+                encoder.writeValue(param);
+            }
+        }
+        if (request.getTimeoutMillis() > 0 || request.getTraceId() != 0) {
+            encoder.writeVarint(request.getTimeoutMillis());
+            if (request.getTraceId() != 0) {
+                encoder.writeVarint(request.getTraceId());
+            }
+        }
+    }
+
+    static RPCRequest decodeRequest(Decoder decoder) throws IOException {
+        long requestId = decoder.readVarint();
+        String method = decoder.readString();
+        Object[] params = new Object[decoder.readLength()];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = decoder.readValue();
+        }
+        long timeoutMillis = decoder.hasRemaining() ? decoder.readVarint() : 0L;
+        long traceId = decoder.hasRemaining() ? decoder.readVarint() : 0L;
+        return new RPCRequest(requestId, method, params, timeoutMillis, traceId);
+    }
+
+    static void encodeResponse(Encoder encoder, RPCResponse response) throws IOException {
+        encoder.writeVarint(response.getRequestId());
+        encoder.writeByte(response.isSuccess() ? 1 : 0);
+        if (response.isSuccess()) {
+            encoder.writeValue(response.getResult());
+        } else {
+            encoder.writeString(response.getErrorMessage() != null ? response.getErrorMessage() : "");
+        }
+    }
+
+    static RPCResponse decodeResponse(Decoder decoder) throws IOException {
+        long requestId = decoder.readVarint();
+        RPCResponse response = decoder.readByte() != 0
+                ? new RPCResponse(decoder.readValue())
+                : new RPCResponse(false, decoder.readString());
+        response.setRequestId(requestId);
+        return response;
+    }
+
+    // ========================================================
+    // PRE-ENCODING
+    // ========================================================
+    /**
+     * Encode a single value (tag included) into a new array.
+     */
+    static byte[] encodeValue(Object value) {
+        Encoder encoder = new Encoder();
+        try {
+            encoder.writeValue(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot encode " + value.getClass().getName(), e);
+        }
+        return Arrays.copyOf(encoder.buffer, encoder.position);
+    }
+
+    /**
+     * Register an immutable value whose wire form is computed once and
+     * reused whenever the same instance is written.
+     */
+    static synchronized void registerConstant(Object value) {
+        Constant[] current = constants;
+        Constant[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = new Constant(value, encodeValue(value));
+        constants = next;
+    }
+
+    private static final class Constant {
+        final Object value;
+        final byte[] encodedForm;
+
+        Constant(Object value, byte[] encodedForm) {
+            this.value = value;
+            this.encodedForm = encodedForm;
+        }
+    }
+
+    // ========================================================
+    // ENCODER - REUSABLE GROWABLE BUFFER
+    // ========================================================
+    static final class Encoder {
+        private byte[] buffer = new byte[256];
+        private int position;
+
+        void reset() { position = 0; }
+        int size() { return position; }
+
+        void writeFrame(OutputStream out) throws IOException {
+            int length = position;
+            while ((length & ~0x7F) != 0) {
+                out.write((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            out.write(length);
+            out.write(buffer, 0, position);
+            out.flush();
+        }
+
+        /**
+         * Append the zlib form of input[offset, offset + length).
+         *
+         * @return false (buffer contents undefined) as soon as the
+         *         encoded size reaches maxSize, i.e. it does not pay
+         */
+        boolean writeDeflated(Deflater deflater, byte[] input, int offset, int length, int maxSize) {
+            deflater.reset();
+            deflater.setInput(input, offset, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (position >= maxSize) {
+                    return false;
+                }
+                ensure(Math.min(maxSize - position, 64 * 1024));
+                position += deflater.deflate(buffer, position, buffer.length - position);
+            }
+            return position < maxSize;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeDouble(double value) {
+            ensure(8);
+            long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (bits >>> shift);
+            }
+        }
+
+        /**
+         * Length-prefixed UTF-8, encoded straight into the buffer.
+         * Unpaired surrogates become '?', as with String.getBytes.
+         */
+        void writeString(String value) {
+            int chars = value.length();
+            int bytes = 0;
+            for (int i = 0; i < chars; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes += 1;
+                } else if (c < 0x800) {
+                    bytes += 2;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 3;
+                } else if (isSurrogatePair(value, i)) {
+                    bytes += 4;
+                    i++;
+                } else {
+                    bytes += 1;
+                }
+            }
+            writeVarint(bytes);
+            ensure(bytes);
+            for (int i = 0; i < chars; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (!Character.isSurrogate(c)) {
+                    buffer[position++] = (byte) (0xE0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (isSurrogatePair(value, i)) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    buffer[position++] = (byte) '?';
+                }
+            }
+        }
+
+        private static boolean isSurrogatePair(String value, int index) {
+            return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                   && Character.isLowSurrogate(value.charAt(index + 1));
+        }
+
+        void writeValue(Object value) throws IOException {
+            for (Constant constant : constants) {
+                if (constant.value == value) {
+                    writeRaw(constant.encodedForm, 0);
+                    return;
+                }
+            }
+            if (value == null) {
+                writeByte(TAG_NULL);
+            } else if (value instanceof String) {
+                writeByte(TAG_STRING);
+                writeString((String) value);
+            } else if (value instanceof String[]) {
+                String[] array = (String[]) value;
+                writeByte(TAG_STRING_ARRAY);
+                writeVarint(array.length);
+                for (String element : array) {
+                    writeString(element);
+                }
+            } else if (value instanceof WeatherData) {
+                writeByte(TAG_WEATHER_DATA);
+                writeWeatherFields((WeatherData) value);
+            } else if (value instanceof WeatherBatchResult) {
+                WeatherBatchResult batch = (WeatherBatchResult) value;
+                writeByte(TAG_WEATHER_BATCH);
+                writeVarint(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    if (batch.isSuccess(i)) {
+                        writeByte(1);
+                        writeWeatherFields(batch.getWeather(i));
+                    } else {
+                        writeByte(0);
+                        writeString(batch.getError(i));
+                    }
+                }
+            } else if (value instanceof WeatherLease) {
+                WeatherLease lease = (WeatherLease) value;
+                writeByte(TAG_WEATHER_LEASE);
+                writeWeatherFields(lease.getWeather());
+                writeVarint(lease.getLeaseMillis());
+            } else if (value instanceof DailyWeather) {
+                DailyWeather daily = (DailyWeather) value;
+                writeByte(TAG_DAILY_WEATHER);
+                writeString(daily.getCity());
+                writeVarint(daily.size());
+                for (int i = 0; i < daily.size(); i++) {
+                    writeZigZag(daily.getEpochDay(i));
+                    writeVarint(daily.getReadings(i));
+                    writeDouble(daily.getMinTemperature(i));
+                    writeDouble(daily.getMaxTemperature(i));
+                    writeDouble(daily.getAvgTemperature(i));
+                    writeDouble(daily.getAvgHumidity(i));
+                }
+            } else if (value instanceof WeatherTrend) {
+                WeatherTrend trend = (WeatherTrend) value;
+                writeByte(TAG_WEATHER_TREND);
+                writeString(trend.getCity());
+                writeString(trend.getFromDate());
+                writeString(trend.getToDate());
+                writeVarint(trend.getDays());
+                writeVarint(trend.getReadings());
+                writeDouble(trend.getMinTemperature());
+                writeDouble(trend.getMaxTemperature());
+                writeDouble(trend.getAvgTemperature());
+                writeDouble(trend.getAvgHumidity());
+                writeDouble(trend.getTemperatureSlope());
+            } else if (value instanceof Integer) {
+                writeByte(TAG_INT);
+                writeZigZag((Integer) value);
+            } else if (value instanceof Long) {
+                writeByte(TAG_LONG);
+                writeZigZag((Long) value);
+            } else if (value instanceof Double) {
+                writeByte(TAG_DOUBLE);
+                writeDouble((Double) value);
+            } else if (value instanceof Boolean) {
+                writeByte(TAG_BOOLEAN);
+                writeByte((Boolean) value ? 1 : 0);
+            } else if (value.getClass() == Object[].class) {
+                // A WeatherData[] read back as Object[] would fail its caller's type check
+                Object[] array = (Object[]) value;
+                writeByte(TAG_OBJECT_ARRAY);
+                writeVarint(array.length);
+                for (Object element : array) {
+                    writeValue(element);
+                }
+            } else {
+                // No schema for this type - fall back to Java serialization
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                    objects.writeObject(value);
+                }
+                byte[] serialized = bytes.toByteArray();
+                writeByte(TAG_SERIALIZED);
+                writeVarint(serialized.length);
+                writeRaw(serialized, 0);
+            }
+        }
+
+        private void writeRaw(byte[] bytes, int offset) {
+            int length = bytes.length - offset;
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        /** Cached WeatherData is copied from its pre-encoded form. */
+        private void writeWeatherFields(WeatherData weather) {
+            byte[] encodedForm = weather.getEncodedForm();
+            if (encodedForm != null) {
+                writeRaw(encodedForm, 1); // Skip the WEATHER_DATA tag
+                return;
+            }
+            writeString(weather.getCity());
+            writeDouble(weather.getTemperature());
+            writeDouble(weather.getHumidity());
+            writeString(weather.getCondition());
+            writeString(weather.getTimestamp());
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+    }
+
+    // ========================================================
+    // DECODER - REUSABLE FRAME BUFFER
+    // ========================================================
+    static final class Decoder {
+        private byte[] buffer = new byte[256];
+        private int position;
+        private int limit;
+
+        /**
+         * Read the next frame into the buffer.
+         *
+         * @return false at a clean end of stream
+         */
+        boolean readFrame(InputStream in) throws IOException {
+            int length = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    if (shift == 0) {
+                        return false;
+                    }
+                    throw new EOFException("Truncated frame header");
+                }
+                length |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+                if (shift >= 28) {
+                    throw new IOException("Malformed frame length");
+                }
+            }
+            if (length < 0 || length > MAX_FRAME_BYTES) {
+                throw new IOException("Frame too large: " + length);
+            }
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            int read = 0;
+            while (read < length) {
+                int n = in.read(buffer, read, length - read);
+                if (n < 0) {
+                    throw new EOFException("Truncated frame");
+                }
+                read += n;
+            }
+            position = 0;
+            limit = length;
+            return true;
+        }
+
+        /**
+         * Inflate the rest of a DEFLATED frame (uncompressed length
+         * first) from the source decoder into this one.
+         */
+        void inflateFrom(Inflater inflater, Decoder source) throws IOException {
+            long length = source.readVarint();
+            if (length < 0 || length > MAX_FRAME_BYTES) {
+                throw new IOException("Compressed frame too large: " + length);
+            }
+            if (buffer.length < length) {
+                buffer = new byte[(int) Math.max(length, buffer.length * 2L)];
+            }
+            inflater.reset();
+            inflater.setInput(source.buffer, source.position, source.limit - source.position);
+            int inflatedBytes = 0;
+            try {
+                while (inflatedBytes < length) {
+                    int n = inflater.inflate(buffer, inflatedBytes, (int) length - inflatedBytes);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new EOFException("Truncated compressed frame");
+                    }
+                    inflatedBytes += n;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt compressed frame: " + e.getMessage(), e);
+            }
+            source.position = source.limit;
+            position = 0;
+            limit = inflatedBytes;
+        }
+
+        /**
+         * Point the decoder at an already encoded payload (benchmarks).
+         */
+        void wrap(byte[] payload, int length) {
+            buffer = payload;
+            position = 0;
+            limit = length;
+        }
+
+        boolean hasRemaining() { return position < limit; }
+
+        int readByte() throws IOException {
+            require(1);
+            return buffer[position++];
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        int readLength() throws IOException {
+            long length = readVarint();
+            if (length < 0 || length > limit - position) {
+                throw new IOException("Invalid length: " + length);
+            }
+            return (int) length;
+        }
+
+        long readZigZag() throws IOException {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        double readDouble() throws IOException {
+            require(8);
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = (bits << 8) | (buffer[position++] & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        String readString() throws IOException {
+            int length = readLength();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        Object readValue() throws IOException {
+            int tag = readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_STRING:
+                    return readString();
+                case TAG_STRING_ARRAY: {
+                    String[] array = new String[readLength()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = readString();
+                    }
+                    return array;
+                }
+                case TAG_WEATHER_DATA:
+                    return readWeatherFields();
+                case TAG_WEATHER_BATCH: {
+                    int count = readLength();
+                    WeatherData[] weather = new WeatherData[count];
+                    String[] errors = new String[count];
+                    for (int i = 0; i < count; i++) {
+                        if (readByte() != 0) {
+                            weather[i] = readWeatherFields();
+                        } else {
+                            errors[i] = readString();
+                        }
+                    }
+                    return new WeatherBatchResult(weather, errors);
+                }
+                case TAG_WEATHER_LEASE:
+                    return new WeatherLease(readWeatherFields(), readVarint());
+                case TAG_DAILY_WEATHER: {
+                    String city = readString();
+                    int count = readLength();
+                    int[] epochDays = new int[count];
+                    int[] readings = new int[count];
+                    double[] min = new double[count];
+                    double[] max = new double[count];
+                    double[] avgTemperature = new double[count];
+                    double[] avgHumidity = new double[count];
+                    for (int i = 0; i < count; i++) {
+                        epochDays[i] = (int) readZigZag();
+                        readings[i] = (int) readVarint();
+                        min[i] = readDouble();
+                        max[i] = readDouble();
+                        avgTemperature[i] = readDouble();
+                        avgHumidity[i] = readDouble();
+                    }
+                    return new DailyWeather(city, epochDays, readings, min, max, avgTemperature, avgHumidity);
+                }
+                case TAG_WEATHER_TREND:
+                    return new WeatherTrend(readString(), readString(), readString(), (int) readVarint(),
+                                            readVarint(), readDouble(), readDouble(), readDouble(),
+                                            readDouble(), readDouble());
+                case TAG_INT:
+                    return (int) readZigZag();
+                case TAG_LONG:
+                    return readZigZag();
+                case TAG_DOUBLE:
+                    return readDouble();
+                case TAG_BOOLEAN:
+                    return readByte() != 0;
+                case TAG_OBJECT_ARRAY: {
+                    Object[] array = new Object[readLength()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = readValue();
+                    }
+                    return array;
+                }
+                case TAG_SERIALIZED: {
+                    int length = readLength();
+                    try (ObjectInputStream objects = new ObjectInputStream(
+                            new ByteArrayInputStream(buffer, position, length))) {
+                        position += length;
+                        return objects.readObject();
+                    } catch (ClassNotFoundException e) {
+                        throw new IOException("Unknown serialized type: " + e.getMessage(), e);
+                    }
+                }
+                default:
+                    throw new IOException("Unknown value tag: " + tag);
+            }
+        }
+
+        private WeatherData readWeatherFields() throws IOException {
+            return new WeatherData(readString(), readDouble(), readDouble(), readString(), readString());
+        }
+
+        private void require(int bytes) throws IOException {
+            if (limit - position < bytes) {
+                throw new EOFException("Truncated message");
+            }
+        }
+    }
+}
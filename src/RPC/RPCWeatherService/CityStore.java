@@ -0,0 +1,324 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ============================================================
+ * CITY STORE - INDEXED LOCATIONS FOR THE WEATHER SERVICE
+ * ============================================================
+ * Holds every known location in parallel primitive arrays,
+ * sorted by name (case-insensitive), instead of one object and
+ * one double[] per city:
+ *
+ *   names[i]            String
+ *   latitude/longitude  float (degrees)
+ *   baseTemperature     float (C)
+ *   baseHumidity        float (%)
+ *
+ * Indexes:
+ *   - Name:   the sort order itself; exact lookup and prefix
+ *             search are binary searches (O(log n))
+ *   - Space:  every city is also a point on the unit sphere
+ *             (x, y, z floats), bucketed in a 64^3 grid of ~200 km
+ *             cells stored in compressed form (cellStart offsets
+ *             into cellCities). nearest() searches shells of cells
+ *             outward by straight-line (chord) distance, which
+ *             ranks exactly like great-circle distance and has no
+ *             pole or date-line special cases
+ *
+ * Data file (-Dweather.cities.file=PATH), UTF-8 CSV with header:
+ *   name,latitude,longitude,baseTemperature,baseHumidity
+ * Without a file the five built-in Sri Lankan cities are used.
+ * ============================================================
+ */
+public class CityStore {
+
+    // ========== GRID GEOMETRY ==========
+    private static final int GRID = 64;                    // Cells per axis over [-1, 1]
+    private static final double CELL = 2.0 / GRID;         // Cell edge on the unit sphere
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    // ========== CITY COLUMNS (sorted by name) ==========
+    private final String[] names;
+    private final float[] latitude;
+    private final float[] longitude;
+    private final float[] baseTemperature;
+    private final float[] baseHumidity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] z;
+
+    // ========== SPATIAL GRID (compressed rows) ==========
+    private final int[] cellStart = new int[GRID * GRID * GRID + 1];
+    private final int[] cellCities;
+
+    // ========== CONSTRUCTOR ==========
+    private CityStore(String[] names, float[] latitude, float[] longitude,
+                      float[] baseTemperature, float[] baseHumidity) {
+        int count = names.length;
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(names[a], names[b]));
+
+        this.names = new String[count];
+        this.latitude = new float[count];
+        this.longitude = new float[count];
+        this.baseTemperature = new float[count];
+        this.baseHumidity = new float[count];
+        for (int i = 0; i < count; i++) {
+            int from = order[i];
+            this.names[i] = names[from];
+            this.latitude[i] = latitude[from];
+            this.longitude[i] = longitude[from];
+            this.baseTemperature[i] = baseTemperature[from];
+            this.baseHumidity[i] = baseHumidity[from];
+        }
+
+        // Unit vectors, then a counting sort of city indexes by grid cell
+        this.x = new float[count];
+        this.y = new float[count];
+        this.z = new float[count];
+        int[] cells = new int[count];
+        for (int i = 0; i < count; i++) {
+            double lat = Math.toRadians(this.latitude[i]);
+            double lon = Math.toRadians(this.longitude[i]);
+            x[i] = (float) (Math.cos(lat) * Math.cos(lon));
+            y[i] = (float) (Math.cos(lat) * Math.sin(lon));
+            z[i] = (float) Math.sin(lat);
+            cells[i] = (cellIndex(x[i]) * GRID + cellIndex(y[i])) * GRID + cellIndex(z[i]);
+            cellStart[cells[i] + 1]++;
+        }
+        for (int cell = 0; cell < GRID * GRID * GRID; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        this.cellCities = new int[count];
+        int[] next = Arrays.copyOf(cellStart, cellStart.length - 1);
+        for (int i = 0; i < count; i++) {
+            cellCities[next[cells[i]]++] = i;
+        }
+    }
+
+    // ========================================================
+    // LOADING
+    // ========================================================
+    /**
+     * @return The store from -Dweather.cities.file, or the built-in cities
+     */
+    public static CityStore load() {
+        String file = System.getProperty("weather.cities.file");
+        if (file == null) {
+            return builtIn();
+        }
+        try {
+            return load(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load cities from " + file, e);
+        }
+    }
+
+    public static CityStore load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        int count = lines.size() - 1; // Header
+        String[] names = new String[Math.max(0, count)];
+        float[] latitude = new float[names.length];
+        float[] longitude = new float[names.length];
+        float[] baseTemperature = new float[names.length];
+        float[] baseHumidity = new float[names.length];
+
+        int loaded = 0;
+        for (int line = 1; line < lines.size(); line++) {
+            String text = lines.get(line);
+            if (text.isEmpty()) {
+                continue;
+            }
+            // The name is everything before the last four fields, so it may contain commas
+            int c4 = text.lastIndexOf(',');
+            int c3 = text.lastIndexOf(',', c4 - 1);
+            int c2 = text.lastIndexOf(',', c3 - 1);
+            int c1 = text.lastIndexOf(',', c2 - 1);
+            if (c1 <= 0) {
+                throw new IOException(file + ":" + (line + 1) + ": expected name,lat,lon,temperature,humidity");
+            }
+            try {
+                names[loaded] = text.substring(0, c1);
+                latitude[loaded] = Float.parseFloat(text.substring(c1 + 1, c2));
+                longitude[loaded] = Float.parseFloat(text.substring(c2 + 1, c3));
+                baseTemperature[loaded] = Float.parseFloat(text.substring(c3 + 1, c4));
+                baseHumidity[loaded] = Float.parseFloat(text.substring(c4 + 1));
+            } catch (NumberFormatException e) {
+                throw new IOException(file + ":" + (line + 1) + ": " + e.getMessage(), e);
+            }
+            loaded++;
+        }
+        return new CityStore(Arrays.copyOf(names, loaded), Arrays.copyOf(latitude, loaded),
+                             Arrays.copyOf(longitude, loaded), Arrays.copyOf(baseTemperature, loaded),
+                             Arrays.copyOf(baseHumidity, loaded));
+    }
+
+    private static CityStore builtIn() {
+        return new CityStore(
+                new String[]{"Colombo", "Kandy", "Galle", "Jaffna", "Nuwara Eliya"},
+                new float[]{6.9271f, 7.2906f, 6.0535f, 9.6615f, 6.9497f},
+                new float[]{79.8612f, 80.6337f, 80.2210f, 80.0255f, 80.7891f},
+                new float[]{28.0f, 24.0f, 27.0f, 30.0f, 16.0f},
+                new float[]{75.0f, 70.0f, 80.0f, 65.0f, 85.0f});
+    }
+
+    // ========================================================
+    // NAME INDEX
+    // ========================================================
+    /**
+     * @return Index of the city with exactly this name, or -1
+     */
+    public int indexOf(String name) {
+        if (name == null) {
+            return -1;
+        }
+        for (int i = lowerBound(name); i < names.length && names[i].equalsIgnoreCase(name); i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Up to limit names starting with prefix (ignoring case), in name order
+     */
+    public String[] search(String prefix, int limit) {
+        List<String> matches = new ArrayList<>(Math.min(limit, 64));
+        for (int i = lowerBound(prefix); i < names.length && matches.size() < limit
+                                            && names[i].regionMatches(true, 0, prefix, 0, prefix.length()); i++) {
+            matches.add(names[i]);
+        }
+        return matches.toArray(new String[0]);
+    }
+
+    /** First index whose name is not below key, ignoring case. */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(names[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // ========================================================
+    // SPATIAL INDEX
+    // ========================================================
+    /**
+     * @return Index of the city closest to the point (great-circle), or -1 if empty
+     */
+    public int nearest(double lat, double lon) {
+        if (names.length == 0) {
+            return -1;
+        }
+        double latRadians = Math.toRadians(lat);
+        double lonRadians = Math.toRadians(lon);
+        double px = Math.cos(latRadians) * Math.cos(lonRadians);
+        double py = Math.cos(latRadians) * Math.sin(lonRadians);
+        double pz = Math.sin(latRadians);
+        int cx = cellIndex(px);
+        int cy = cellIndex(py);
+        int cz = cellIndex(pz);
+
+        int best = -1;
+        double bestChord2 = Double.MAX_VALUE;   // Squared straight-line distance
+        int cellsVisited = 0;
+        for (int ring = 0; ring < GRID; ring++) {
+            if (cellsVisited > names.length) {
+                return nearestByScan(px, py, pz);   // Sparse data: scanning is cheaper than more shells
+            }
+            // Cells on the surface of the cube of cells ring steps away
+            for (int i = Math.max(0, cx - ring); i <= Math.min(GRID - 1, cx + ring); i++) {
+                boolean xFace = Math.abs(i - cx) == ring;
+                for (int j = Math.max(0, cy - ring); j <= Math.min(GRID - 1, cy + ring); j++) {
+                    boolean face = xFace || Math.abs(j - cy) == ring;
+                    int kStep = face ? 1 : Math.max(1, 2 * ring);   // Inside: only the two z faces
+                    for (int k = cz - ring; k <= cz + ring; k += kStep) {
+                        if (k < 0 || k >= GRID) {
+                            continue;
+                        }
+                        int cell = (i * GRID + j) * GRID + k;
+                        cellsVisited++;
+                        for (int n = cellStart[cell]; n < cellStart[cell + 1]; n++) {
+                            int city = cellCities[n];
+                            double dx = x[city] - px;
+                            double dy = y[city] - py;
+                            double dz = z[city] - pz;
+                            double chord2 = dx * dx + dy * dy + dz * dz;
+                            if (chord2 < bestChord2) {
+                                bestChord2 = chord2;
+                                best = city;
+                            }
+                        }
+                    }
+                }
+            }
+            // Any city beyond this ring is at least ring cells away along some axis
+            double reach = ring * CELL;
+            if (best >= 0 && bestChord2 <= reach * reach) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private int nearestByScan(double px, double py, double pz) {
+        int best = -1;
+        double bestChord2 = Double.MAX_VALUE;
+        for (int city = 0; city < names.length; city++) {
+            double dx = x[city] - px;
+            double dy = y[city] - py;
+            double dz = z[city] - pz;
+            double chord2 = dx * dx + dy * dy + dz * dz;
+            if (chord2 < bestChord2) {
+                bestChord2 = chord2;
+                best = city;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return Great-circle distance in km from the point to a city
+     */
+    public double distanceKm(double lat, double lon, int city) {
+        double dLat = Math.toRadians(latitude[city] - lat);
+        double dLon = Math.toRadians(longitude[city] - lon);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                   + Math.cos(Math.toRadians(lat)) * Math.cos(Math.toRadians(latitude[city]))
+                     * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+
+    private static int cellIndex(double coordinate) {
+        return Math.max(0, Math.min(GRID - 1, (int) ((coordinate + 1.0) / CELL)));
+    }
+
+    // ========== GETTER METHODS ==========
+    public int size() { return names.length; }
+    public String getName(int city) { return names[city]; }
+    public float getLatitude(int city) { return latitude[city]; }
+    public float getLongitude(int city) { return longitude[city]; }
+    public float getBaseTemperature(int city) { return baseTemperature[city]; }
+    public float getBaseHumidity(int city) { return baseHumidity[city]; }
+
+    /** @return A copy of all names, in name order */
+    public String[] getNames() { return names.clone(); }
+}
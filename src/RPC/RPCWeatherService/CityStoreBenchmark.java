@@ -0,0 +1,131 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * ============================================================
+ * CITY STORE BENCHMARK
+ * ============================================================
+ * Writes a synthetic data file of N locations (clustered like
+ * real settlements), then measures:
+ *
+ *   - Load time:       parse + sort + grid build
+ *   - searchCities:    random 1-3 letter prefixes, limit 10
+ *   - nearestCity:     random points, checked against a brute
+ *                      force scan of every city
+ *
+ * The generated file can be reused by the server:
+ *   java -Dweather.cities.file=PATH RPC.RPCWeatherService.WeatherServer
+ *
+ * Usage:
+ *   java RPC.RPCWeatherService.CityStoreBenchmark [cities] [queries] [keepFile]
+ *   (defaults: 100000 cities, 100000 queries)
+ * ============================================================
+ */
+public class CityStoreBenchmark {
+
+    private static final String[] SYLLABLES = {
+        "ka", "lo", "ma", "ri", "to", "ne", "sa", "vi", "gu", "be", "an", "dor", "el", "fi",
+        "ha", "jo", "ku", "lan", "mor", "nu", "pa", "qui", "ro", "sen", "ta", "ur", "wa", "yen", "zo"
+    };
+    private static final int VERIFIED_QUERIES = 1_000;
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws IOException {
+        int cities = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        boolean keepFile = args.length > 2 && Boolean.parseBoolean(args[2]);
+
+        Path file = Files.createTempFile("cities-", ".csv");
+        writeCities(file, cities, new Random(42));
+
+        System.out.println("============================================");
+        System.out.println("   CITY STORE BENCHMARK (" + cities + " cities)");
+        System.out.println("============================================");
+
+        long start = System.nanoTime();
+        CityStore store = CityStore.load(file);
+        System.out.printf("   Load          %8.1f ms (%d KB file)%n",
+                          (System.nanoTime() - start) / 1e6, Files.size(file) / 1024);
+
+        Random random = new Random(7);
+        long found = 0;
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                found += store.search(randomPrefix(random), 10).length;
+            }
+        }
+        System.out.printf("   searchCities  %8.2f us/query (%.1f matches avg)%n",
+                          (System.nanoTime() - start) / 1e3 / queries, found / 3.0 / queries);
+
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                found += store.nearest(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+            }
+        }
+        System.out.printf("   nearestCity   %8.2f us/query%n", (System.nanoTime() - start) / 1e3 / queries);
+
+        // Correctness against a full scan
+        int mismatches = 0;
+        for (int i = 0; i < VERIFIED_QUERIES; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            int indexed = store.nearest(lat, lon);
+            double bestKm = Double.MAX_VALUE;
+            for (int city = 0; city < store.size(); city++) {
+                bestKm = Math.min(bestKm, store.distanceKm(lat, lon, city));
+            }
+            if (store.distanceKm(lat, lon, indexed) > bestKm + 1e-6) {
+                mismatches++;
+            }
+        }
+        System.out.println("   Brute-force check: " + mismatches + " of " + VERIFIED_QUERIES + " differ");
+        System.out.println("============================================");
+
+        if (keepFile) {
+            System.out.println("Data file kept: " + file);
+        } else {
+            Files.delete(file);
+        }
+    }
+
+    // ========== SYNTHETIC DATA ==========
+    static void writeCities(Path file, int count, Random random) throws IOException {
+        double[][] regions = new double[200][];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = new double[]{random.nextDouble() * 130 - 60, random.nextDouble() * 360 - 180};
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("name,latitude,longitude,baseTemperature,baseHumidity\n");
+            for (int i = 0; i < count; i++) {
+                double[] region = regions[random.nextInt(regions.length)];
+                double lat = Math.max(-90, Math.min(90, region[0] + random.nextGaussian() * 4));
+                double lon = ((region[1] + random.nextGaussian() * 6 + 540) % 360) - 180;
+                double temperature = 30 - Math.abs(lat) * 0.5 + random.nextGaussian() * 2;
+                double humidity = 40 + random.nextDouble() * 50;
+                out.write(String.format("%s,%.4f,%.4f,%.1f,%.1f%n", randomName(random), lat, lon, temperature, humidity));
+            }
+        }
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static String randomPrefix(Random random) {
+        String syllable = SYLLABLES[random.nextInt(SYLLABLES.length)];
+        return syllable.substring(0, 1 + random.nextInt(syllable.length()));
+    }
+}
@@ -0,0 +1,124 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+
+/**
+ * ============================================================
+ * RPC CODEC BENCHMARK
+ * ============================================================
+ * Compares the JAVA and BINARY wire formats for a getWeather
+ * call (request + response), as used on a persistent connection:
+ *
+ *   - Bytes per call: steady-state size of both messages
+ *   - Calls/sec:      encode + decode of both messages, in memory,
+ *                     streaming BATCH calls through one stream
+ *
+ * End-to-end numbers over loopback come from WeatherLoadTest
+ * with -Drpc.codec=java|binary and -Dweather.load.connection=PERSISTENT.
+ *
+ * Usage:
+ *   java RPC.RPCWeatherService.CodecBenchmark [calls]
+ * ============================================================
+ */
+public class CodecBenchmark {
+
+    private static final int BATCH = 10_000;
+    private static final int ROUNDS = 5;
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws IOException {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        RPCRequest request = new RPCRequest(123_456, "getWeather", new Object[]{"Nuwara Eliya"});
+        RPCResponse response = new RPCResponse(new WeatherData("Nuwara Eliya", 16.42, 84.7, "Rainy",
+                                                               "2024-01-01 12:00:00"));
+        response.setRequestId(123_456);
+
+        System.out.println("============================================");
+        System.out.println("   RPC CODEC BENCHMARK (" + calls + " calls)");
+        System.out.println("============================================");
+
+        double javaRate = 0;
+        double binaryRate = 0;
+        int javaBytes = 0;
+        int binaryBytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            javaBytes = runJava(request, response, calls);
+            javaRate = calls * 1e9 / (System.nanoTime() - start);
+
+            start = System.nanoTime();
+            binaryBytes = runBinary(request, response, calls);
+            binaryRate = calls * 1e9 / (System.nanoTime() - start);
+        }
+
+        System.out.printf("   JAVA    %5d bytes/call | %9.0f calls/s%n", javaBytes, javaRate);
+        System.out.printf("   BINARY  %5d bytes/call | %9.0f calls/s%n", binaryBytes, binaryRate);
+        System.out.printf("   BINARY is %.1fx smaller and %.1fx faster%n",
+                          (double) javaBytes / binaryBytes, binaryRate / javaRate);
+        System.out.println("============================================");
+    }
+
+    // ========== JAVA SERIALIZATION ==========
+    /**
+     * @return Steady-state bytes per call (request + response)
+     */
+    private static int runJava(RPCRequest request, RPCResponse response, int calls) throws IOException {
+        ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        int bytesPerCall = 0;
+        for (int done = 0; done < calls; done += BATCH) {
+            int batch = Math.min(BATCH, calls - done);
+            requests.reset();
+            responses.reset();
+            JavaObjectCodec requestWriter = new JavaObjectCodec(null, requests);
+            JavaObjectCodec responseWriter = new JavaObjectCodec(null, responses);
+            int headerBytes = requests.size() + responses.size();
+            for (int i = 0; i < batch; i++) {
+                requestWriter.writeRequest(request);
+                responseWriter.writeResponse(response);
+            }
+            bytesPerCall = (requests.size() + responses.size() - headerBytes) / batch;
+
+            JavaObjectCodec requestReader = new JavaObjectCodec(
+                    new ByteArrayInputStream(requests.toByteArray()), new ByteArrayOutputStream());
+            JavaObjectCodec responseReader = new JavaObjectCodec(
+                    new ByteArrayInputStream(responses.toByteArray()), new ByteArrayOutputStream());
+            for (int i = 0; i < batch; i++) {
+                check(requestReader.readRequest() != null && responseReader.readResponse() != null);
+            }
+        }
+        return bytesPerCall;
+    }
+
+    // ========== BINARY CODEC ==========
+    private static int runBinary(RPCRequest request, RPCResponse response, int calls) throws IOException {
+        ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        int bytesPerCall = 0;
+        for (int done = 0; done < calls; done += BATCH) {
+            int batch = Math.min(BATCH, calls - done);
+            requests.reset();
+            responses.reset();
+            BinaryCodec requestWriter = new BinaryCodec(null, requests);
+            BinaryCodec responseWriter = new BinaryCodec(null, responses);
+            for (int i = 0; i < batch; i++) {
+                requestWriter.writeRequest(request);
+                responseWriter.writeResponse(response);
+            }
+            bytesPerCall = (requests.size() + responses.size()) / batch;
+
+            BinaryCodec requestReader = new BinaryCodec(new ByteArrayInputStream(requests.toByteArray()), null);
+            BinaryCodec responseReader = new BinaryCodec(new ByteArrayInputStream(responses.toByteArray()), null);
+            for (int i = 0; i < batch; i++) {
+                check(requestReader.readRequest() != null && responseReader.readResponse() != null);
+            }
+        }
+        return bytesPerCall;
+    }
+
+    private static void check(boolean decoded) {
+        if (!decoded) {
+            throw new IllegalStateException("Decoded fewer messages than were written");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package RPC.RPCWeatherService;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ============================================================
+ * COMPRESSION BENCHMARK - CPU VERSUS BANDWIDTH
+ * ============================================================
+ * Loads a large synthetic city catalog into one WeatherServer
+ * and calls its bulk methods through a FaultProxy, once over a
+ * connection that negotiated compressed responses and once over
+ * one that did not:
+ *
+ *   - getAllCities:     the whole catalog (a big String[])
+ *   - getWeatherBatch:  weather for BATCH_SIZE cities
+ *
+ * Two links: localhost (proxy relays at full speed) and a
+ * throttled link (proxy paced to the given bandwidth).
+ * Per call: bytes the server sent (counted by the proxy),
+ * latency, and process CPU time (client, server and proxy
+ * all run in this JVM, so the difference between the modes is
+ * what deflating and inflating cost).
+ *
+ * Usage:
+ *   java RPC.RPCWeatherService.CompressionBenchmark [cities] [calls] [kbytesPerSecond]
+ *   (defaults: 100000 cities, 10 calls, 1250 KB/s = 10 Mbit/s)
+ *   -Drpc.compress.level=1        Deflate level (1 fastest .. 9 smallest)
+ *   -Drpc.compress.min.bytes=1024 Smaller responses are sent plain
+ * ============================================================
+ */
+public class CompressionBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    // ========== ONE MEASURED CALL ==========
+    private interface Call {
+        Object invoke(RPCConnection connection) throws Exception;
+    }
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws Exception {
+        int cityCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long throttledBytesPerSecond = (args.length > 2 ? Long.parseLong(args[2]) : 1250) * 1000;
+        if (System.getProperty("weather.verbose") == null) {
+            System.setProperty("weather.verbose", "false");
+        }
+
+        // The catalog must be in place before the service loads it
+        Path file = Files.createTempFile("cities-", ".csv");
+        CityStoreBenchmark.writeCities(file, cityCount, new Random(42));
+        System.setProperty("weather.cities.file", file.toString());
+
+        WeatherServer server = new WeatherServer(0, WeatherServer.ExecutionMode.FIXED_POOL);
+        server.start();
+        FaultProxy proxy = new FaultProxy("localhost", server.getPort());
+        String[] batch = Arrays.copyOf(server.getWeatherService().getAllCities(), BATCH_SIZE);
+
+        Call[] workloads = {
+            connection -> connection.call("getAllCities", new Object[0]).getResult(),
+            connection -> connection.call("getWeatherBatch", new Object[]{batch}).getResult()
+        };
+        String[] names = {"getAllCities", "getWeatherBatch(" + BATCH_SIZE + ")"};
+
+        System.out.println("============================================");
+        System.out.println("   RESPONSE COMPRESSION BENCHMARK");
+        System.out.println("============================================");
+        System.out.println(cityCount + " cities, " + calls + " calls per row, deflate level "
+                           + BinaryCodec.COMPRESS_LEVEL);
+
+        // Warm up both paths at full speed
+        for (Call workload : workloads) {
+            measure(proxy, workload, false, calls);
+            measure(proxy, workload, true, calls);
+        }
+
+        long[] links = {0, throttledBytesPerSecond};
+        for (long link : links) {
+            proxy.setBandwidth(link);
+            System.out.println(link == 0 ? "Localhost:" : "Throttled link (" + link / 1000 + " KB/s):");
+            for (int w = 0; w < workloads.length; w++) {
+                for (boolean compressed : new boolean[]{false, true}) {
+                    double[] result = measure(proxy, workloads[w], compressed, calls);
+                    System.out.printf("   %-22s %-8s %10.0f bytes | %8.2f ms | CPU %7.2f ms%n",
+                                      names[w], compressed ? "DEFLATE" : "PLAIN", result[0], result[1], result[2]);
+                }
+            }
+        }
+        System.out.println("============================================");
+
+        proxy.close();
+        server.stop();
+        Files.deleteIfExists(file);
+    }
+
+    // ========== ONE ROW ==========
+    /**
+     * @return {bytes, latency ms, process CPU ms} per call
+     */
+    private static double[] measure(FaultProxy proxy, Call workload, boolean compressed, int calls) throws Exception {
+        try (RPCConnection connection = new RPCConnection("localhost", proxy.getPort(), RPCCodec.BINARY, compressed)) {
+            workload.invoke(connection); // Connection set up, buffers sized
+            long bytes = proxy.getBytesToClient();
+            long cpu = processCpuNanos();
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                if (workload.invoke(connection) == null) {
+                    throw new IllegalStateException("Empty result");
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            return new double[]{(proxy.getBytesToClient() - bytes) / (double) calls,
+                                elapsed / 1e6 / calls, (processCpuNanos() - cpu) / 1e6 / calls};
+        }
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+}
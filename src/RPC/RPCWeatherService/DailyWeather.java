@@ -0,0 +1,70 @@
+package RPC.RPCWeatherService;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * ============================================================
+ * DAILY WEATHER CLASS
+ * ============================================================
+ * Result of getDailyWeather: one row per day (in the server's
+ * zone, like reading timestamps) on which the city had
+ * readings, oldest first. Each row holds the day's minimum,
+ * maximum and average temperature, average humidity and the
+ * number of readings they summarize. Days without
+ * readings are left out.
+ * ============================================================
+ */
+public class DailyWeather implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // ========== SERIES ATTRIBUTES ==========
+    private final String city;
+    private final int[] epochDays;           // Days since 1970-01-01
+    private final int[] readings;
+    private final double[] minTemperatures;
+    private final double[] maxTemperatures;
+    private final double[] avgTemperatures;
+    private final double[] avgHumidities;
+
+    // ========== CONSTRUCTOR ==========
+    public DailyWeather(String city, int[] epochDays, int[] readings, double[] minTemperatures,
+                        double[] maxTemperatures, double[] avgTemperatures, double[] avgHumidities) {
+        int days = epochDays.length;
+        if (readings.length != days || minTemperatures.length != days || maxTemperatures.length != days
+                || avgTemperatures.length != days || avgHumidities.length != days) {
+            throw new IllegalArgumentException("Every column needs one value per day");
+        }
+        this.city = city;
+        this.epochDays = epochDays;
+        this.readings = readings;
+        this.minTemperatures = minTemperatures;
+        this.maxTemperatures = maxTemperatures;
+        this.avgTemperatures = avgTemperatures;
+        this.avgHumidities = avgHumidities;
+    }
+
+    // ========== GETTER METHODS ==========
+    public String getCity() { return city; }
+    public int size() { return epochDays.length; }
+    public int getEpochDay(int index) { return epochDays[index]; }
+    public String getDate(int index) { return LocalDate.ofEpochDay(epochDays[index]).toString(); }
+    public int getReadings(int index) { return readings[index]; }
+    public double getMinTemperature(int index) { return minTemperatures[index]; }
+    public double getMaxTemperature(int index) { return maxTemperatures[index]; }
+    public double getAvgTemperature(int index) { return avgTemperatures[index]; }
+    public double getAvgHumidity(int index) { return avgHumidities[index]; }
+
+    // ========== STRING REPRESENTATION ==========
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("Daily weather for " + city + " (" + size() + " days)");
+        for (int i = 0; i < size(); i++) {
+            text.append(String.format("%n  %s  min %5.1f°C  max %5.1f°C  avg %5.1f°C  humidity %5.1f%%  (%d readings)",
+                                      getDate(i), minTemperatures[i], maxTemperatures[i], avgTemperatures[i],
+                                      avgHumidities[i], readings[i]));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package RPC.RPCWeatherService;
+
+import java.lang.reflect.Method;
+
+/**
+ * ============================================================
+ * RPC DISPATCH BENCHMARK
+ * ============================================================
+ * Measures the server-side cost of turning an RPCRequest into a
+ * method call, without any network or serialization:
+ *
+ *   - SWITCH:      hand-written switch on the method name with
+ *                  manual casts (the original processRequest)
+ *   - REFLECTION:  Method lookup by name + Method.invoke per call
+ *   - REGISTRY:    RPCRegistry (precomputed MethodHandle table)
+ *
+ * The benchmark service does almost no work, so the numbers are
+ * dominated by dispatch overhead.
+ *
+ * Usage:
+ *   java RPC.RPCWeatherService.DispatchBenchmark [calls]
+ * ============================================================
+ */
+public class DispatchBenchmark {
+
+    // ========== BENCHMARK SERVICE ==========
+    public interface EchoService {
+        String echo(String value);
+        int add(int a, int b);
+    }
+
+    private static final class EchoServiceImpl implements EchoService {
+        @Override
+        public String echo(String value) { return value; }
+
+        @Override
+        public int add(int a, int b) { return a + b; }
+    }
+
+    private static final int ROUNDS = 5;
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        EchoService service = new EchoServiceImpl();
+        RPCRegistry registry = new RPCRegistry();
+        registry.register(EchoService.class, service);
+
+        RPCRequest[] requests = {
+            new RPCRequest("echo", new Object[]{"Colombo"}),
+            new RPCRequest("add", new Object[]{20, 22})
+        };
+
+        System.out.println("============================================");
+        System.out.println("   RPC DISPATCH BENCHMARK (" + calls + " calls)");
+        System.out.println("============================================");
+
+        // Later rounds run with warmed-up JIT; the last round is reported
+        double[] nanos = new double[3];
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += switchDispatch(service, requests[i & 1]).hashCode();
+            }
+            nanos[0] = (System.nanoTime() - start) / (double) calls;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += reflectionDispatch(service, requests[i & 1]).hashCode();
+            }
+            nanos[1] = (System.nanoTime() - start) / (double) calls;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += registry.invoke(requests[i & 1]).hashCode();
+            }
+            nanos[2] = (System.nanoTime() - start) / (double) calls;
+        }
+
+        System.out.printf("   SWITCH      %7.1f ns/call%n", nanos[0]);
+        System.out.printf("   REFLECTION  %7.1f ns/call%n", nanos[1]);
+        System.out.printf("   REGISTRY    %7.1f ns/call%n", nanos[2]);
+        System.out.println("   (checksum " + sink + ")");
+        System.out.println("============================================");
+    }
+
+    // ========== BASELINE: HAND-WRITTEN SWITCH ==========
+    private static RPCResponse switchDispatch(EchoService service, RPCRequest request) {
+        Object[] params = request.getParameters();
+        switch (request.getMethodName()) {
+            case "echo":
+                return new RPCResponse(service.echo((String) params[0]));
+            case "add":
+                return new RPCResponse(service.add((Integer) params[0], (Integer) params[1]));
+            default:
+                return new RPCResponse(false, "Unknown method: " + request.getMethodName());
+        }
+    }
+
+    // ========== BASELINE: REFLECTION PER CALL ==========
+    private static RPCResponse reflectionDispatch(EchoService service, RPCRequest request) {
+        try {
+            for (Method method : EchoService.class.getMethods()) {
+                if (method.getName().equals(request.getMethodName())) {
+                    return new RPCResponse(method.invoke(service, request.getParameters()));
+                }
+            }
+            return new RPCResponse(false, "Unknown method: " + request.getMethodName());
+        } catch (ReflectiveOperationException e) {
+            return new RPCResponse(false, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.net.*;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * FAULT PROXY - TCP RELAY THAT CAN DEGRADE A SERVER
+ * ============================================================
+ * Relays connections from a local port to a target server, so
+ * load tests can degrade one replica on localhost without
+ * touching the server itself:
+ *
+ *   - setDelayMillis: every chunk sent towards the server waits
+ *     this long first (a slow replica or a congested link)
+ *   - setStalls:      a random share of chunks waits longer
+ *     (GC pauses, noisy neighbours: a replica that is only
+ *     sometimes slow, which health checks cannot single out)
+ *   - setDown(true):  open connections are cut and new ones are
+ *     closed at once (a crashed replica)
+ *   - setBandwidth:   each direction of each connection is paced
+ *     to this many bytes per second (a slow WAN link)
+ *
+ * Bytes relayed towards the client are counted, so benchmarks
+ * can see what actually crossed the "wire".
+ *
+ * Two threads per relayed connection; meant for tests only.
+ * ============================================================
+ */
+class FaultProxy implements Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    // ========== PROXY STATE ==========
+    private final String targetHost;
+    private final int targetPort;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private volatile long delayMillis;
+    private volatile double stallProbability;
+    private volatile long stallMillis;
+    private volatile boolean down;
+    private volatile long bytesPerSecond;
+    private final LongAdder bytesToClient = new LongAdder();
+
+    // ========== CONSTRUCTOR ==========
+    /**
+     * Start relaying from a free local port to the target.
+     */
+    FaultProxy(String targetHost, int targetPort) throws IOException {
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        this.serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(this::acceptLoop, "fault-proxy-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() { return serverSocket.getLocalPort(); }
+
+    void setDelayMillis(long delayMillis) { this.delayMillis = delayMillis; }
+
+    /**
+     * @param probability Share of chunks towards the server that stall (0 = none)
+     */
+    void setStalls(double probability, long millis) {
+        this.stallMillis = millis;
+        this.stallProbability = probability;
+    }
+
+    /**
+     * @param bytesPerSecond Link speed per direction (0 = unlimited)
+     */
+    void setBandwidth(long bytesPerSecond) { this.bytesPerSecond = bytesPerSecond; }
+
+    long getBytesToClient() { return bytesToClient.sum(); }
+
+    void setDown(boolean down) {
+        this.down = down;
+        if (down) {
+            closeAll();
+        }
+    }
+
+    // ========== RELAYING ==========
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException e) {
+                break; // Proxy closed
+            }
+            if (down) {
+                closeQuietly(client);
+                continue;
+            }
+            try {
+                Socket server = new Socket(targetHost, targetPort);
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                sockets.add(client);
+                sockets.add(server);
+                startPump(client, server, true);
+                startPump(server, client, false);
+            } catch (IOException e) {
+                closeQuietly(client);
+            }
+        }
+    }
+
+    private void startPump(Socket from, Socket to, boolean towardsServer) {
+        Thread pump = new Thread(() -> {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long linkFreeNanos = 0;   // When the paced link has sent everything so far
+            try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    long rate = bytesPerSecond;
+                    if (rate > 0) {
+                        // Deliver the chunk once it has "crossed" the link
+                        linkFreeNanos = Math.max(linkFreeNanos, System.nanoTime()) + read * 1_000_000_000L / rate;
+                        long wait = linkFreeNanos - System.nanoTime();
+                        if (wait > 0) {
+                            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                        }
+                    }
+                    if (towardsServer) {
+                        long pause = delayMillis;
+                        if (stallProbability > 0 && ThreadLocalRandom.current().nextDouble() < stallProbability) {
+                            pause += stallMillis;
+                        }
+                        if (pause > 0) {
+                            Thread.sleep(pause);
+                        }
+                    }
+                    out.write(buffer, 0, read);
+                    out.flush();
+                    if (!towardsServer) {
+                        bytesToClient.add(read);
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // Either side closed
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }, "fault-proxy-pump");
+        pump.setDaemon(true);
+        pump.start();
+    }
+
+    // ========== SHUTDOWN ==========
+    private void closeAll() {
+        for (Socket socket : sockets) {
+            closeQuietly(socket);
+        }
+    }
+
+    private void closeQuietly(Socket socket) {
+        sockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        closeAll();
+    }
+}
@@ -0,0 +1,19 @@
+package RPC.RPCWeatherService;
+
+/**
+ * ============================================================
+ * HEALTH SERVICE INTERFACE
+ * ============================================================
+ * Liveness probe registered by every WeatherServer next to the
+ * WeatherService. It is answered on the same call executor as
+ * real calls, so its latency shows how loaded the server is
+ * (used by BalancedWeatherClient health checks).
+ * ============================================================
+ */
+public interface HealthService {
+
+    /**
+     * @return The server's clock (epoch milliseconds)
+     */
+    long ping();
+}
@@ -0,0 +1,145 @@
+package RPC.RPCWeatherService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ============================================================
+ * HISTORY BENCHMARK - A YEAR OF DAILY BUCKETS
+ * ============================================================
+ * Loads a synthetic city catalog into a WeatherServer, records
+ * a history of readings (seasonal temperature plus noise, evenly
+ * spread over each day) for every city straight into the
+ * service's WeatherHistory, then times the history queries:
+ *
+ *   - Load:   readings recorded per second, bucket memory
+ *   - Direct: getDaily / getTrend on the store, random cities
+ *   - RPC:    getDailyWeather / getWeatherTrend through a stub
+ *             on one connection (binary codec)
+ *
+ * Every query covers the whole recorded range.
+ *
+ * Usage:
+ *   java -Xmx2g RPC.RPCWeatherService.HistoryBenchmark [cities] [days] [readingsPerDay] [queries]
+ *   (defaults: 100000 cities, 365 days, 4 readings per day, 2000 queries)
+ * ============================================================
+ */
+public class HistoryBenchmark {
+
+    // ========== ONE TIMED QUERY ==========
+    private interface Query {
+        Object run(int city) throws Exception;
+    }
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws Exception {
+        int cityCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 365;
+        int readingsPerDay = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int queries = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+        if (System.getProperty("weather.verbose") == null) {
+            System.setProperty("weather.verbose", "false");
+        }
+
+        // The catalog must be in place before the service loads it
+        Path file = Files.createTempFile("cities-", ".csv");
+        CityStoreBenchmark.writeCities(file, cityCount, new Random(42));
+        System.setProperty("weather.cities.file", file.toString());
+
+        WeatherServer server = new WeatherServer(0, WeatherServer.ExecutionMode.FIXED_POOL);
+        server.start();
+        WeatherServiceImpl service = (WeatherServiceImpl) server.getWeatherService();
+        WeatherHistory history = service.getHistory();
+        String[] names = service.getAllCities();
+
+        System.out.println("============================================");
+        System.out.println("   WEATHER HISTORY BENCHMARK");
+        System.out.println("============================================");
+
+        // ========== LOAD ==========
+        ZoneId zone = history.getZone();
+        int today = (int) LocalDate.now(zone).toEpochDay();
+        int firstDay = today - days + 1;
+        Random random = new Random(7);
+        long loadStart = System.nanoTime();
+        for (int day = firstDay; day <= today; day++) {
+            double season = 8 * Math.sin(2 * Math.PI * (day % 365) / 365.0);
+            long dayStart = startOfDay(day, zone);
+            long dayMillis = startOfDay(day + 1, zone) - dayStart;   // 23 or 25 h across DST changes
+            for (int city = 0; city < cityCount; city++) {
+                double base = 10 + (city % 25) + season;
+                for (int r = 0; r < readingsPerDay; r++) {
+                    long time = dayStart + r * (dayMillis / readingsPerDay);
+                    history.record(city, time, base + random.nextGaussian() * 3, 40 + random.nextDouble() * 50);
+                }
+            }
+        }
+        double loadSeconds = (System.nanoTime() - loadStart) / 1e9;
+        long readings = history.getRecordedReadings();
+        System.gc();
+        long heapBytes = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        System.out.printf("Load:   %d cities x %d days x %d readings = %,d readings in %.1f s (%,.0f readings/s)%n",
+                          cityCount, days, readingsPerDay, readings, loadSeconds, readings / loadSeconds);
+        System.out.printf("        buckets %,d MB (%.1f bytes per city-day), heap in use %,d MB%n",
+                          history.getBucketBytes() >> 20, history.getBucketBytes() / (double) cityCount / days,
+                          heapBytes >> 20);
+
+        // ========== QUERIES ==========
+        String from = LocalDate.ofEpochDay(firstDay).toString();
+        String to = LocalDate.ofEpochDay(today).toString();
+        RPCConnection connection = new RPCConnection("localhost", server.getPort());
+        WeatherService stub = RPCClient.create(WeatherService.class, connection);
+
+        Query[] kinds = {
+            city -> history.getDaily(city, names[city], firstDay, today),
+            city -> history.getTrend(city, names[city], firstDay, today),
+            city -> stub.getDailyWeather(names[city], from, to),
+            city -> stub.getWeatherTrend(names[city], from, to)
+        };
+        String[] labels = {"Direct daily", "Direct trend", "RPC daily", "RPC trend"};
+
+        System.out.println("Queries (" + queries + " random cities, " + from + " to " + to + "):");
+        for (int k = 0; k < kinds.length; k++) {
+            measure(kinds[k], cityCount, queries, new Random(k));   // Warm-up
+            double[] micros = measure(kinds[k], cityCount, queries, new Random(100 + k));
+            System.out.printf("   %-13s  mean %8.1f us | p50 %8.1f us | p99 %8.1f us%n",
+                              labels[k], micros[0], micros[1], micros[2]);
+        }
+        System.out.println("Sample: " + stub.getWeatherTrend(names[0], from, to));
+        System.out.println("============================================");
+
+        connection.close();
+        server.stop();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * @return First millisecond of an epoch day in the zone
+     */
+    private static long startOfDay(int day, ZoneId zone) {
+        return LocalDate.ofEpochDay(day).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * @return {mean, p50, p99} in microseconds
+     */
+    private static double[] measure(Query query, int cityCount, int queries, Random random) throws Exception {
+        long[] nanos = new long[queries];
+        long total = 0;
+        for (int i = 0; i < queries; i++) {
+            int city = random.nextInt(cityCount);
+            long start = System.nanoTime();
+            if (query.run(city) == null) {
+                throw new IllegalStateException("Empty result");
+            }
+            nanos[i] = System.nanoTime() - start;
+            total += nanos[i];
+        }
+        Arrays.sort(nanos);
+        return new double[]{total / 1000.0 / queries, nanos[queries / 2] / 1000.0, nanos[(int) (queries * 0.99)] / 1000.0};
+    }
+}
@@ -0,0 +1,84 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ============================================================
+ * JAVA OBJECT CODEC - JAVA SERIALIZATION WIRE FORMAT
+ * ============================================================
+ * The original RPC format: RPCRequest / RPCResponse objects
+ * written with ObjectOutputStream. The stream is reset after
+ * every message so back-references never span messages.
+ *
+ * Writes hold a ReentrantLock (not a monitor), so a virtual
+ * thread blocked on a slow socket does not pin its carrier.
+ *
+ * The input side is opened lazily, so creating the codec never
+ * blocks waiting for the peer's stream header.
+ * ============================================================
+ */
+class JavaObjectCodec implements RPCCodec {
+
+    // ========== STREAMS ==========
+    private final InputStream rawIn;
+    private final ObjectOutputStream out;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private ObjectInputStream in;
+
+    // ========== CONSTRUCTOR ==========
+    JavaObjectCodec(InputStream in, OutputStream out) throws IOException {
+        this.rawIn = in;
+        this.out = new ObjectOutputStream(out);
+        this.out.flush(); // Stream header, so the peer can open its input side
+    }
+
+    // ========== MESSAGES ==========
+    @Override
+    public void writeRequest(RPCRequest request) throws IOException {
+        write(request);
+    }
+
+    @Override
+    public RPCRequest readRequest() throws IOException {
+        return read(RPCRequest.class);
+    }
+
+    @Override
+    public void writeResponse(RPCResponse response) throws IOException {
+        write(response);
+    }
+
+    @Override
+    public RPCResponse readResponse() throws IOException {
+        return read(RPCResponse.class);
+    }
+
+    @Override
+    public byte getId() { return JAVA; }
+
+    // ========== OBJECT STREAM I/O ==========
+    private void write(Object message) throws IOException {
+        writeLock.lock();
+        try {
+            out.writeObject(message);
+            out.reset(); // Persistent stream: drop back-references after every message
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private <T> T read(Class<T> type) throws IOException {
+        try {
+            if (in == null) {
+                in = new ObjectInputStream(rawIn);
+            }
+            return type.cast(in.readObject());
+        } catch (EOFException e) {
+            return null; // Peer finished sending
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unexpected RPC message: " + e.getMessage(), e);
+        }
+    }
+}
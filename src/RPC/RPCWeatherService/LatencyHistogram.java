@@ -0,0 +1,121 @@
+package RPC.RPCWeatherService;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * LATENCY HISTOGRAM
+ * ============================================================
+ * Lock-free latency histogram backed by striped LongAdder
+ * counters, cheap enough to record every stage of every RPC
+ * call (see RPCMetrics).
+ *
+ * Bucketing:
+ *   - Values 0-3 ns get their own bucket
+ *   - Every power of two above that is split into 4 sub-buckets
+ *   - Worst-case relative error of a percentile is 25%
+ * ============================================================
+ */
+class LatencyHistogram {
+
+    // ========== BUCKET LAYOUT ==========
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKET_COUNT = 64 * SUB_BUCKETS;
+
+    // ========== COUNTERS ==========
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    // ========== CONSTRUCTOR ==========
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    // ========== RECORDING ==========
+    /**
+     * Record one latency sample.
+     *
+     * @param nanos Elapsed time in nanoseconds
+     */
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[bucketIndex(nanos)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * Clear all recorded samples.
+     */
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+    }
+
+    // ========== QUERIES ==========
+    long getCount() { return count.sum(); }
+
+    /**
+     * Mean latency in nanoseconds (0 if no samples).
+     */
+    double getMeanNanos() {
+        long samples = count.sum();
+        return samples == 0 ? 0.0 : (double) totalNanos.sum() / samples;
+    }
+
+    /**
+     * Approximate latency at the given percentile.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound of the bucket holding that percentile, in nanoseconds
+     */
+    long getPercentileNanos(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long samples = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets[i].sum();
+            samples += snapshot[i];
+        }
+        if (samples == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(samples * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= Math.max(1, rank)) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(BUCKET_COUNT - 1);
+    }
+
+    // ========== BUCKET MATH ==========
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return (exponent - 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index / SUB_BUCKETS) + 1;
+        int sub = index & (SUB_BUCKETS - 1);
+        long lower = (long) (SUB_BUCKETS + sub) << (exponent - 2);
+        return lower + (1L << (exponent - 2)) - 1;
+    }
+}
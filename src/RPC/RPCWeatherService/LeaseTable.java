@@ -0,0 +1,90 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ============================================================
+ * LEASE TABLE - WHO CACHES WHICH CITY
+ * ============================================================
+ * Server-side record of the leases handed out per city. When a
+ * city's data changes, revoke() pushes the city name to every
+ * session whose lease has not yet expired and forgets them all;
+ * clients must take a new lease to be told about the next change.
+ *
+ * revoke() runs as the cache's change listener (refresh thread
+ * or a caller's thread), so it never writes to a socket: each
+ * invalidation is queued on the session's outbox and written by
+ * that session's writer (RPCSession.pushLatest). A slow lease
+ * holder delays only itself, and repeated invalidations of a
+ * city it has not read yet collapse into one.
+ *
+ * Expired leases and closed sessions are dropped at the next
+ * revocation of their city.
+ * ============================================================
+ */
+class LeaseTable {
+
+    // city -> (session -> lease expiry, System.nanoTime())
+    private final ConcurrentHashMap<String, Map<RPCSession, Long>> holders = new ConcurrentHashMap<>();
+
+    // ========== GRANT ==========
+    void grant(String city, RPCSession session, long expiresNanos) {
+        // compute() is atomic with revoke()'s remove(), so no grant is lost
+        holders.compute(city, (key, sessions) -> {
+            if (sessions == null) {
+                sessions = new ConcurrentHashMap<>();
+            }
+            sessions.merge(session, expiresNanos, (old, fresh) -> fresh - old > 0 ? fresh : old);
+            return sessions;
+        });
+    }
+
+    // ========== REVOKE ==========
+    /**
+     * @return Number of sessions sent an invalidation
+     */
+    int revoke(String city) {
+        Map<RPCSession, Long> sessions = holders.remove(city);
+        if (sessions == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        Invalidation key = new Invalidation(city);
+        int pushed = 0;
+        for (Map.Entry<RPCSession, Long> lease : sessions.entrySet()) {
+            RPCSession session = lease.getKey();
+            if (lease.getValue() - now > 0 && session.isOpen()) {
+                try {
+                    session.pushLatest(key, RPCConnection.PUSH_REQUEST_ID, city); // Queued, never blocks
+                    pushed++;
+                } catch (IOException e) {
+                    // Client went away; its cache is gone with the connection
+                }
+            }
+        }
+        return pushed;
+    }
+
+    // ========== OUTBOX KEY: ONE PENDING INVALIDATION PER CITY ==========
+    private static final class Invalidation {
+        final String city;
+
+        Invalidation(String city) {
+            this.city = city;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Invalidation && ((Invalidation) other).city.equals(city);
+        }
+
+        @Override
+        public int hashCode() {
+            return city.hashCode();
+        }
+    }
+
+    int size() { return holders.size(); }
+}
@@ -0,0 +1,199 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.rmi.RemoteException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ============================================================
+ * RPC CLIENT - TYPED STUBS OVER AN RPC CONNECTION
+ * ============================================================
+ * Turns a service interface into a client-side stub, so a call
+ * looks like a local method call instead of a hand-built
+ * RPCRequest and a cast of the response:
+ *
+ *   WeatherService weather = RPCClient.create(WeatherService.class, connection);
+ *   WeatherData data = weather.getWeather("Kandy");
+ *
+ * The stub is a java.lang.reflect.Proxy. Everything a call needs
+ * (qualified method name, return type, how to report transport
+ * failures) is resolved once per interface and cached, so a call
+ * costs one map lookup before it is sent. Calls are sent by the
+ * qualified name ("WeatherService.getWeather"), which RPCRegistry
+ * serves for every registered interface; like the registry,
+ * overloaded methods are rejected.
+ *
+ * Failures:
+ *   - Error response from the server: RPCException
+ *   - Transport failure or timeout: the IOException itself if
+ *     the method declares it, a RemoteException if the method
+ *     declares that (RMI interfaces), else UncheckedIOException
+ *
+ * Stubs are thread-safe; concurrent calls are pipelined on the
+ * shared connection.
+ * ============================================================
+ */
+public final class RPCClient {
+
+    // ========== RESOLVED INTERFACES ==========
+    private static final ClassValue<Map<Method, StubMethod>> METHODS = new ClassValue<Map<Method, StubMethod>>() {
+        @Override
+        protected Map<Method, StubMethod> computeValue(Class<?> serviceInterface) {
+            return resolve(serviceInterface);
+        }
+    };
+
+    private RPCClient() { }
+
+    // ========================================================
+    // STUB FACTORY
+    // ========================================================
+    /**
+     * Create a stub whose calls use the connection's default
+     * call timeout (-Drpc.call.timeout.ms).
+     */
+    public static <T> T create(Class<T> serviceInterface, RPCConnection connection) {
+        return create(serviceInterface, connection, -1);
+    }
+
+    /**
+     * @param timeoutMillis Timeout of every call (0 waits forever,
+     *        negative uses the connection's default)
+     * @throws IllegalArgumentException if the interface is not public
+     *         or overloads a method
+     */
+    public static <T> T create(Class<T> serviceInterface, RPCConnection connection, long timeoutMillis) {
+        if (!serviceInterface.isInterface() || !Modifier.isPublic(serviceInterface.getModifiers())) {
+            throw new IllegalArgumentException(serviceInterface.getName() + " is not a public interface");
+        }
+        Map<Method, StubMethod> methods = METHODS.get(serviceInterface);
+        Object stub = Proxy.newProxyInstance(serviceInterface.getClassLoader(), new Class<?>[]{serviceInterface},
+                                             new StubHandler(serviceInterface, methods, connection, timeoutMillis));
+        return serviceInterface.cast(stub);
+    }
+
+    private static Map<Method, StubMethod> resolve(Class<?> serviceInterface) {
+        Map<Method, StubMethod> methods = new HashMap<>();
+        Map<String, Method> byName = new HashMap<>();
+        for (Method method : serviceInterface.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (byName.put(method.getName(), method) != null) {
+                throw new IllegalArgumentException("Overloaded RPC method: "
+                                                   + serviceInterface.getSimpleName() + "." + method.getName());
+            }
+            methods.put(method, new StubMethod(serviceInterface, method));
+        }
+        return Collections.unmodifiableMap(methods);
+    }
+
+    // ========================================================
+    // STUB HANDLER - ONE STUB INSTANCE
+    // ========================================================
+    private static final class StubHandler implements InvocationHandler {
+        private final Class<?> serviceInterface;
+        private final Map<Method, StubMethod> methods;
+        private final RPCConnection connection;
+        private final long timeoutMillis;
+
+        StubHandler(Class<?> serviceInterface, Map<Method, StubMethod> methods, RPCConnection connection,
+                    long timeoutMillis) {
+            this.serviceInterface = serviceInterface;
+            this.methods = methods;
+            this.connection = connection;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            StubMethod stubMethod = methods.get(method);
+            if (stubMethod == null) {
+                return invokeObjectMethod(proxy, method, args);
+            }
+            RPCResponse response;
+            try {
+                response = timeoutMillis < 0
+                        ? connection.call(stubMethod.wireName, args)
+                        : connection.call(stubMethod.wireName, args, timeoutMillis);
+            } catch (IOException e) {
+                throw stubMethod.transportFailure(e);
+            }
+            if (!response.isSuccess()) {
+                throw new RPCException(response.getErrorMessage());
+            }
+            return stubMethod.result(response.getResult());
+        }
+
+        /** equals, hashCode and toString are answered locally. */
+        private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "RPC stub for " + serviceInterface.getSimpleName();
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+
+    // ========================================================
+    // STUB METHOD - ONE RESOLVED METHOD
+    // ========================================================
+    private static final class StubMethod {
+        final String wireName;
+        private final Class<?> resultType;      // Primitives boxed for isInstance checks
+        private final boolean primitive;
+        private final boolean isVoid;
+        private final boolean throwsIOException;
+        private final boolean throwsRemoteException;
+
+        StubMethod(Class<?> serviceInterface, Method method) {
+            this.wireName = serviceInterface.getSimpleName() + "." + method.getName();
+            Class<?> declared = method.getReturnType();
+            this.isVoid = declared == void.class;
+            this.primitive = declared.isPrimitive() && !isVoid;
+            this.resultType = primitive ? MethodType.methodType(declared).wrap().returnType() : declared;
+            boolean io = false;
+            boolean remote = false;
+            for (Class<?> exception : method.getExceptionTypes()) {
+                io |= exception.isAssignableFrom(IOException.class);
+                remote |= exception.isAssignableFrom(RemoteException.class);
+            }
+            this.throwsIOException = io;
+            this.throwsRemoteException = remote;
+        }
+
+        Object result(Object value) {
+            if (isVoid) {
+                return null;
+            }
+            if (value == null ? primitive : !resultType.isInstance(value)) {
+                throw new RPCException("Method " + wireName + " returned "
+                                       + (value == null ? "null" : value.getClass().getSimpleName())
+                                       + ", expected " + resultType.getSimpleName());
+            }
+            return value;
+        }
+
+        Exception transportFailure(IOException e) {
+            if (throwsIOException) {
+                return e;
+            }
+            if (throwsRemoteException) {
+                return new RemoteException(wireName + " failed: " + e.getMessage(), e);
+            }
+            return new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.net.Socket;
+
+/**
+ * ============================================================
+ * RPC CODEC - WIRE FORMAT OF ONE CONNECTION
+ * ============================================================
+ * Reads and writes RPC envelopes on a connection. Two formats:
+ *
+ *   - JAVA:   Java serialization (ObjectStreams), the original
+ *             format; used by clients that send no handshake
+ *   - BINARY: schema-driven binary frames (see BinaryCodec)
+ *
+ * Negotiation at connection start:
+ *   client -> "WRPC" version(byte) count(byte) codecId(byte)*   (preference order)
+ *   server -> "WRPC" chosenCodecId(byte)
+ *
+ * Response compression: a client able to inflate responses adds
+ * DEFLATE to its codec list; a server that agrees (BINARY only)
+ * answers with chosenCodecId | DEFLATE, and from then on every
+ * response frame carries a compression flag (see BinaryCodec).
+ * Older servers skip the unknown ID and answer without the bit,
+ * so both sides fall back to plain frames. -Drpc.compress=false
+ * turns the offer (client) and the acceptance (server) off.
+ *
+ * A connection that starts with the ObjectStream magic instead
+ * (0xACED) is a classic client and gets the JAVA codec without
+ * any handshake. Writes are thread-safe; reads are done by a
+ * single reader thread per connection.
+ * ============================================================
+ */
+public interface RPCCodec {
+
+    // ========== CODEC IDS ==========
+    byte JAVA = 0;
+    byte BINARY = 1;
+    byte DEFLATE = 0x40;   // Feature bit, not a codec
+
+    boolean COMPRESSION = Boolean.parseBoolean(System.getProperty("rpc.compress", "true"));
+
+    int HANDSHAKE_MAGIC = ('W' << 24) | ('R' << 16) | ('P' << 8) | 'C';
+    byte HANDSHAKE_VERSION = 1;
+
+    // ========== MESSAGES ==========
+    void writeRequest(RPCRequest request) throws IOException;
+
+    /** @return the next request, or null at end of stream */
+    RPCRequest readRequest() throws IOException;
+
+    void writeResponse(RPCResponse response) throws IOException;
+
+    /**
+     * @param compressible Whether the response may be compressed if
+     *        the connection negotiated it and it is large enough
+     */
+    default void writeResponse(RPCResponse response, boolean compressible) throws IOException {
+        writeResponse(response);
+    }
+
+    /** @return the next response, or null at end of stream */
+    RPCResponse readResponse() throws IOException;
+
+    byte getId();
+
+    /**
+     * @return Time the last readRequest spent decoding (not waiting
+     *         for bytes), or -1 if this codec cannot tell
+     */
+    default long getLastDecodeNanos() { return -1; }
+
+    /**
+     * Free native state (zlib streams) once the connection is done.
+     * Safe to call more than once; compressed messages fail after it.
+     */
+    default void release() { }
+
+    // ========================================================
+    // NEGOTIATION
+    // ========================================================
+    /**
+     * Client side: propose a codec and wait for the server's choice.
+     *
+     * @param preferred JAVA skips the handshake entirely (works with any server)
+     */
+    static RPCCodec connect(Socket socket, byte preferred) throws IOException {
+        return connect(socket, preferred, COMPRESSION);
+    }
+
+    /**
+     * @param compression Offer to receive compressed responses
+     */
+    static RPCCodec connect(Socket socket, byte preferred, boolean compression) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+        if (preferred == JAVA) {
+            return new JavaObjectCodec(in, out);
+        }
+
+        DataOutputStream handshake = new DataOutputStream(out);
+        handshake.writeInt(HANDSHAKE_MAGIC);
+        handshake.writeByte(HANDSHAKE_VERSION);
+        handshake.writeByte(compression ? 3 : 2);
+        handshake.writeByte(preferred);
+        handshake.writeByte(JAVA);
+        if (compression) {
+            handshake.writeByte(DEFLATE);
+        }
+        handshake.flush();
+
+        DataInputStream reply = new DataInputStream(in);
+        if (reply.readInt() != HANDSHAKE_MAGIC) {
+            throw new IOException("Server does not speak the RPC handshake");
+        }
+        byte chosen = reply.readByte();
+        return create((byte) (chosen & ~DEFLATE), in, out, compression && (chosen & DEFLATE) != 0);
+    }
+
+    /**
+     * Server side: detect a handshake (or a classic ObjectStream
+     * client) and answer with the chosen codec.
+     */
+    static RPCCodec accept(Socket socket) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+
+        in.mark(4);
+        DataInputStream handshake = new DataInputStream(in);
+        int magic;
+        try {
+            magic = handshake.readInt();
+        } catch (EOFException e) {
+            magic = 0;
+        }
+        if (magic != HANDSHAKE_MAGIC) {
+            in.reset(); // Classic client: the bytes are its ObjectStream header
+            return new JavaObjectCodec(in, out);
+        }
+
+        handshake.readByte(); // Version 1 is the only one so far
+        int count = handshake.readUnsignedByte();
+        byte chosen = JAVA;
+        boolean found = false;
+        boolean deflate = false;
+        for (int i = 0; i < count; i++) {
+            byte codec = handshake.readByte();
+            if (codec == DEFLATE) {
+                deflate = COMPRESSION;
+            } else if (!found && (codec == JAVA || codec == BINARY)) {
+                chosen = codec;
+                found = true;
+            }
+        }
+        deflate &= chosen == BINARY;
+        DataOutputStream reply = new DataOutputStream(out);
+        reply.writeInt(HANDSHAKE_MAGIC);
+        reply.writeByte(deflate ? chosen | DEFLATE : chosen);
+        reply.flush();
+        return create(chosen, in, out, deflate);
+    }
+
+    static RPCCodec create(byte id, InputStream in, OutputStream out, boolean compression) throws IOException {
+        switch (id) {
+            case BINARY: return new BinaryCodec(in, out, compression);
+            case JAVA:   return new JavaObjectCodec(in, out);
+            default:     throw new IOException("Unknown codec: " + id);
+        }
+    }
+}
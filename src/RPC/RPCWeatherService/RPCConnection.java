@@ -0,0 +1,351 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.net.*;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * ============================================================
+ * RPC CONNECTION - PERSISTENT, PIPELINED CLIENT CHANNEL
+ * ============================================================
+ * One long-lived socket carrying many RPC calls. Each request
+ * gets a unique ID; the caller receives a future that completes
+ * when the response with the same ID arrives.
+ *
+ * Protocol:
+ *   - Client and server negotiate the wire format once
+ *     (BINARY by default, see RPCCodec; -Drpc.codec=java),
+ *     including compressed responses (-Drpc.compress=false)
+ *   - Client writes requests back to back (pipelining)
+ *   - Server answers each with an RPCResponse carrying the same
+ *     request ID, in whatever order the calls finish
+ *   - A background reader thread matches responses to callers
+ *
+ * If the connection breaks, every pending call fails with the
+ * I/O error and isOpen() returns false; callers reconnect.
+ * Responses with request ID PUSH_REQUEST_ID are not answers
+ * but server pushes (see RPCSession); their result goes to the
+ * push listener.
+ * A stream call (openStream) gets its normal response first and
+ * then any number of further responses with the same request ID,
+ * which go to the stream's listener until the stream is closed.
+ * A call given a timeout fails with SocketTimeoutException if
+ * no response arrives in time; a late response is discarded.
+ * The timeout travels in the request, so the server drops the
+ * call instead of running it once nobody is waiting. Blocking
+ * calls use -Drpc.call.timeout.ms (default 10000, 0 = none), so
+ * a stuck server cannot hang the caller forever.
+ * Cancelling a call's future forgets the call and tells the
+ * server, which skips it if it has not started yet.
+ * Calls made while serving a traced call carry its trace ID;
+ * other calls are traced with probability -Drpc.trace.sample
+ * (default 0), and the server records their stage timings.
+ * ============================================================
+ */
+public class RPCConnection implements Closeable {
+
+    /** Request ID of server pushes; calls are numbered from 1. */
+    public static final long PUSH_REQUEST_ID = 0;
+
+    private static final long CALL_TIMEOUT_MILLIS = Long.getLong("rpc.call.timeout.ms", 10_000L);
+    private static final double TRACE_SAMPLE_RATE = Double.parseDouble(System.getProperty("rpc.trace.sample", "0"));
+
+    // ========== SHARED TIMEOUT TIMER ==========
+    private static final ScheduledExecutorService TIMEOUTS = createTimeoutTimer();
+
+    // ========== CONNECTION STATE ==========
+    private final Socket socket;
+    private final RPCCodec codec;
+    private final AtomicLong nextRequestId = new AtomicLong(1);
+    private final Map<Long, CompletableFuture<RPCResponse>> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Stream> streams = new ConcurrentHashMap<>();
+    private volatile boolean open = true;
+    private volatile Consumer<Object> pushListener = message -> { };
+
+    // ========== CONSTRUCTOR ==========
+    public RPCConnection(String host, int port) throws IOException {
+        this(host, port, "java".equalsIgnoreCase(System.getProperty("rpc.codec")) ? RPCCodec.JAVA : RPCCodec.BINARY);
+    }
+
+    /**
+     * @param preferredCodec RPCCodec.BINARY or RPCCodec.JAVA
+     */
+    public RPCConnection(String host, int port, byte preferredCodec) throws IOException {
+        this(host, port, preferredCodec, RPCCodec.COMPRESSION);
+    }
+
+    /**
+     * @param compression Offer to receive compressed responses
+     */
+    public RPCConnection(String host, int port, byte preferredCodec, boolean compression) throws IOException {
+        socket = new Socket(host, port);
+        try {
+            socket.setTcpNoDelay(true);
+            codec = RPCCodec.connect(socket, preferredCodec, compression);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+
+        Thread reader = new Thread(this::readResponses, "rpc-reader-" + socket.getLocalPort());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    // ========================================================
+    // CALLS
+    // ========================================================
+    /**
+     * Send a request without waiting for its response.
+     *
+     * @return Future completed with the matching response, or
+     *         exceptionally with the IOException that broke the connection
+     */
+    public CompletableFuture<RPCResponse> callAsync(String methodName, Object[] parameters) {
+        return callAsync(methodName, parameters, 0);
+    }
+
+    /**
+     * Send a request that fails if no response arrives within the timeout.
+     *
+     * @param timeoutMillis Time allowed for the response (0 waits forever);
+     *        also sent to the server as the call's deadline
+     * @return Future completed with the matching response, or exceptionally
+     *         with SocketTimeoutException or the connection's IOException;
+     *         cancelling it cancels the call on the server
+     */
+    public CompletableFuture<RPCResponse> callAsync(String methodName, Object[] parameters, long timeoutMillis) {
+        long requestId = nextRequestId.getAndIncrement();
+        CompletableFuture<RPCResponse> future = new CompletableFuture<>();
+        pending.put(requestId, future);
+        if (!open) {
+            fail(requestId, new IOException("Connection closed"));
+            return future;
+        }
+        if (timeoutMillis > 0) {
+            ScheduledFuture<?> timeout = TIMEOUTS.schedule(() -> fail(requestId, new SocketTimeoutException(
+                    methodName + " timed out after " + timeoutMillis + " ms")), timeoutMillis, TimeUnit.MILLISECONDS);
+            future.whenComplete((response, error) -> timeout.cancel(false));
+        }
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled() && pending.remove(requestId) != null) {
+                sendCancel(requestId);
+            }
+        });
+        try {
+            codec.writeRequest(new RPCRequest(requestId, methodName, parameters, timeoutMillis, traceId()));
+        } catch (IOException e) {
+            fail(requestId, e);
+            shutdown(e);
+        }
+        return future;
+    }
+
+    /**
+     * Send a request and block until its response arrives or the
+     * default call timeout (-Drpc.call.timeout.ms) passes.
+     *
+     * @throws SocketTimeoutException if no response arrives in time
+     */
+    public RPCResponse call(String methodName, Object[] parameters) throws IOException {
+        return call(methodName, parameters, CALL_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Send a request and block until its response arrives.
+     *
+     * @param timeoutMillis Time allowed for the response (0 waits forever)
+     */
+    public RPCResponse call(String methodName, Object[] parameters, long timeoutMillis) throws IOException {
+        CompletableFuture<RPCResponse> future = callAsync(methodName, parameters, timeoutMillis);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + methodName);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    /**
+     * Send a request whose answer is followed by a stream of server
+     * messages (e.g. subscribe). The listener runs on the reader
+     * thread, so it must not block.
+     */
+    public Stream openStream(String methodName, Object[] parameters, Consumer<Object> listener) {
+        long requestId = nextRequestId.getAndIncrement();
+        Stream stream = new Stream(requestId, listener);
+        streams.put(requestId, stream);
+        pending.put(requestId, stream.opened);
+        if (!open) {
+            fail(requestId, new IOException("Connection closed"));
+            return stream;
+        }
+        try {
+            codec.writeRequest(new RPCRequest(requestId, methodName, parameters));
+        } catch (IOException e) {
+            fail(requestId, e);
+            shutdown(e);
+        }
+        return stream;
+    }
+
+    /**
+     * Receive server pushes; runs on the reader thread, so it must not block.
+     */
+    public void setPushListener(Consumer<Object> listener) {
+        this.pushListener = listener;
+    }
+
+    public boolean isOpen() { return open; }
+    public byte getCodec() { return codec.getId(); }
+    public int getPendingCalls() { return pending.size(); }
+
+    // ========================================================
+    // RESPONSE READER
+    // ========================================================
+    private void readResponses() {
+        try {
+            while (open) {
+                RPCResponse response = codec.readResponse();
+                if (response == null) {
+                    throw new EOFException("Server closed the connection");
+                }
+                if (response.getRequestId() == PUSH_REQUEST_ID) {
+                    pushListener.accept(response.getResult());
+                    continue;
+                }
+                CompletableFuture<RPCResponse> future = pending.remove(response.getRequestId());
+                if (future != null) {
+                    future.complete(response);
+                    continue;
+                }
+                Stream stream = streams.get(response.getRequestId());
+                if (stream != null) {
+                    stream.listener.accept(response.getResult());
+                }
+            }
+        } catch (IOException e) {
+            shutdown(e);
+        }
+    }
+
+    // ========== TRACING ==========
+    private static long traceId() {
+        long current = RPCSession.currentTraceId();
+        if (current != 0) {
+            return current; // Serving a traced call: the trace continues
+        }
+        if (TRACE_SAMPLE_RATE > 0 && ThreadLocalRandom.current().nextDouble() < TRACE_SAMPLE_RATE) {
+            return RPCMetrics.newTraceId();
+        }
+        return 0L;
+    }
+
+    // ========== CANCELLATION ==========
+    /**
+     * Tell the server the caller gave up on a call. Servers
+     * without cancellation answer with an unknown-method error,
+     * which is discarded like any other late response.
+     */
+    private void sendCancel(long requestId) {
+        if (!open) {
+            return;
+        }
+        try {
+            codec.writeRequest(RPCRequest.cancel(requestId));
+        } catch (IOException e) {
+            shutdown(e);
+        }
+    }
+
+    // ========== FAILURE HANDLING ==========
+    private void fail(long requestId, IOException error) {
+        CompletableFuture<RPCResponse> future = pending.remove(requestId);
+        if (future != null) {
+            future.completeExceptionally(error);
+        }
+        Stream stream = streams.remove(requestId);
+        if (stream != null) {
+            stream.ended.completeExceptionally(error);
+        }
+    }
+
+    private void shutdown(IOException error) {
+        open = false;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        codec.release(); // After the close, so a blocked write cannot hold it up
+        for (Long requestId : pending.keySet()) {
+            fail(requestId, error);
+        }
+        for (Long requestId : streams.keySet()) {
+            fail(requestId, error);
+        }
+    }
+
+    @Override
+    public void close() {
+        shutdown(new IOException("Connection closed"));
+    }
+
+    // ========================================================
+    // STREAM - ONE CALL ANSWERED MANY TIMES
+    // ========================================================
+    public final class Stream implements Closeable {
+        private final long requestId;
+        private final Consumer<Object> listener;
+        private final CompletableFuture<RPCResponse> opened = new CompletableFuture<>();
+        private final CompletableFuture<Void> ended = new CompletableFuture<>();
+
+        private Stream(long requestId, Consumer<Object> listener) {
+            this.requestId = requestId;
+            this.listener = listener;
+        }
+
+        /** Request ID of the call, which the server uses as the stream ID. */
+        public long getStreamId() { return requestId; }
+
+        /** @return Future completed with the call's first response */
+        public CompletableFuture<RPCResponse> getOpened() { return opened; }
+
+        /** @return Future completed when the stream is closed, or exceptionally if the connection breaks */
+        public CompletableFuture<Void> getEnded() { return ended; }
+
+        /**
+         * Stop delivering messages locally. The server side is
+         * ended by the service's own call (e.g. unsubscribe).
+         */
+        @Override
+        public void close() {
+            streams.remove(requestId);
+            ended.complete(null);
+        }
+    }
+
+    private static ScheduledExecutorService createTimeoutTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rpc-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true); // Answered calls leave the timer queue at once
+        return timer;
+    }
+}
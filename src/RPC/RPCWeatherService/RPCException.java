@@ -0,0 +1,19 @@
+package RPC.RPCWeatherService;
+
+/**
+ * ============================================================
+ * RPC EXCEPTION - ERROR RESPONSE FROM THE SERVER
+ * ============================================================
+ * Raised on the client when the server answers a call with an
+ * error response (unknown city, bad parameters, ...). Transport
+ * failures are reported as IOException instead.
+ * ============================================================
+ */
+public class RPCException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RPCException(String errorMessage) {
+        super(errorMessage);
+    }
+}
@@ -0,0 +1,326 @@
+package RPC.RPCWeatherService;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * RPC METRICS - PER-METHOD SERVER INSTRUMENTATION
+ * ============================================================
+ * Counts calls and errors per RPC method and times every call
+ * in four stages:
+ *
+ *   - QUEUE:   read off the socket until a call thread picks it up
+ *   - DECODE:  decoding the request frame (binary codec only;
+ *              Java serialization cannot be told apart from
+ *              waiting for the bytes)
+ *   - EXECUTE: the service method itself
+ *   - ENCODE:  waiting in the session's outbox, encoding and
+ *              writing the response
+ *
+ * Counters are striped (LongAdder) and histograms lock-free, so
+ * a call costs a few nanoTime reads and adder increments; when
+ * disabled, startTimer() returns 0 and recording is skipped.
+ *
+ * Tracing: a call is traced when its request carries a trace ID
+ * (sampled by the client, see RPCConnection) or the server
+ * samples it itself (-Dweather.trace.sample, default 0.001).
+ * The trace ID is visible to the service through RPCSession,
+ * so outgoing calls made while serving carry it on. The last
+ * TRACE_BUFFER traced calls are kept with their stage times.
+ *
+ * Export: JMX (see RPCMetricsMXBean) and toText(), which
+ * WeatherServer serves over HTTP with -Dweather.metrics.port.
+ * ============================================================
+ */
+public class RPCMetrics implements RPCMetricsMXBean {
+
+    // ========== CALL STAGES ==========
+    public enum Stage { QUEUE, DECODE, EXECUTE, ENCODE }
+
+    static final String UNKNOWN_METHOD = "unknown";
+    private static final int TRACE_BUFFER = 256;
+
+    // ========== SWITCHES ==========
+    private volatile boolean enabled = true;
+    private volatile double traceSampleRate =
+            Double.parseDouble(System.getProperty("weather.trace.sample", "0.001"));
+
+    // ========== COUNTERS ==========
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private final LongAdder expiredCalls = new LongAdder();
+    private final LongAdder cancelledCalls = new LongAdder();
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    // ========== RECENT TRACES (ring) ==========
+    private final String[] traces = new String[TRACE_BUFFER];
+    private long tracesWritten;
+
+    // ========================================================
+    // HOT PATH RECORDING
+    // ========================================================
+    /**
+     * @return Current nanoTime, or 0 if metrics are disabled
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Choose a trace ID for a call whose request carries none.
+     *
+     * @return A new trace ID for a sampled call, otherwise 0
+     */
+    public long sampleTraceId() {
+        double rate = traceSampleRate;
+        if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return 0L;
+        }
+        return newTraceId();
+    }
+
+    /**
+     * @return A random, positive, non-zero trace ID
+     */
+    public static long newTraceId() {
+        return (ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE) | 1;
+    }
+
+    /**
+     * Record one finished call.
+     *
+     * @param method Qualified method name (or UNKNOWN_METHOD)
+     * @param decodeNanos Decode time, or -1 if the codec cannot tell
+     * @param traceId Trace ID of a traced call, or 0
+     */
+    public void recordCall(String method, boolean success, long decodeNanos, long queueNanos,
+                           long executeNanos, long encodeNanos, long traceId) {
+        if (!enabled) {
+            return;
+        }
+        MethodMetrics metrics = methods.computeIfAbsent(method, name -> new MethodMetrics());
+        metrics.calls.increment();
+        if (!success) {
+            metrics.errors.increment();
+        }
+        if (decodeNanos >= 0) {
+            metrics.stages[Stage.DECODE.ordinal()].record(decodeNanos);
+        }
+        metrics.stages[Stage.QUEUE.ordinal()].record(queueNanos);
+        metrics.stages[Stage.EXECUTE.ordinal()].record(executeNanos);
+        metrics.stages[Stage.ENCODE.ordinal()].record(encodeNanos);
+        if (traceId != 0) {
+            addTrace(String.format(Locale.ROOT,
+                    "%s trace=%016x %s %s queue=%.1fus decode=%s execute=%.1fus encode=%.1fus",
+                    Instant.now(), traceId, method, success ? "ok" : "error", queueNanos / 1000.0,
+                    decodeNanos >= 0 ? String.format(Locale.ROOT, "%.1fus", decodeNanos / 1000.0) : "n/a",
+                    executeNanos / 1000.0, encodeNanos / 1000.0));
+        }
+    }
+
+    public void recordExpired() { expiredCalls.increment(); }
+    public void recordCancelled() { cancelledCalls.increment(); }
+    public void recordRejected() { rejectedCalls.increment(); }
+
+    private synchronized void addTrace(String trace) {
+        traces[(int) (tracesWritten++ % TRACE_BUFFER)] = trace;
+    }
+
+    // ========================================================
+    // MXBEAN ATTRIBUTES
+    // ========================================================
+    @Override
+    public long getCallsTotal() {
+        long total = 0;
+        for (MethodMetrics metrics : methods.values()) {
+            total += metrics.calls.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getErrorsTotal() {
+        long total = 0;
+        for (MethodMetrics metrics : methods.values()) {
+            total += metrics.errors.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getExpiredCalls() { return expiredCalls.sum(); }
+
+    @Override
+    public long getCancelledCalls() { return cancelledCalls.sum(); }
+
+    @Override
+    public long getRejectedCalls() { return rejectedCalls.sum(); }
+
+    @Override
+    public Map<String, Long> getMethodCalls() {
+        Map<String, Long> calls = new TreeMap<>();
+        methods.forEach((method, metrics) -> calls.put(method, metrics.calls.sum()));
+        return calls;
+    }
+
+    @Override
+    public Map<String, Long> getMethodErrors() {
+        Map<String, Long> errors = new TreeMap<>();
+        methods.forEach((method, metrics) -> errors.put(method, metrics.errors.sum()));
+        return errors;
+    }
+
+    @Override
+    public Map<String, StageLatency> getStageLatencies() {
+        Map<String, StageLatency> latencies = new TreeMap<>();
+        methods.forEach((method, metrics) -> {
+            for (Stage stage : Stage.values()) {
+                latencies.put(method + " " + stage, new StageLatency(metrics.stages[stage.ordinal()]));
+            }
+        });
+        return latencies;
+    }
+
+    /**
+     * @return Recent traced calls, oldest first
+     */
+    @Override
+    public synchronized String[] getRecentTraces() {
+        int count = (int) Math.min(tracesWritten, TRACE_BUFFER);
+        String[] recent = new String[count];
+        for (int i = 0; i < count; i++) {
+            recent[i] = traces[(int) ((tracesWritten - count + i) % TRACE_BUFFER)];
+        }
+        return recent;
+    }
+
+    @Override
+    public double getTraceSampleRate() { return traceSampleRate; }
+
+    @Override
+    public void setTraceSampleRate(double rate) { this.traceSampleRate = Math.max(0.0, Math.min(1.0, rate)); }
+
+    @Override
+    public boolean isEnabled() { return enabled; }
+
+    @Override
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    @Override
+    public void resetStatistics() {
+        methods.clear();
+        expiredCalls.reset();
+        cancelledCalls.reset();
+        rejectedCalls.reset();
+        synchronized (this) {
+            tracesWritten = 0;
+        }
+    }
+
+    // ========================================================
+    // PLAIN-TEXT EXPORT
+    // ========================================================
+    /**
+     * Every counter and stage latency as "name{labels} value"
+     * lines (the Prometheus text format), then the recent traces
+     * as comments.
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append("# TYPE rpc_calls_total counter\n");
+        new TreeMap<>(methods).forEach((method, metrics) ->
+                line(text, "rpc_calls_total", method, null, null, metrics.calls.sum()));
+        text.append("# TYPE rpc_errors_total counter\n");
+        new TreeMap<>(methods).forEach((method, metrics) ->
+                line(text, "rpc_errors_total", method, null, null, metrics.errors.sum()));
+        text.append("# TYPE rpc_stage_latency_micros summary\n");
+        new TreeMap<>(methods).forEach((method, metrics) -> {
+            for (Stage stage : Stage.values()) {
+                LatencyHistogram histogram = metrics.stages[stage.ordinal()];
+                String stageName = stage.name().toLowerCase(Locale.ROOT);
+                line(text, "rpc_stage_latency_micros", method, stageName, "0.5", histogram.getPercentileNanos(50) / 1000.0);
+                line(text, "rpc_stage_latency_micros", method, stageName, "0.99", histogram.getPercentileNanos(99) / 1000.0);
+                line(text, "rpc_stage_latency_micros", method, stageName, "0.999", histogram.getPercentileNanos(99.9) / 1000.0);
+                line(text, "rpc_stage_latency_micros_sum", method, stageName, null,
+                     histogram.getMeanNanos() * histogram.getCount() / 1000.0);
+                line(text, "rpc_stage_latency_micros_count", method, stageName, null, histogram.getCount());
+            }
+        });
+        text.append("# TYPE rpc_expired_calls_total counter\n");
+        text.append("rpc_expired_calls_total ").append(expiredCalls.sum()).append('\n');
+        text.append("# TYPE rpc_cancelled_calls_total counter\n");
+        text.append("rpc_cancelled_calls_total ").append(cancelledCalls.sum()).append('\n');
+        text.append("# TYPE rpc_rejected_calls_total counter\n");
+        text.append("rpc_rejected_calls_total ").append(rejectedCalls.sum()).append('\n');
+        for (String trace : getRecentTraces()) {
+            text.append("# ").append(trace).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static void line(StringBuilder text, String name, String method, String stage, String quantile,
+                             Object value) {
+        text.append(name).append("{method=\"").append(method).append('"');
+        if (stage != null) {
+            text.append(",stage=\"").append(stage).append('"');
+        }
+        if (quantile != null) {
+            text.append(",quantile=\"").append(quantile).append('"');
+        }
+        text.append("} ").append(value instanceof Double
+                ? String.format(Locale.ROOT, "%.3f", (Double) value) : value).append('\n');
+    }
+
+    // ========== ONE METHOD ==========
+    private static final class MethodMetrics {
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+
+        MethodMetrics() {
+            for (int i = 0; i < stages.length; i++) {
+                stages[i] = new LatencyHistogram();
+            }
+        }
+    }
+
+    // ========================================================
+    // STAGE LATENCY SNAPSHOT
+    // ========================================================
+    /**
+     * Point-in-time latency summary for one method stage.
+     * Exposed over JMX as CompositeData.
+     */
+    public static class StageLatency {
+        private final long count;
+        private final double meanMicros;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double p999Micros;
+
+        StageLatency(LatencyHistogram histogram) {
+            this.count = histogram.getCount();
+            this.meanMicros = histogram.getMeanNanos() / 1000.0;
+            this.p50Micros = histogram.getPercentileNanos(50) / 1000.0;
+            this.p99Micros = histogram.getPercentileNanos(99) / 1000.0;
+            this.p999Micros = histogram.getPercentileNanos(99.9) / 1000.0;
+        }
+
+        public long getCount() { return count; }
+        public double getMeanMicros() { return meanMicros; }
+        public double getP50Micros() { return p50Micros; }
+        public double getP99Micros() { return p99Micros; }
+        public double getP999Micros() { return p999Micros; }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus",
+                    count, meanMicros, p50Micros, p99Micros, p999Micros);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package RPC.RPCWeatherService;
+
+import java.util.Map;
+
+/**
+ * ============================================================
+ * RPC METRICS MANAGEMENT INTERFACE
+ * ============================================================
+ * JMX view of one WeatherServer. Registered under
+ * "RPC.RPCWeatherService:type=WeatherServer,port=<port>".
+ *
+ * Exposes:
+ *   - Calls and errors per method
+ *   - Per-method latency of each stage, keyed "method stage"
+ *     (QUEUE, DECODE, EXECUTE, ENCODE)
+ *   - Calls dropped past their deadline or cancelled, and calls
+ *     refused because the call queue was full
+ *   - The most recent sampled traces
+ * ============================================================
+ */
+public interface RPCMetricsMXBean {
+
+    // ========== COUNTERS ==========
+    long getCallsTotal();
+    long getErrorsTotal();
+    long getExpiredCalls();
+    long getCancelledCalls();
+    long getRejectedCalls();
+
+    // ========== PER METHOD ==========
+    Map<String, Long> getMethodCalls();
+    Map<String, Long> getMethodErrors();
+    Map<String, RPCMetrics.StageLatency> getStageLatencies();
+
+    // ========== TRACING ==========
+    String[] getRecentTraces();
+    double getTraceSampleRate();
+    void setTraceSampleRate(double rate);
+
+    // ========== SWITCHES ==========
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+
+    // ========== OPERATIONS ==========
+    void resetStatistics();
+}
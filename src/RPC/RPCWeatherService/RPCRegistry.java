@@ -0,0 +1,200 @@
+package RPC.RPCWeatherService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ============================================================
+ * RPC REGISTRY - SERVER-SIDE METHOD DISPATCH
+ * ============================================================
+ * Maps RPC method names to service implementations. Services
+ * are registered by interface; every interface method is
+ * resolved once into a MethodHandle bound to the implementation
+ * and adapted to take an Object[] of parameters, so a call is a
+ * hash lookup, a parameter check and one handle invocation.
+ *
+ * Each method is registered under two names:
+ *   - "getWeather"                 (plain, must be unique)
+ *   - "WeatherService.getWeather"  (qualified by interface)
+ *
+ * Overloaded methods are rejected: RPC calls carry only a name.
+ * Methods with large results can be marked compressible, so
+ * their responses are deflated on connections that support it.
+ * Exceptions thrown by a service become error responses.
+ * ============================================================
+ */
+public class RPCRegistry {
+
+    private static final Object[] NO_PARAMETERS = new Object[0];
+
+    // ========== HANDLER TABLE ==========
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+
+    // ========================================================
+    // REGISTRATION
+    // ========================================================
+    /**
+     * Register every method of a service interface.
+     *
+     * @param serviceInterface Public interface describing the remote methods
+     * @param implementation Object that serves the calls
+     * @throws IllegalArgumentException if the interface overloads a method
+     *         or a method name is already registered
+     */
+    public synchronized <T> void register(Class<T> serviceInterface, T implementation) {
+        if (!serviceInterface.isInterface() || !Modifier.isPublic(serviceInterface.getModifiers())) {
+            throw new IllegalArgumentException(serviceInterface.getName() + " is not a public interface");
+        }
+        Map<String, Handler> resolved = new HashMap<>();
+        for (Method method : serviceInterface.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            String qualified = serviceInterface.getSimpleName() + "." + method.getName();
+            Handler handler = new Handler(qualified, method, implementation);
+            if (resolved.put(method.getName(), handler) != null) {
+                throw new IllegalArgumentException("Overloaded RPC method: " + qualified);
+            }
+            resolved.put(qualified, handler);
+        }
+        for (String name : resolved.keySet()) {
+            if (handlers.containsKey(name)) {
+                throw new IllegalArgumentException("RPC method already registered: " + name);
+            }
+        }
+        handlers.putAll(resolved);
+    }
+
+    /**
+     * Names of all registered methods (plain and qualified).
+     */
+    public Set<String> getMethodNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(handlers.keySet()));
+    }
+
+    /**
+     * @return "Interface.method" for a registered plain or qualified
+     *         name, or null if the name is not registered
+     */
+    public String getQualifiedName(String methodName) {
+        Handler handler = handlers.get(methodName);
+        return handler != null ? handler.name : null;
+    }
+
+    /**
+     * Mark a method's responses as worth compressing (large,
+     * repetitive results such as city lists). Applies to both
+     * names of the method.
+     *
+     * @throws IllegalArgumentException if the method is not registered
+     */
+    public void setCompressed(String methodName, boolean compressed) {
+        Handler handler = handlers.get(methodName);
+        if (handler == null) {
+            throw new IllegalArgumentException("Unknown RPC method: " + methodName);
+        }
+        handler.compressed = compressed;
+    }
+
+    /**
+     * @return Whether responses of the method may be compressed
+     */
+    public boolean isCompressed(String methodName) {
+        Handler handler = handlers.get(methodName);
+        return handler != null && handler.compressed;
+    }
+
+    // ========================================================
+    // DISPATCH
+    // ========================================================
+    /**
+     * Execute a request and wrap the outcome in a response.
+     */
+    public RPCResponse invoke(RPCRequest request) {
+        Handler handler = handlers.get(request.getMethodName());
+        if (handler == null) {
+            return new RPCResponse(false, "Unknown method: " + request.getMethodName());
+        }
+        Object[] params = request.getParameters() != null ? request.getParameters() : NO_PARAMETERS;
+        String mismatch = handler.checkParameters(params);
+        if (mismatch != null) {
+            return new RPCResponse(false, mismatch);
+        }
+        try {
+            return new RPCResponse(handler.invoke(params));
+        } catch (Throwable t) {
+            String message = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+            return new RPCResponse(false, message);
+        }
+    }
+
+    // ========================================================
+    // HANDLER - ONE RESOLVED METHOD
+    // ========================================================
+    private static final class Handler {
+        private final String name;
+        private final Class<?>[] parameterTypes;   // Primitives boxed for isInstance checks
+        private final boolean[] primitive;
+        private final MethodHandle handle;          // (Object[])Object, bound to the implementation
+        private volatile boolean compressed;
+
+        Handler(String name, Method method, Object implementation) {
+            this.name = name;
+            Class<?>[] declared = method.getParameterTypes();
+            this.parameterTypes = new Class<?>[declared.length];
+            this.primitive = new boolean[declared.length];
+            for (int i = 0; i < declared.length; i++) {
+                primitive[i] = declared[i].isPrimitive();
+                parameterTypes[i] = primitive[i] ? MethodType.methodType(declared[i]).wrap().returnType()
+                                                 : declared[i];
+            }
+            try {
+                this.handle = MethodHandles.publicLookup().unreflect(method)
+                        .bindTo(implementation)
+                        .asSpreader(Object[].class, declared.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot access RPC method " + name, e);
+            }
+        }
+
+        /**
+         * @return null if the parameters fit, otherwise an error message
+         */
+        String checkParameters(Object[] params) {
+            boolean fits = params.length == parameterTypes.length;
+            for (int i = 0; fits && i < params.length; i++) {
+                fits = params[i] == null ? !primitive[i] : parameterTypes[i].isInstance(params[i]);
+            }
+            if (fits) {
+                return null;
+            }
+            StringBuilder expected = new StringBuilder();
+            for (Class<?> type : parameterTypes) {
+                expected.append(expected.length() > 0 ? ", " : "").append(type.getSimpleName());
+            }
+            return "Method " + name + " expects (" + expected + "), got " + describe(params);
+        }
+
+        Object invoke(Object[] params) throws Throwable {
+            return (Object) handle.invokeExact(params);
+        }
+
+        private static String describe(Object[] params) {
+            String[] types = new String[params.length];
+            for (int i = 0; i < params.length; i++) {
+                types[i] = params[i] == null ? "null" : params[i].getClass().getSimpleName();
+            }
+            return "(" + String.join(", ", types) + ")";
+        }
+    }
+}
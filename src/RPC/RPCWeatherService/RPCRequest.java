@@ -8,21 +8,69 @@ import java.io.Serializable;
  * ============================================================
  * Represents a Remote Procedure Call request.
  * Contains the method name and parameters to be executed on server.
+ * 
+ * The request ID correlates responses on a persistent connection,
+ * where many calls can be in flight and answered out of order.
+ * One-shot requests use ID 0.
+ * 
+ * A request may carry a timeout: how long the caller will wait,
+ * counted from when it was sent. The server turns it into a
+ * local deadline on receipt (no clock sync needed) and drops the
+ * call if it has not started by then. A request for
+ * CANCEL_METHOD is not a call: it tells the server that the
+ * caller gave up on the call with the same request ID.
+ * A non-zero trace ID marks a sampled call; the server records
+ * its stage timings and passes the ID on (see RPCMetrics).
  * ============================================================
  */
 public class RPCRequest implements Serializable {
     
+    // Pinned to the original class hash so older clients stay compatible
+    private static final long serialVersionUID = 7024272867200014760L;
+    
+    /** Method name of a cancellation; never a valid Java method name. */
+    public static final String CANCEL_METHOD = "$cancel";
+    
     // ========== REQUEST ATTRIBUTES ==========
+    private long requestId;         // Correlation ID echoed in the response
     private String methodName;      // Name of the remote method to call
     private Object[] parameters;    // Parameters for the method
+    private long timeoutMillis;     // Caller's remaining wait when sent (0 = no deadline)
+    private long traceId;           // Sampled trace (0 = not traced)
 
-    // ========== CONSTRUCTOR ==========
+    // ========== CONSTRUCTORS ==========
     public RPCRequest(String methodName, Object[] parameters) {
+        this(0L, methodName, parameters);
+    }
+
+    public RPCRequest(long requestId, String methodName, Object[] parameters) {
+        this(requestId, methodName, parameters, 0L);
+    }
+
+    public RPCRequest(long requestId, String methodName, Object[] parameters, long timeoutMillis) {
+        this(requestId, methodName, parameters, timeoutMillis, 0L);
+    }
+
+    public RPCRequest(long requestId, String methodName, Object[] parameters, long timeoutMillis, long traceId) {
+        this.requestId = requestId;
         this.methodName = methodName;
         this.parameters = parameters;
+        this.timeoutMillis = timeoutMillis;
+        this.traceId = traceId;
+    }
+
+    /**
+     * @return Request telling the server to abandon the call with this ID
+     */
+    public static RPCRequest cancel(long requestId) {
+        return new RPCRequest(requestId, CANCEL_METHOD, null);
     }
 
     // ========== GETTER METHODS ==========
+    public long getRequestId() { return requestId; }
     public String getMethodName() { return methodName; }
     public Object[] getParameters() { return parameters; }
+    public long getTimeoutMillis() { return timeoutMillis; }
+    public long getTraceId() { return traceId; }
+    public boolean isCancel() { return CANCEL_METHOD.equals(methodName); }
 }
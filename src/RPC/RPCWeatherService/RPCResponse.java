@@ -8,11 +8,16 @@ import java.io.Serializable;
  * ============================================================
  * Represents a Remote Procedure Call response.
  * Contains the result data and success/error status.
+ * Carries the ID of the request it answers.
  * ============================================================
  */
 public class RPCResponse implements Serializable {
     
+    // Pinned to the original class hash so older clients stay compatible
+    private static final long serialVersionUID = 3386801142073465337L;
+    
     // ========== RESPONSE ATTRIBUTES ==========
+    private long requestId;         // ID of the request this response answers
     private boolean success;        // Whether the RPC call was successful
     private Object result;          // The result data from the method call
     private String errorMessage;    // Error message if call failed
@@ -33,7 +38,9 @@ public class RPCResponse implements Serializable {
         this.errorMessage = errorMessage;
     }
 
-    // ========== GETTER METHODS ==========
+    // ========== GETTER / SETTER METHODS ==========
+    public long getRequestId() { return requestId; }
+    public void setRequestId(long requestId) { this.requestId = requestId; }
     public boolean isSuccess() { return success; }
     public Object getResult() { return result; }
     public String getErrorMessage() { return errorMessage; }
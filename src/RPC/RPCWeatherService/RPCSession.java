@@ -0,0 +1,332 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.net.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ============================================================
+ * RPC SESSION - SERVER SIDE OF ONE CLIENT CONNECTION
+ * ============================================================
+ * Lets a service talk back to the client that called it, much
+ * like RMI's RemoteServer.getClientHost(): while a call runs,
+ * RPCSession.current() returns the caller's session.
+ *
+ * push() sends an unsolicited message to the client as an
+ * RPCResponse with request ID RPCConnection.PUSH_REQUEST_ID,
+ * which the client hands to its push listener. push(streamId,
+ * message) instead answers an earlier call again, forming a
+ * server stream (see RPCConnection.openStream).
+ *
+ * Outbox: responses and pushes are never written by the thread
+ * that produces them. They are queued, in order, and one writer
+ * (a virtual thread per session, started with the first message)
+ * writes them, so a client that stops reading blocks only its
+ * own writer. pushLatest() replaces a message with the same key
+ * that is still queued (conflation: a slow client gets the
+ * newest value, not every value), so those are bounded by their
+ * keys. A session with more than -Drpc.session.outbox other
+ * messages queued (default 4096) is too slow to keep up and is
+ * closed.
+ * currentTraceId() is the trace ID of a sampled call, which
+ * RPCConnection copies into calls made while serving it.
+ * ============================================================
+ */
+public final class RPCSession {
+
+    private static final ThreadLocal<CallContext> CURRENT = ThreadLocal.withInitial(CallContext::new);
+    private static final int OUTBOX_CAPACITY = Integer.getInteger("rpc.session.outbox", 4096);
+
+    // ========== SESSION STATE ==========
+    private final Socket socket;
+    private final RPCCodec codec;
+    private final int readTimeoutMillis;
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private volatile boolean open = true;
+
+    // ========== OUTBOX (guarded by outboxLock) ==========
+    private final LinkedHashMap<Object, Outgoing> outbox = new LinkedHashMap<>();   // Key -> message, in order
+    private final ReentrantLock outboxLock = new ReentrantLock();
+    private final Condition outboxReady = outboxLock.newCondition();
+    private int unkeyed;   // Queued messages that count against OUTBOX_CAPACITY
+    private boolean writerStarted;
+
+    // ========== CONSTRUCTOR ==========
+    RPCSession(Socket socket, RPCCodec codec) throws SocketException {
+        this.socket = socket;
+        this.codec = codec;
+        this.readTimeoutMillis = socket.getSoTimeout();
+    }
+
+    // ========================================================
+    // CURRENT CALL
+    // ========================================================
+    /**
+     * @return The session of the call running on this thread, or
+     *         null outside a server call (e.g. in-process use)
+     */
+    public static RPCSession current() {
+        return CURRENT.get().session;
+    }
+
+    /**
+     * @return Request ID of the call running on this thread; pushes
+     *         with this ID form a stream answering that call
+     */
+    public static long currentRequestId() {
+        return CURRENT.get().requestId;
+    }
+
+    /**
+     * @return Trace ID of the call running on this thread, or 0 if
+     *         it is not traced (or outside a server call)
+     */
+    public static long currentTraceId() {
+        return CURRENT.get().traceId;
+    }
+
+    /**
+     * Run an action once the current call's response has been
+     * written, e.g. to start a stream only after its first answer.
+     * Skipped if the call fails.
+     */
+    public static void afterResponse(Runnable action) {
+        CallContext call = CURRENT.get();
+        if (call.session == null) {
+            throw new IllegalStateException("Not inside a server call");
+        }
+        call.afterResponse = action;
+    }
+
+    static void beginCall(RPCSession session, long requestId, long traceId) {
+        CallContext call = CURRENT.get();
+        call.session = session;
+        call.requestId = requestId;
+        call.traceId = traceId;
+        call.afterResponse = null;
+    }
+
+    /**
+     * @return The action registered with afterResponse, if any
+     */
+    static Runnable endCall() {
+        CallContext call = CURRENT.get();
+        Runnable afterResponse = call.afterResponse;
+        call.session = null;
+        call.traceId = 0;
+        call.afterResponse = null;
+        return afterResponse;
+    }
+
+    // ========== SERVER PUSH (queued, never blocks) ==========
+    public void push(Object message) throws IOException {
+        push(RPCConnection.PUSH_REQUEST_ID, message);
+    }
+
+    /**
+     * Push a message on the stream of an earlier call.
+     *
+     * @throws IOException if the session is closed or its outbox is full
+     */
+    public void push(long streamId, Object message) throws IOException {
+        RPCResponse response = pushResponse(streamId, message);
+        enqueue(response, new Outgoing(response, false, false, null));
+    }
+
+    /**
+     * Push a message, replacing any message queued under the same
+     * key that has not been written yet (it keeps its place).
+     *
+     * @param key Identifies what the message is about, e.g. a
+     *            subscriber's city; compared with equals()
+     * @return true if a queued message was replaced
+     * @throws IOException if the session is closed or its outbox is full
+     */
+    public boolean pushLatest(Object key, long streamId, Object message) throws IOException {
+        return enqueue(key, new Outgoing(pushResponse(streamId, message), false, true, null)) != null;
+    }
+
+    private static RPCResponse pushResponse(long streamId, Object message) {
+        RPCResponse response = new RPCResponse(message);
+        response.setRequestId(streamId);
+        return response;
+    }
+
+    /**
+     * Queue the response to a call.
+     *
+     * @param done Run once the response is written, or dropped
+     *             because the session closed
+     */
+    void respond(RPCResponse response, boolean compressible, Runnable done) {
+        try {
+            enqueue(response, new Outgoing(response, compressible, false, done));
+        } catch (IOException e) {
+            done.run(); // Client gone or too slow
+        }
+    }
+
+    // ========================================================
+    // OUTBOX
+    // ========================================================
+    /**
+     * @return The message replaced under the same key, or null
+     */
+    private Outgoing enqueue(Object key, Outgoing message) throws IOException {
+        outboxLock.lock();
+        try {
+            if (!open) {
+                throw new IOException("Session closed");
+            }
+            if (message.keyed || unkeyed < OUTBOX_CAPACITY) {
+                Outgoing replaced = outbox.put(key, message);
+                if (!message.keyed) {
+                    unkeyed++;
+                }
+                if (!writerStarted) {
+                    writerStarted = true;
+                    Thread.ofVirtual().name("rpc-session-writer").start(this::writeLoop);
+                }
+                outboxReady.signal();
+                return replaced;
+            }
+        } finally {
+            outboxLock.unlock();
+        }
+        abort();
+        throw new IOException("Session outbox full: client is not reading");
+    }
+
+    private void writeLoop() {
+        while (true) {
+            Outgoing next;
+            outboxLock.lock();
+            try {
+                while (open && outbox.isEmpty()) {
+                    outboxReady.awaitUninterruptibly();
+                }
+                if (!open) {
+                    codec.release(); // close() dropped whatever was left; nothing writes after us
+                    return;
+                }
+                Iterator<Outgoing> first = outbox.values().iterator();
+                next = first.next();
+                first.remove();
+                if (!next.keyed) {
+                    unkeyed--;
+                }
+            } finally {
+                outboxLock.unlock();
+            }
+            try {
+                codec.writeResponse(next.response, next.compressible);
+            } catch (IOException e) {
+                abort(); // Client went away; the reader loop sees the closed socket
+            } finally {
+                if (next.done != null) {
+                    next.done.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Close the session and its socket: the client cannot be
+     * written to.
+     */
+    private void abort() {
+        close();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    // ========== STREAM LIFECYCLE ==========
+    /**
+     * A client with an open stream may send nothing for a long
+     * time, so the server's idle read timeout is suspended until
+     * its last stream ends.
+     */
+    public void streamOpened() {
+        if (openStreams.getAndIncrement() == 0) {
+            setReadTimeout(0);
+        }
+    }
+
+    public void streamClosed() {
+        if (openStreams.decrementAndGet() == 0) {
+            setReadTimeout(readTimeoutMillis);
+        }
+    }
+
+    public boolean hasOpenStreams() { return openStreams.get() > 0; }
+
+    private void setReadTimeout(int millis) {
+        try {
+            socket.setSoTimeout(millis);
+        } catch (SocketException e) {
+            // Socket already closed
+        }
+    }
+
+    public boolean isOpen() { return open; }
+
+    /**
+     * Stop writing; queued messages are dropped (their done
+     * actions still run). The codec is released by the writer as
+     * it stops (it may still be finishing a write), or here if
+     * there never was one.
+     */
+    void close() {
+        Outgoing[] dropped;
+        boolean releaseNow;
+        outboxLock.lock();
+        try {
+            releaseNow = open && !writerStarted;
+            open = false;
+            dropped = outbox.values().toArray(new Outgoing[0]);
+            outbox.clear();
+            unkeyed = 0;
+            outboxReady.signal();
+        } finally {
+            outboxLock.unlock();
+        }
+        for (Outgoing message : dropped) {
+            if (message.done != null) {
+                message.done.run();
+            }
+        }
+        if (releaseNow) {
+            codec.release();
+        }
+    }
+
+    // ========== ONE QUEUED MESSAGE ==========
+    private static final class Outgoing {
+        final RPCResponse response;
+        final boolean compressible;
+        final boolean keyed;         // Sent with pushLatest
+        final Runnable done;         // Responses only
+
+        Outgoing(RPCResponse response, boolean compressible, boolean keyed, Runnable done) {
+            this.response = response;
+            this.compressible = compressible;
+            this.keyed = keyed;
+            this.done = done;
+        }
+    }
+
+    // ========== PER-THREAD CALL STATE (reused, no allocation per call) ==========
+    private static final class CallContext {
+        RPCSession session;
+        long requestId;
+        long traceId;
+        Runnable afterResponse;
+    }
+}
@@ -0,0 +1,163 @@
+package RPC.RPCWeatherService;
+
+import RMICalculator.RMICalImplement;
+import RMICalculator.RMICalInterface;
+import RMIHelloWorld.RMI_Implementation;
+import RMIHelloWorld.RMI_Interface;
+
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * RPC STUB BENCHMARK - TYPED RPC STUBS VS JAVA RMI
+ * ============================================================
+ * Serves the same objects (the RMICalculator and RMIHelloWorld
+ * implementations) twice in one JVM, over loopback:
+ *
+ *   - RMI:        the RMI registry and RMI's own stubs
+ *   - RPC STUB:   a WeatherServer registry, called through
+ *                 RPCClient stubs of the same interfaces on one
+ *                 pipelined RPCConnection (binary codec)
+ *   - RPC MANUAL: the same connection, hand-built calls and casts
+ *                 (shows what the stub itself costs)
+ *
+ * Latency:    one caller, add() and hello() alternately, one
+ *             call at a time; mean / p50 / p99 per call
+ * Throughput: many callers sharing one stub for a fixed time
+ * Each measurement runs ROUNDS times; the last round is reported.
+ *
+ * Usage:
+ *   java RPC.RPCWeatherService.StubBenchmark [calls] [threads] [seconds]
+ *   (defaults: 20000 calls, 16 threads, 5 s)
+ *   -Dweather.bench.rmi.port=1199   Port of the benchmark's RMI registry
+ * ============================================================
+ */
+public class StubBenchmark {
+
+    private static final int RMI_PORT = Integer.getInteger("weather.bench.rmi.port", 1199);
+    private static final int ROUNDS = 3;
+
+    // ========== ONE WAY OF CALLING ==========
+    private interface Caller {
+        long call(int i) throws Exception;
+    }
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        if (System.getProperty("weather.verbose") == null) {
+            System.setProperty("weather.verbose", "false");
+        }
+
+        // RMI side
+        RMICalImplement calculator = new RMICalImplement();
+        RMI_Implementation hello = new RMI_Implementation();
+        Registry rmiRegistry = LocateRegistry.createRegistry(RMI_PORT);
+        rmiRegistry.rebind("calServer", calculator);
+        rmiRegistry.rebind("helloServer", hello);
+        Registry lookup = LocateRegistry.getRegistry("localhost", RMI_PORT);
+        RMICalInterface rmiCalculator = (RMICalInterface) lookup.lookup("calServer");
+        RMI_Interface rmiHello = (RMI_Interface) lookup.lookup("helloServer");
+
+        // RPC side: the same objects
+        WeatherServer server = new WeatherServer(0, WeatherServer.ExecutionMode.FIXED_POOL);
+        server.getRegistry().register(RMICalInterface.class, calculator);
+        server.getRegistry().register(RMI_Interface.class, hello);
+        server.start();
+        RPCConnection connection = new RPCConnection("localhost", server.getPort());
+        RMICalInterface rpcCalculator = RPCClient.create(RMICalInterface.class, connection);
+        RMI_Interface rpcHello = RPCClient.create(RMI_Interface.class, connection);
+
+        Caller[] callers = {
+            i -> (i & 1) == 0 ? rmiCalculator.add(i, 1) : rmiHello.hello("Kandy").length(),
+            i -> (i & 1) == 0 ? rpcCalculator.add(i, 1) : rpcHello.hello("Kandy").length(),
+            i -> (i & 1) == 0
+                    ? (Integer) connection.call("add", new Object[]{i, 1}).getResult()
+                    : ((String) connection.call("hello", new Object[]{"Kandy"}).getResult()).length()
+        };
+        String[] names = {"RMI", "RPC STUB", "RPC MANUAL"};
+
+        System.out.println("============================================");
+        System.out.println("   RPC STUB vs RMI BENCHMARK");
+        System.out.println("============================================");
+
+        // Later rounds run with warmed-up JIT; the last round is reported
+        System.out.println("Latency (" + calls + " sequential calls):");
+        double[][] latency = new double[callers.length][];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int c = 0; c < callers.length; c++) {
+                latency[c] = measureLatency(callers[c], calls);
+            }
+        }
+        for (int c = 0; c < callers.length; c++) {
+            System.out.printf("   %-10s  mean %6.1f us | p50 %6.1f us | p99 %6.1f us%n",
+                              names[c], latency[c][0], latency[c][1], latency[c][2]);
+        }
+
+        System.out.println("Throughput (" + threads + " callers, " + seconds + " s):");
+        double[] throughput = new double[callers.length];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int c = 0; c < callers.length; c++) {
+                throughput[c] = measureThroughput(callers[c], threads, seconds);
+            }
+        }
+        for (int c = 0; c < callers.length; c++) {
+            System.out.printf("   %-10s  %9.0f calls/s%n", names[c], throughput[c]);
+        }
+        System.out.println("============================================");
+
+        connection.close();
+        server.stop();
+        System.exit(0); // RMI exports keep the JVM alive
+    }
+
+    // ========== LATENCY: ONE CALL AT A TIME ==========
+    /**
+     * @return {mean, p50, p99} in microseconds
+     */
+    private static double[] measureLatency(Caller caller, int calls) throws Exception {
+        long[] nanos = new long[calls];
+        long sink = 0;
+        long total = 0;
+        for (int i = 0; i < calls; i++) {
+            long start = System.nanoTime();
+            sink += caller.call(i);
+            nanos[i] = System.nanoTime() - start;
+            total += nanos[i];
+        }
+        if (sink == 42) {
+            System.out.print(""); // Keep the results alive
+        }
+        Arrays.sort(nanos);
+        return new double[]{total / 1000.0 / calls, nanos[calls / 2] / 1000.0, nanos[(int) (calls * 0.99)] / 1000.0};
+    }
+
+    // ========== THROUGHPUT: MANY CALLERS ==========
+    private static double measureThroughput(Caller caller, int threads, int seconds) throws InterruptedException {
+        LongAdder completed = new LongAdder();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; System.nanoTime() < end; i++) {
+                        caller.call(i);
+                        completed.increment();
+                    }
+                } catch (Exception e) {
+                    System.err.println("Call failed: " + e);
+                }
+            }, "stub-bench-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return completed.sum() / (double) seconds;
+    }
+}
@@ -0,0 +1,110 @@
+package RPC.RPCWeatherService;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * RPC SUBSCRIPTION LOAD TEST
+ * ============================================================
+ * Starts a WeatherServer on a free local port and connects many
+ * subscribers, each on its own connection, subscribed to every
+ * city. A share of them are slow consumers that stall on every
+ * update, so the server has to conflate for them.
+ *
+ * Reports:
+ *   - Time to open all subscriptions
+ *   - Updates received per second, per fast and slow subscriber
+ *   - Updates the server sent and conflated
+ *
+ * The response cache TTL and poll interval are shortened (unless
+ * set) so values change often enough to stream.
+ *
+ * Usage:
+ *   java RPC.RPCWeatherService.SubscribeLoadTest [subscribers] [seconds] [slowPercent]
+ *   (defaults: 2000 subscribers, 20 seconds, 10% slow)
+ * ============================================================
+ */
+public class SubscribeLoadTest {
+
+    // ========== TEST CONFIGURATION ==========
+    private static final String HOST = "localhost";
+    private static final long SLOW_CONSUMER_STALL_MS = 500;
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws Exception {
+        int subscribers = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int slowPercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        setDefault("weather.verbose", "false");
+        setDefault("weather.cache.ttl.ms", "500");
+        setDefault("weather.subscribe.poll.ms", "100");
+
+        // One thread per connection, so every subscriber is served at once
+        WeatherServer server = new WeatherServer(0, WeatherServer.ExecutionMode.VIRTUAL_THREADS);
+        server.start();
+        String[] cities = server.getWeatherService().getAllCities();
+
+        System.out.println("============================================");
+        System.out.println("   RPC SUBSCRIPTION LOAD TEST");
+        System.out.println("   " + subscribers + " subscribers (" + slowPercent + "% slow) x "
+                           + cities.length + " cities, " + seconds + " s");
+        System.out.println("============================================");
+
+        RPCConnection[] connections = new RPCConnection[subscribers];
+        LongAdder fastUpdates = new LongAdder();
+        LongAdder slowUpdates = new LongAdder();
+        int slowCount = subscribers * slowPercent / 100;
+        long start = System.nanoTime();
+        for (int i = 0; i < subscribers; i++) {
+            boolean slow = i < slowCount;
+            connections[i] = new RPCConnection(HOST, server.getPort());
+            RPCConnection.Stream stream = connections[i].openStream("subscribe", new Object[]{cities, 0L}, update -> {
+                if (slow) {
+                    slowUpdates.increment();
+                    sleep(SLOW_CONSUMER_STALL_MS); // Stalls the reader, so the socket backs up
+                } else {
+                    fastUpdates.increment();
+                }
+            });
+            if (!stream.getOpened().get().isSuccess()) {
+                throw new IllegalStateException("Subscribe failed: " + stream.getOpened().get().getErrorMessage());
+            }
+        }
+        long subscribedNanos = System.nanoTime() - start;
+
+        long fastBefore = fastUpdates.sum();
+        long slowBefore = slowUpdates.sum();
+        sleep(seconds * 1000L);
+        long fast = fastUpdates.sum() - fastBefore;
+        long slow = slowUpdates.sum() - slowBefore;
+
+        WeatherServiceImpl service = (WeatherServiceImpl) server.getWeatherService();
+        System.out.printf("Subscribed %d in %.2f s (%d active on server)%n",
+                          subscribers, subscribedNanos / 1e9, service.getSubscriberCount());
+        System.out.printf("Received   %.0f updates/s | fast %.2f/s each | slow %.2f/s each%n",
+                          (fast + slow) / (double) seconds,
+                          subscribers > slowCount ? fast / (double) seconds / (subscribers - slowCount) : 0.0,
+                          slowCount > 0 ? slow / (double) seconds / slowCount : 0.0);
+        System.out.printf("Server     %d updates sent, %d conflated%n",
+                          service.getSentUpdates(), service.getConflatedUpdates());
+
+        for (RPCConnection connection : connections) {
+            connection.close();
+        }
+        server.stop();
+    }
+
+    private static void setDefault(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
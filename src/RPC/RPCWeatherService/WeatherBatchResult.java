@@ -0,0 +1,47 @@
+package RPC.RPCWeatherService;
+
+import java.io.Serializable;
+
+/**
+ * ============================================================
+ * WEATHER BATCH RESULT CLASS
+ * ============================================================
+ * Result of getWeatherBatch: one slot per requested city, in
+ * request order. Each slot holds either the weather data or the
+ * error message for that city, so one bad city name does not
+ * fail the whole batch.
+ * ============================================================
+ */
+public class WeatherBatchResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // ========== BATCH ATTRIBUTES ==========
+    private final WeatherData[] weather;   // null where the lookup failed
+    private final String[] errors;         // null where the lookup succeeded
+
+    // ========== CONSTRUCTOR ==========
+    public WeatherBatchResult(WeatherData[] weather, String[] errors) {
+        if (weather.length != errors.length) {
+            throw new IllegalArgumentException("Weather and error slots must match");
+        }
+        this.weather = weather;
+        this.errors = errors;
+    }
+
+    // ========== GETTER METHODS ==========
+    public int size() { return weather.length; }
+    public boolean isSuccess(int index) { return errors[index] == null; }
+    public WeatherData getWeather(int index) { return weather[index]; }
+    public String getError(int index) { return errors[index]; }
+
+    public int getSuccessCount() {
+        int count = 0;
+        for (String error : errors) {
+            if (error == null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,171 @@
+package RPC.RPCWeatherService;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * ============================================================
+ * WEATHER CACHE - PER-CITY RESPONSE CACHE
+ * ============================================================
+ * Keeps the latest WeatherData per city for a fixed TTL. Every
+ * cached value is also pre-encoded in the binary wire format,
+ * so serving a hit copies bytes instead of encoding fields.
+ *
+ * Refresh-ahead: once an entry is older than
+ * refreshAhead x TTL, the next hit schedules one background
+ * reload and keeps serving the current value, so hot cities
+ * are reloaded before they expire and callers rarely wait.
+ * Expired entries are reloaded by the caller; concurrent
+ * callers for the same city wait for a single reload.
+ *
+ * A change listener is told the city name whenever a cached
+ * value is replaced by a fresh one (used to revoke leases).
+ *
+ * Configuration (system properties):
+ *   -Dweather.cache.ttl.ms=5000        TTL (0 disables the cache)
+ *   -Dweather.cache.refresh.ahead=0.8  Fraction of TTL before refresh
+ * ============================================================
+ */
+public class WeatherCache {
+
+    // ========== CONFIGURATION ==========
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final Function<String, WeatherData> loader;
+    private volatile Consumer<String> changeListener = city -> { };
+
+    // ========== CACHE STATE ==========
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "weather-cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // ========== STATISTICS ==========
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    // ========== CONSTRUCTORS ==========
+    /**
+     * @param ttlMillis How long a value may be served (0 disables caching)
+     * @param refreshAhead Fraction of the TTL after which a hit triggers a background reload
+     * @param loader Produces fresh weather for a city, or null if the city is unknown
+     */
+    public WeatherCache(long ttlMillis, double refreshAhead, Function<String, WeatherData> loader) {
+        if (ttlMillis < 0 || refreshAhead <= 0 || refreshAhead > 1) {
+            throw new IllegalArgumentException("TTL must be >= 0 and refresh-ahead in (0, 1]");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.refreshAfterNanos = (long) (ttlNanos * refreshAhead);
+        this.loader = loader;
+    }
+
+    public static WeatherCache fromSystemProperties(Function<String, WeatherData> loader) {
+        return new WeatherCache(Long.getLong("weather.cache.ttl.ms", 5_000L),
+                                Double.parseDouble(System.getProperty("weather.cache.refresh.ahead", "0.8")),
+                                loader);
+    }
+
+    // ========================================================
+    // LOOKUP
+    // ========================================================
+    /**
+     * @return Cached or freshly loaded weather, or null if the city is unknown
+     */
+    public WeatherData get(String city) {
+        if (ttlNanos == 0 || city == null) {
+            return loader.apply(city);
+        }
+        long now = System.nanoTime();
+        Entry entry = entries.get(city);
+        if (entry != null) {
+            long age = now - entry.loadedNanos;
+            if (age < ttlNanos) {
+                hits.increment();
+                if (age >= refreshAfterNanos && entry.refreshing.compareAndSet(false, true)) {
+                    refreshes.increment();
+                    refresher.execute(() -> reload(city));
+                }
+                return entry.weather;
+            }
+        }
+
+        // Missing or expired: one caller reloads, the others wait for it
+        misses.increment();
+        Entry loaded = entries.compute(city, (key, current) ->
+                current != null && now - current.loadedNanos < ttlNanos ? current : load(key));
+        if (entry != null && loaded != entry) {
+            changeListener.accept(city);
+        }
+        return loaded != null ? loaded.weather : null;
+    }
+
+    /**
+     * @return Nanoseconds until this value of the city expires, or
+     *         0 if it is no longer the cached value
+     */
+    public long remainingNanos(String city, WeatherData weather) {
+        Entry entry = city != null ? entries.get(city) : null;
+        if (entry == null || entry.weather != weather) {
+            return 0;
+        }
+        return Math.max(0, entry.loadedNanos + ttlNanos - System.nanoTime());
+    }
+
+    public long getTtlNanos() { return ttlNanos; }
+
+    /**
+     * Called with the city name after its cached value is replaced,
+     * on the refresh thread or a caller's thread, so it must not block.
+     */
+    public void setChangeListener(Consumer<String> listener) {
+        this.changeListener = listener;
+    }
+
+    private void reload(String city) {
+        Entry fresh = load(city);
+        if (fresh != null) {
+            entries.put(city, fresh);
+        } else {
+            entries.remove(city);
+        }
+        changeListener.accept(city);
+    }
+
+    private Entry load(String city) {
+        WeatherData weather = loader.apply(city);
+        if (weather == null) {
+            return null;
+        }
+        weather.setEncodedForm(BinaryCodec.encodeValue(weather));
+        return new Entry(weather, System.nanoTime());
+    }
+
+    // ========== STATISTICS GETTERS ==========
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getRefreshes() { return refreshes.sum(); }
+    public int size() { return entries.size(); }
+
+    // ========================================================
+    // ENTRY - ONE CACHED CITY
+    // ========================================================
+    private static final class Entry {
+        final WeatherData weather;
+        final long loadedNanos;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(WeatherData weather, long loadedNanos) {
+            this.weather = weather;
+            this.loadedNanos = loadedNanos;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package RPC.RPCWeatherService;
 
 import java.io.*;
-import java.net.*;
+import java.net.SocketTimeoutException;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 /**
  * ============================================================
@@ -13,8 +17,18 @@ import java.util.Scanner;
  * 
  * Features:
  *   - Get weather for a specific city
+ *   - Get weather for several cities in one batch call
+ *   - Watch cities: the server streams changes as they happen
  *   - List all available cities
+ *   - Search cities by name prefix, or find the nearest city
+ *   - Daily history and temperature trend of a city
  *   - Interactive menu-driven interface
+ *   - One persistent connection reused for every call
+ *   - Calls made through a typed WeatherService stub (RPCClient)
+ *   - Every call gives up after -Drpc.call.timeout.ms (default
+ *     10000) instead of hanging on a stuck server
+ *   - Repeated city lookups served locally under a server lease,
+ *     dropped as soon as the server pushes an invalidation
  * ============================================================
  */
 public class WeatherClient {
@@ -22,6 +36,17 @@ public class WeatherClient {
     // ========== CLIENT CONFIGURATION ==========
     private static final String SERVER_HOST = "localhost";
     private static final int SERVER_PORT = 5001;
+    private static final long WATCH_INTERVAL_MS = 1000;   // At most one update per city per second
+    private static final int SEARCH_LIMIT = 20;
+    private static final long CALL_TIMEOUT_MS = Long.getLong("rpc.call.timeout.ms", 10_000L);
+    
+    // ========== PERSISTENT CONNECTION ==========
+    private static RPCConnection connection;
+    private static WeatherService weatherService;      // Typed stub (see RPCClient)
+    private static RPCConnection serviceConnection;    // Connection the stub was made for
+    
+    // ========== LOCAL CACHE (SERVER-GRANTED LEASES) ==========
+    private static final WeatherLeaseCache leaseCache = new WeatherLeaseCache();
 
     // ========== MAIN METHOD ==========
     public static void main(String[] args) {
@@ -36,8 +61,13 @@ public class WeatherClient {
             // Display menu
             System.out.println("\n--- Menu ---");
             System.out.println("1. Get Weather for City");
-            System.out.println("2. List All Cities");
-            System.out.println("3. Exit");
+            System.out.println("2. Get Weather for Multiple Cities");
+            System.out.println("3. List All Cities");
+            System.out.println("4. Watch Cities (live updates)");
+            System.out.println("5. Search Cities");
+            System.out.println("6. Nearest City");
+            System.out.println("7. Weather History");
+            System.out.println("8. Exit");
             System.out.print("Choose option: ");
             
             int choice = scanner.nextInt();
@@ -52,13 +82,57 @@ public class WeatherClient {
                     break;
                     
                 case 2:
+                    // Get weather for several cities at once
+                    System.out.print("Enter city names (comma separated): ");
+                    String[] cities = scanner.nextLine().trim().split("\\s*,\\s*");
+                    getWeatherBatch(cities);
+                    break;
+                    
+                case 3:
                     // List all available cities
                     getAllCities();
                     break;
                     
-                case 3:
+                case 4:
+                    // Stream updates until the user presses Enter
+                    System.out.print("Enter city names (comma separated): ");
+                    String[] watched = scanner.nextLine().trim().split("\\s*,\\s*");
+                    watchCities(watched, scanner);
+                    break;
+                    
+                case 5:
+                    // Cities whose name starts with a prefix
+                    System.out.print("Enter name prefix: ");
+                    String prefix = scanner.nextLine().trim();
+                    searchCities(prefix);
+                    break;
+                    
+                case 6:
+                    // Closest city to a point
+                    System.out.print("Enter latitude and longitude: ");
+                    double latitude = scanner.nextDouble();
+                    double longitude = scanner.nextDouble();
+                    scanner.nextLine(); // consume newline
+                    nearestCity(latitude, longitude);
+                    break;
+                    
+                case 7:
+                    // Daily aggregates and trend over a date range
+                    System.out.print("Enter city name: ");
+                    String historyCity = scanner.nextLine().trim();
+                    System.out.print("Enter from and to dates (yyyy-MM-dd yyyy-MM-dd): ");
+                    String fromDate = scanner.next();
+                    String toDate = scanner.next();
+                    scanner.nextLine(); // consume newline
+                    getWeatherHistory(historyCity, fromDate, toDate);
+                    break;
+                    
+                case 8:
                     // Exit the client
                     System.out.println("Goodbye!");
+                    if (connection != null) {
+                        connection.close();
+                    }
                     scanner.close();
                     return;
                     
@@ -70,60 +144,165 @@ public class WeatherClient {
 
     // ========== RPC: GET WEATHER ==========
     private static void getWeather(String city) {
-        // Create RPC request for getWeather method
-        RPCRequest request = new RPCRequest("getWeather", new Object[]{city});
-        
-        // Send request and process response
-        RPCResponse response = sendRPCRequest(request);
+        // Served from the lease cache while the server's lease lasts
+        try {
+            WeatherData weather;
+            try {
+                weather = leaseCache.getWeather(connection(), city);
+            } catch (IOException first) {
+                if (first instanceof SocketTimeoutException) {
+                    throw first; // A stuck server: reconnecting would not help
+                }
+                // The server may have closed an idle connection - reconnect once
+                if (connection != null) {
+                    connection.close();
+                }
+                weather = leaseCache.getWeather(connection(), city);
+            }
+            System.out.println("\n" + weather);
+            long leaseMillis = leaseCache.getRemainingLeaseMillis(city);
+            if (leaseMillis > 0) {
+                System.out.println("(cached locally for " + leaseMillis + " ms)");
+            }
+        } catch (RPCException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Connection error: " + e.getMessage());
+        }
+    }
+
+    // ========== RPC: GET WEATHER BATCH ==========
+    private static void getWeatherBatch(String[] cities) {
+        // One request for all cities; failures are reported per city
+        WeatherBatchResult batch = callService(service -> service.getWeatherBatch(cities));
         
-        if (response != null) {
-            if (response.isSuccess()) {
-                WeatherData weather = (WeatherData) response.getResult();
-                System.out.println("\n" + weather);
+        if (batch != null) {
+            printBatch(batch);
+        }
+    }
+
+    private static void printBatch(WeatherBatchResult batch) {
+        System.out.println();
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.isSuccess(i)) {
+                System.out.println(batch.getWeather(i));
             } else {
+                System.out.println("Error: " + batch.getError(i));
+            }
+        }
+    }
+
+    // ========== RPC: SUBSCRIBE (SERVER STREAM) ==========
+    private static void watchCities(String[] cities, Scanner scanner) {
+        try {
+            RPCConnection.Stream stream = connection().openStream("subscribe", new Object[]{cities, WATCH_INTERVAL_MS},
+                    update -> System.out.println("Update: " + update));
+            RPCResponse response = stream.getOpened().get(CALL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (!response.isSuccess()) {
+                stream.close();
                 System.out.println("Error: " + response.getErrorMessage());
+                return;
             }
+            printBatch((WeatherBatchResult) response.getResult());
+            System.out.println("\nWatching for changes - press Enter to stop");
+            scanner.nextLine();
+            
+            stream.close();
+            connection().call("unsubscribe", new Object[]{stream.getStreamId()});
+        } catch (IOException | ExecutionException e) {
+            System.err.println("Connection error: " + e.getMessage());
+        } catch (TimeoutException e) {
+            System.err.println("Connection error: no answer within " + CALL_TIMEOUT_MS + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     // ========== RPC: GET ALL CITIES ==========
     private static void getAllCities() {
-        // Create RPC request for getAllCities method
-        RPCRequest request = new RPCRequest("getAllCities", null);
+        String[] cities = callService(WeatherService::getAllCities);
         
-        // Send request and process response
-        RPCResponse response = sendRPCRequest(request);
+        if (cities != null) {
+            System.out.println("\nAvailable Cities:");
+            for (String city : cities) {
+                System.out.println("  - " + city);
+            }
+        }
+    }
+
+    // ========== RPC: SEARCH CITIES ==========
+    private static void searchCities(String prefix) {
+        String[] cities = callService(service -> service.searchCities(prefix, SEARCH_LIMIT));
         
-        if (response != null) {
-            if (response.isSuccess()) {
-                String[] cities = (String[]) response.getResult();
-                System.out.println("\nAvailable Cities:");
-                for (String city : cities) {
-                    System.out.println("  - " + city);
-                }
-            } else {
-                System.out.println("Error: " + response.getErrorMessage());
+        if (cities != null) {
+            System.out.println("\nCities starting with \"" + prefix + "\" (" + cities.length + "):");
+            for (String city : cities) {
+                System.out.println("  - " + city);
             }
         }
     }
 
-    // ========== RPC REQUEST SENDER ==========
-    private static RPCResponse sendRPCRequest(RPCRequest request) {
-        try (
-            Socket socket = new Socket(SERVER_HOST, SERVER_PORT);
-            ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
-            ObjectInputStream in = new ObjectInputStream(socket.getInputStream())
-        ) {
-            // Send the RPC request
-            out.writeObject(request);
-            out.flush();
-            
-            // Receive and return the response
-            return (RPCResponse) in.readObject();
-            
-        } catch (IOException | ClassNotFoundException e) {
+    // ========== RPC: NEAREST CITY ==========
+    private static void nearestCity(double latitude, double longitude) {
+        String city = callService(service -> service.nearestCity(latitude, longitude));
+        
+        if (city != null) {
+            System.out.println("\nNearest city: " + city);
+        }
+    }
+
+    // ========== RPC: WEATHER HISTORY ==========
+    private static void getWeatherHistory(String city, String fromDate, String toDate) {
+        DailyWeather daily = callService(service -> service.getDailyWeather(city, fromDate, toDate));
+        if (daily == null) {
+            return;
+        }
+        System.out.println("\n" + daily);
+        WeatherTrend trend = callService(service -> service.getWeatherTrend(city, fromDate, toDate));
+        if (trend != null && trend.getDays() > 0) {
+            System.out.println(trend);
+        }
+    }
+
+    // ========== RPC CALL THROUGH THE TYPED STUB ==========
+    /**
+     * @return The call's result, or null after printing the error
+     */
+    private static <T> T callService(Function<WeatherService, T> call) {
+        try {
+            try {
+                return call.apply(weatherService());
+            } catch (UncheckedIOException first) {
+                if (first.getCause() instanceof SocketTimeoutException) {
+                    throw first; // A stuck server: reconnecting would not help
+                }
+                // The server may have closed an idle connection - reconnect once
+                if (connection != null) {
+                    connection.close();
+                }
+                return call.apply(weatherService());
+            }
+        } catch (RPCException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
             System.err.println("Connection error: " + e.getMessage());
-            return null;
         }
+        return null;
+    }
+
+    private static WeatherService weatherService() throws IOException {
+        RPCConnection current = connection();
+        if (weatherService == null || serviceConnection != current) {
+            weatherService = RPCClient.create(WeatherService.class, current, CALL_TIMEOUT_MS);
+            serviceConnection = current;
+        }
+        return weatherService;
+    }
+
+    private static RPCConnection connection() throws IOException {
+        if (connection == null || !connection.isOpen()) {
+            connection = new RPCConnection(SERVER_HOST, SERVER_PORT);
+        }
+        return connection;
     }
 }
@@ -12,12 +12,18 @@ import java.io.Serializable;
  */
 public class WeatherData implements Serializable {
     
+    // Pinned to the original class hash so older clients stay compatible
+    private static final long serialVersionUID = 629442626215865327L;
+    
     // ========== WEATHER ATTRIBUTES ==========
     private String city;
     private double temperature;
     private double humidity;
     private String condition;
     private String timestamp;
+    
+    // Binary wire form, filled in once by the server-side cache
+    private transient byte[] encodedForm;
 
     // ========== CONSTRUCTOR ==========
     public WeatherData(String city, double temperature, double humidity, String condition, String timestamp) {
@@ -34,6 +40,9 @@ public class WeatherData implements Serializable {
     public double getHumidity() { return humidity; }
     public String getCondition() { return condition; }
     public String getTimestamp() { return timestamp; }
+    
+    byte[] getEncodedForm() { return encodedForm; }
+    void setEncodedForm(byte[] encodedForm) { this.encodedForm = encodedForm; }
 
     // ========== STRING REPRESENTATION ==========
     @Override
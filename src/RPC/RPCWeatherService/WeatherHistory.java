@@ -0,0 +1,272 @@
+package RPC.RPCWeatherService;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * WEATHER HISTORY - DAILY AGGREGATES PER CITY
+ * ============================================================
+ * Every reading the service generates is recorded here, folded
+ * into one bucket per city and local day (in the zone given to
+ * the constructor, which must be the zone readings are shown in)
+ * as it arrives:
+ *
+ *   readings  temperatureSum  humiditySum  temperatureMin|Max
+ *
+ * Values are fixed-point tenths (°C, %), so a bucket is four
+ * ints (16 bytes) and a city's series a single int[] that is
+ * appended to day by day (grown GROW_DAYS at a time); a year of
+ * 100k cities takes about 600 MB and no objects per reading.
+ * Individual readings are not kept: daily min/max/avg and
+ * trends are answered from the buckets alone, so a query over
+ * a year reads at most 366 buckets whatever the reading rate.
+ *
+ * A reading for a day before the city's first bucket is dropped
+ * (the history starts with the first reading). Averages use at
+ * most MAX_DAILY_READINGS readings per day, which keeps the
+ * sums within an int; min and max see every reading.
+ *
+ * Cities are locked in stripes, so recording and queries for
+ * different cities rarely wait for each other.
+ * ============================================================
+ */
+public class WeatherHistory {
+
+    // ========== BUCKET LAYOUT ==========
+    private static final int INTS_PER_DAY = 4;
+    private static final int READINGS = 0;
+    private static final int TEMPERATURE_SUM = 1;
+    private static final int HUMIDITY_SUM = 2;
+    private static final int TEMPERATURE_RANGE = 3;   // min << 16 | max (tenths)
+
+    private static final int GROW_DAYS = 32;
+    private static final int MAX_DAILY_READINGS = 1 << 21;   // x 1000 tenths still fits an int
+    private static final double SCALE = 10.0;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int STRIPES = 64;
+
+    // ========== PER-CITY SERIES ==========
+    private final int[][] series;     // INTS_PER_DAY ints per day, from firstDay
+    private final int[] firstDay;     // Epoch day of each city's first bucket
+    private final int[] dayCount;     // Buckets in use per city
+    private final Object[] locks = new Object[STRIPES];
+
+    // ========== DAY BOUNDARIES ==========
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final long fixedOffsetMillis;   // Used when the zone has no DST
+
+    // ========== STATISTICS ==========
+    private final LongAdder recordedReadings = new LongAdder();
+    private final LongAdder droppedReadings = new LongAdder();
+
+    // ========== CONSTRUCTOR ==========
+    /**
+     * @param cities Number of cities (indexes as in CityStore)
+     * @param zone   Zone whose midnights separate the days
+     */
+    public WeatherHistory(int cities, ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.fixedOffsetMillis = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L : 0;
+        this.series = new int[cities][];
+        this.firstDay = new int[cities];
+        this.dayCount = new int[cities];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // ========================================================
+    // RECORDING
+    // ========================================================
+    /**
+     * Fold one reading into its city's bucket for that day.
+     */
+    public void record(int city, long epochMillis, double temperature, double humidity) {
+        int day = toEpochDay(epochMillis);
+        int t = toTenths(temperature, -1000, 1000);
+        int h = toTenths(humidity, 0, 1000);
+        synchronized (locks[city & (STRIPES - 1)]) {
+            int[] days = series[city];
+            if (days == null) {
+                days = series[city] = new int[GROW_DAYS * INTS_PER_DAY];
+                firstDay[city] = day;
+            }
+            int offset = day - firstDay[city];
+            if (offset < 0) {
+                droppedReadings.increment();
+                return;
+            }
+            if (offset >= dayCount[city]) {
+                int needed = (offset + 1) * INTS_PER_DAY;
+                if (needed > days.length) {
+                    int grown = (offset / GROW_DAYS + 1) * GROW_DAYS * INTS_PER_DAY;
+                    days = series[city] = Arrays.copyOf(days, grown);
+                }
+                dayCount[city] = offset + 1;   // Skipped days stay empty buckets
+            }
+            int bucket = offset * INTS_PER_DAY;
+            int readings = days[bucket + READINGS];
+            if (readings == 0) {
+                days[bucket + TEMPERATURE_RANGE] = (t << 16) | (t & 0xFFFF);
+            } else {
+                int range = days[bucket + TEMPERATURE_RANGE];
+                int min = Math.min(range >> 16, t);
+                int max = Math.max((short) range, t);
+                days[bucket + TEMPERATURE_RANGE] = (min << 16) | (max & 0xFFFF);
+            }
+            if (readings < MAX_DAILY_READINGS) {
+                days[bucket + READINGS] = readings + 1;
+                days[bucket + TEMPERATURE_SUM] += t;
+                days[bucket + HUMIDITY_SUM] += h;
+            }
+        }
+        recordedReadings.increment();
+    }
+
+    private static int toTenths(double value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, Math.round(value * SCALE)));
+    }
+
+    /**
+     * Local day (epoch day in this history's zone) of an instant.
+     */
+    private int toEpochDay(long epochMillis) {
+        long offsetMillis = rules.isFixedOffset()
+                ? fixedOffsetMillis
+                : rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000L;
+        return (int) Math.floorDiv(epochMillis + offsetMillis, MILLIS_PER_DAY);
+    }
+
+    /**
+     * @return Zone whose midnights separate the buckets
+     */
+    public ZoneId getZone() { return zone; }
+
+    // ========================================================
+    // QUERIES
+    // ========================================================
+    /**
+     * Daily aggregates of a city for the days in [fromDay, toDay]
+     * (epoch days) that have readings.
+     */
+    public DailyWeather getDaily(int city, String name, int fromDay, int toDay) {
+        int[] buckets = copyBuckets(city, fromDay, toDay);
+        int days = 0;
+        for (int b = 0; b < buckets.length; b += INTS_PER_DAY) {
+            if (buckets[b + READINGS] > 0) {
+                days++;
+            }
+        }
+        int[] epochDays = new int[days];
+        int[] readings = new int[days];
+        double[] min = new double[days];
+        double[] max = new double[days];
+        double[] avgTemperature = new double[days];
+        double[] avgHumidity = new double[days];
+        int row = 0;
+        for (int b = 0; b < buckets.length; b += INTS_PER_DAY) {
+            int count = buckets[b + READINGS];
+            if (count == 0) {
+                continue;
+            }
+            epochDays[row] = fromDay + b / INTS_PER_DAY;
+            readings[row] = count;
+            min[row] = (buckets[b + TEMPERATURE_RANGE] >> 16) / SCALE;
+            max[row] = (short) buckets[b + TEMPERATURE_RANGE] / SCALE;
+            avgTemperature[row] = buckets[b + TEMPERATURE_SUM] / SCALE / count;
+            avgHumidity[row] = buckets[b + HUMIDITY_SUM] / SCALE / count;
+            row++;
+        }
+        return new DailyWeather(name, epochDays, readings, min, max, avgTemperature, avgHumidity);
+    }
+
+    /**
+     * Summary and temperature trend of a city over [fromDay, toDay].
+     */
+    public WeatherTrend getTrend(int city, String name, int fromDay, int toDay) {
+        int[] buckets = copyBuckets(city, fromDay, toDay);
+        int days = 0;
+        long readings = 0;
+        long temperatureSum = 0;
+        long humiditySum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;   // Least squares over daily averages
+        for (int b = 0; b < buckets.length; b += INTS_PER_DAY) {
+            int count = buckets[b + READINGS];
+            if (count == 0) {
+                continue;
+            }
+            days++;
+            readings += count;
+            temperatureSum += buckets[b + TEMPERATURE_SUM];
+            humiditySum += buckets[b + HUMIDITY_SUM];
+            min = Math.min(min, buckets[b + TEMPERATURE_RANGE] >> 16);
+            max = Math.max(max, (short) buckets[b + TEMPERATURE_RANGE]);
+            double x = b / INTS_PER_DAY;
+            double y = buckets[b + TEMPERATURE_SUM] / SCALE / count;
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        double slope = Double.NaN;
+        double denominator = days * sumXX - sumX * sumX;
+        if (days >= 2 && denominator != 0) {
+            slope = (days * sumXY - sumX * sumY) / denominator;
+        }
+        return new WeatherTrend(name, LocalDate.ofEpochDay(fromDay).toString(), LocalDate.ofEpochDay(toDay).toString(),
+                                days, readings,
+                                days > 0 ? min / SCALE : Double.NaN, days > 0 ? max / SCALE : Double.NaN,
+                                days > 0 ? temperatureSum / SCALE / readings : Double.NaN,
+                                days > 0 ? humiditySum / SCALE / readings : Double.NaN, slope);
+    }
+
+    /**
+     * @return The buckets of [fromDay, toDay], one per day in the
+     *         range (empty where the city has none), copied under
+     *         the city's lock
+     */
+    private int[] copyBuckets(int city, int fromDay, int toDay) {
+        int[] buckets = new int[(toDay - fromDay + 1) * INTS_PER_DAY];
+        synchronized (locks[city & (STRIPES - 1)]) {
+            int[] days = series[city];
+            if (days == null) {
+                return buckets;
+            }
+            int from = Math.max(fromDay, firstDay[city]);
+            int to = Math.min(toDay, firstDay[city] + dayCount[city] - 1);
+            if (from <= to) {
+                System.arraycopy(days, (from - firstDay[city]) * INTS_PER_DAY,
+                                 buckets, (from - fromDay) * INTS_PER_DAY, (to - from + 1) * INTS_PER_DAY);
+            }
+        }
+        return buckets;
+    }
+
+    // ========== STATISTICS ==========
+    public long getRecordedReadings() { return recordedReadings.sum(); }
+    public long getDroppedReadings() { return droppedReadings.sum(); }
+
+    /**
+     * @return Bytes held by the bucket arrays (allocated capacity)
+     */
+    public long getBucketBytes() {
+        long bytes = 0;
+        for (int city = 0; city < series.length; city++) {
+            synchronized (locks[city & (STRIPES - 1)]) {
+                if (series[city] != null) {
+                    bytes += series[city].length * (long) Integer.BYTES;
+                }
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,32 @@
+package RPC.RPCWeatherService;
+
+import java.io.Serializable;
+
+/**
+ * ============================================================
+ * WEATHER LEASE CLASS
+ * ============================================================
+ * Result of getWeatherLease: the weather data plus how long the
+ * client may serve it from a local cache. Within the lease the
+ * server pushes an invalidation if the city's data changes
+ * (see WeatherLeaseCache); a lease of 0 means "do not cache".
+ * ============================================================
+ */
+public class WeatherLease implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // ========== LEASE ATTRIBUTES ==========
+    private final WeatherData weather;
+    private final long leaseMillis;
+
+    // ========== CONSTRUCTOR ==========
+    public WeatherLease(WeatherData weather, long leaseMillis) {
+        this.weather = weather;
+        this.leaseMillis = leaseMillis;
+    }
+
+    // ========== GETTER METHODS ==========
+    public WeatherData getWeather() { return weather; }
+    public long getLeaseMillis() { return leaseMillis; }
+}
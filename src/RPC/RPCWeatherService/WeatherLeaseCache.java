@@ -0,0 +1,122 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * WEATHER LEASE CACHE - CLIENT-SIDE CACHE WITH SERVER LEASES
+ * ============================================================
+ * Serves repeated getWeather lookups locally. Each entry comes
+ * from getWeatherLease and is used only while its lease lasts,
+ * so staleness is bounded by the lease the server granted.
+ *
+ * Invalidation:
+ *   - The server pushes a city name when that city's data
+ *     changes during a lease; the entry is dropped at once
+ *   - An answer that raced with an invalidation (the push
+ *     arrived while the call was in flight) is not cached
+ *   - Leases are tied to the connection that carries the
+ *     pushes: switching connections clears the cache
+ *
+ * Leases are timed from when the request was sent, so network
+ * delay only ever shortens them.
+ * ============================================================
+ */
+public class WeatherLeaseCache {
+
+    // ========== CACHE STATE ==========
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+    private volatile RPCConnection connection;
+
+    // ========== STATISTICS ==========
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // ========================================================
+    // LOOKUP
+    // ========================================================
+    /**
+     * @return Weather from a valid lease, or fetched over the connection
+     * @throws RPCException if the server reports an error (unknown city)
+     */
+    public WeatherData getWeather(RPCConnection connection, String city) throws IOException {
+        attach(connection);
+        long now = System.nanoTime();
+        Lease lease = leases.get(city);
+        if (lease != null && lease.expiresNanos - now > 0) {
+            hits.increment();
+            return lease.weather;
+        }
+
+        misses.increment();
+        long epoch = invalidationEpoch.get();
+        RPCResponse response = connection.call("getWeatherLease", new Object[]{city});
+        if (!response.isSuccess()) {
+            throw new RPCException(response.getErrorMessage());
+        }
+        WeatherLease granted = (WeatherLease) response.getResult();
+        if (granted.getLeaseMillis() > 0 && invalidationEpoch.get() == epoch) {
+            leases.put(city, new Lease(granted.getWeather(),
+                                       now + TimeUnit.MILLISECONDS.toNanos(granted.getLeaseMillis())));
+        }
+        return granted.getWeather();
+    }
+
+    /**
+     * @return Remaining lease in milliseconds, or 0 if the city is not cached
+     */
+    public long getRemainingLeaseMillis(String city) {
+        Lease lease = leases.get(city);
+        return lease != null ? Math.max(0, TimeUnit.NANOSECONDS.toMillis(lease.expiresNanos - System.nanoTime())) : 0;
+    }
+
+    // ========== STATISTICS GETTERS ==========
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getInvalidations() { return invalidations.sum(); }
+    public int size() { return leases.size(); }
+
+    // ========================================================
+    // INVALIDATION
+    // ========================================================
+    private void attach(RPCConnection current) {
+        if (connection == current) {
+            return;
+        }
+        synchronized (this) {
+            if (connection != current) {
+                // Pushes for the old leases would arrive on the old connection
+                invalidationEpoch.incrementAndGet();
+                leases.clear();
+                current.setPushListener(this::onPush);
+                connection = current;
+            }
+        }
+    }
+
+    private void onPush(Object message) {
+        if (message instanceof String) {
+            invalidationEpoch.incrementAndGet();
+            if (leases.remove(message) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    // ========== ONE CACHED CITY ==========
+    private static final class Lease {
+        final WeatherData weather;
+        final long expiresNanos;
+
+        Lease(WeatherData weather, long expiresNanos) {
+            this.weather = weather;
+            this.expiresNanos = expiresNanos;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.net.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ============================================================
+ * RPC WEATHER LOAD TEST
+ * ============================================================
+ * Starts a WeatherServer in each execution mode on a free local
+ * port and drives it with many concurrent clients. Every client
+ * thread performs its calls back to back; all clients start
+ * together behind a latch.
+ *
+ * Reports per mode:
+ *   - Throughput (successful calls/sec)
+ *   - Latency p50 / p99 / max per call (connect to response)
+ *   - Failed calls and connections rejected by the server
+ *
+ * Connection styles (-Dweather.load.connection=STYLE):
+ *   - PER_CALL:   new socket and ObjectStreams for every call (default)
+ *   - PERSISTENT: one RPCConnection per client, one call at a time
+ *   - PIPELINED:  one RPCConnection per client, all calls in flight
+ *   - ASYNC:      one AsyncWeatherClient pool shared by all clients,
+ *                 all calls in flight (see weather.client.* properties)
+ *
+ * Silent clients (-Dweather.load.silent=N) connect before the
+ * run and never send a request, modelling slow clients that
+ * each hold a connection for the whole test.
+ *
+ * Usage:
+ *   java -Dweather.verbose=false RPC.RPCWeatherService.WeatherLoadTest [clients] [callsPerClient] [modes...]
+ *   (defaults: 1000 clients, 10 calls each, all modes)
+ * ============================================================
+ */
+public class WeatherLoadTest {
+
+    // ========== TEST CONFIGURATION ==========
+    private static final String HOST = "localhost";
+    private static final String[] CITIES = {"Colombo", "Kandy", "Galle", "Jaffna", "Nuwara Eliya"};
+    private static final int SILENT_CLIENTS = Integer.getInteger("weather.load.silent", 0);
+    private static final String CONNECTION_STYLE =
+            System.getProperty("weather.load.connection", "PER_CALL").toUpperCase(Locale.ROOT);
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int callsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        WeatherServer.ExecutionMode[] modes = WeatherServer.ExecutionMode.values();
+        if (args.length > 2) {
+            modes = new WeatherServer.ExecutionMode[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                modes[i - 2] = WeatherServer.ExecutionMode.valueOf(args[i].toUpperCase(Locale.ROOT));
+            }
+        }
+
+        System.out.println("============================================");
+        System.out.println("   RPC WEATHER LOAD TEST");
+        System.out.println("   " + clients + " clients x " + callsPerClient + " calls, "
+                           + SILENT_CLIENTS + " silent clients, " + CONNECTION_STYLE);
+        System.out.println("============================================");
+
+        for (WeatherServer.ExecutionMode mode : modes) {
+            runMode(mode, clients, callsPerClient);
+        }
+    }
+
+    // ========== ONE MODE ==========
+    private static void runMode(WeatherServer.ExecutionMode mode, int clients, int callsPerClient)
+            throws Exception {
+        WeatherServer server = new WeatherServer(0, mode);
+        server.start();
+        int port = server.getPort();
+        Socket[] silent = new Socket[SILENT_CLIENTS];
+        for (int i = 0; i < silent.length; i++) {
+            silent[i] = new Socket(HOST, port);
+        }
+
+        long[][] latencies = new long[clients][callsPerClient];
+        int[] completed = new int[clients];
+        AtomicLong failures = new AtomicLong();
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] threads = new Thread[clients];
+        AsyncWeatherClient pool = CONNECTION_STYLE.equals("ASYNC")
+                ? AsyncWeatherClient.fromSystemProperties(HOST, port) : null;
+
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            threads[c] = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                switch (CONNECTION_STYLE) {
+                    case "PERSISTENT":
+                    case "PIPELINED":
+                        runOnConnection(port, client, callsPerClient, latencies[client], completed, failures);
+                        break;
+                    case "ASYNC":
+                        runOnPool(pool, client, callsPerClient, latencies[client], completed, failures);
+                        break;
+                    default:
+                        for (int i = 0; i < callsPerClient; i++) {
+                            long start = System.nanoTime();
+                            if (call(port, CITIES[(client + i) % CITIES.length])) {
+                                latencies[client][completed[client]++] = System.nanoTime() - start;
+                            } else {
+                                failures.incrementAndGet();
+                            }
+                        }
+                }
+            }, "load-client-" + c);
+            threads[c].start();
+        }
+
+        ready.await();
+        long startNanos = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        for (Socket socket : silent) {
+            socket.close();
+        }
+        if (pool != null) {
+            pool.close();
+        }
+        server.stop();
+
+        // Merge per-client samples
+        int total = 0;
+        for (int count : completed) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, completed[c]);
+            offset += completed[c];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%-16s %8.0f calls/s | p50 %7.2f ms | p99 %7.2f ms | max %7.2f ms | failed %d | rejected %d%n",
+                          mode, total * 1e9 / elapsedNanos,
+                          percentileMillis(all, 0.50), percentileMillis(all, 0.99),
+                          total > 0 ? all[total - 1] / 1e6 : 0.0,
+                          failures.get(), server.getRejectedConnections());
+    }
+
+    // ========== SINGLE RPC CALL ==========
+    private static boolean call(int port, String city) {
+        try (Socket socket = new Socket(HOST, port)) {
+            socket.setTcpNoDelay(true);
+            ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
+            out.writeObject(new RPCRequest("getWeather", new Object[]{city}));
+            out.flush();
+            ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+            RPCResponse response = (RPCResponse) in.readObject();
+            return response.isSuccess();
+        } catch (IOException | ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    // ========== CALLS ON ONE PERSISTENT CONNECTION ==========
+    private static void runOnConnection(int port, int client, int calls, long[] latencies,
+                                        int[] completed, AtomicLong failures) {
+        try (RPCConnection connection = new RPCConnection(HOST, port)) {
+            if (CONNECTION_STYLE.equals("PERSISTENT")) {
+                for (int i = 0; i < calls; i++) {
+                    long start = System.nanoTime();
+                    try {
+                        if (connection.call("getWeather", new Object[]{CITIES[(client + i) % CITIES.length]}).isSuccess()) {
+                            latencies[completed[client]++] = System.nanoTime() - start;
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        // Counted below
+                    }
+                    failures.incrementAndGet();
+                }
+                return;
+            }
+            
+            // PIPELINED: send everything, then collect responses as they arrive
+            long[] finished = new long[calls];
+            List<CompletableFuture<RPCResponse>> futures = new ArrayList<>(calls);
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                final int index = i;
+                futures.add(connection.callAsync("getWeather", new Object[]{CITIES[(client + i) % CITIES.length]})
+                        .whenComplete((response, error) -> finished[index] = System.nanoTime()));
+            }
+            for (int i = 0; i < calls; i++) {
+                try {
+                    if (futures.get(i).get().isSuccess()) {
+                        latencies[completed[client]++] = finished[i] - start;
+                        continue;
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    // Counted below
+                }
+                failures.incrementAndGet();
+            }
+        } catch (IOException e) {
+            failures.addAndGet(calls - completed[client]);
+        }
+    }
+
+    // ========== CALLS THROUGH THE SHARED ASYNC POOL ==========
+    private static void runOnPool(AsyncWeatherClient pool, int client, int calls, long[] latencies,
+                                  int[] completed, AtomicLong failures) {
+        long[] finished = new long[calls];
+        List<CompletableFuture<WeatherData>> futures = new ArrayList<>(calls);
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            final int index = i;
+            futures.add(pool.getWeatherAsync(CITIES[(client + i) % CITIES.length])
+                    .whenComplete((weather, error) -> finished[index] = System.nanoTime()));
+        }
+        for (int i = 0; i < calls; i++) {
+            try {
+                futures.get(i).get();
+                latencies[completed[client]++] = finished[i] - start;
+            } catch (InterruptedException | ExecutionException e) {
+                failures.incrementAndGet();
+            }
+        }
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -1,11 +1,27 @@
 package RPC.RPCWeatherService;
 
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.net.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Random;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ============================================================
@@ -14,139 +30,508 @@ import java.util.Random;
  * Server that provides weather data through RPC-style calls.
  * Demonstrates Remote Procedure Call pattern using Java sockets.
  * 
- * Supported RPC Methods:
+ * Supported RPC Methods (WeatherService, dispatched by RPCRegistry):
  *   - getWeather(cityName): Returns weather data for a city
+ *   - getWeatherLease(cityName): Weather data plus a cache lease
+ *   - searchCities(prefix, limit): City names starting with a prefix
+ *   - nearestCity(lat, lon): Closest city to a point
  *   - getAllCities(): Returns list of available cities
+ *   - getDailyWeather(city, from, to): Daily min/max/avg history
+ *   - getWeatherTrend(city, from, to): Summary and temperature trend
+ *   - ping(): Health probe (HealthService)
+ * 
+ * Connections are persistent: a client may pipeline many requests
+ * on one socket and responses come back tagged with the request
+ * ID, possibly out of order (see RPCConnection). While a call
+ * runs, RPCSession.current() lets the service push messages
+ * back to its caller (lease invalidations).
+ * 
+ * Backpressure: a connection has at most
+ * -Dweather.connection.inflight calls accepted and unanswered;
+ * at the limit its reader stops reading (TCP pushes back on a
+ * client that pipelines without reading responses). Calls wait
+ * in a bounded queue shared by all connections; when it is full
+ * a call is answered at once with a "Server busy" error instead
+ * of piling up.
+ * 
+ * Deadlines and cancellation: a request carrying a timeout gets
+ * a deadline when it is read; if it is still queued once the
+ * deadline has passed it is dropped without running or being
+ * answered (the caller has stopped waiting). A cancel request
+ * from the client does the same for a call that has not started;
+ * a call already running finishes but its response is not sent.
+ * 
+ * Metrics (see RPCMetrics): calls, errors and queue / decode /
+ * execute / encode latency per method, plus sampled traces,
+ * registered over JMX as
+ * "RPC.RPCWeatherService:type=WeatherServer,port=<port>" and,
+ * with -Dweather.metrics.port, served as plain text over HTTP
+ * at /metrics.
+ * 
+ * Compression: responses of the methods in
+ * -Dweather.compress.methods are deflated when the client
+ * negotiated it and they are large enough (see BinaryCodec).
+ * 
+ * Execution Modes (the accept loop only accepts; connections
+ * are handled concurrently so a slow client cannot stall others):
+ *   - FIXED_POOL:      fixed pool of worker threads, unbounded queue
+ *   - VIRTUAL_THREADS: one virtual thread per connection
+ *   - BOUNDED_QUEUE:   fixed pool with a bounded queue; connections
+ *                      beyond the queue are rejected and closed
+ * 
+ * Usage:
+ *   java RPC.RPCWeatherService.WeatherServer [FIXED_POOL|VIRTUAL_THREADS|BOUNDED_QUEUE]
+ * 
+ * Options:
+ *   -Dweather.executor=MODE          Execution mode (default FIXED_POOL)
+ *   -Dweather.threads=64             Worker threads for the pooled modes
+ *   -Dweather.call.threads=N         Threads executing individual calls
+ *   -Dweather.call.queue=1024        Calls waiting for a call thread (pooled modes)
+ *   -Dweather.connection.inflight=64 Unanswered calls per connection
+ *   -Dweather.queue=256              Queue capacity for BOUNDED_QUEUE
+ *   -Dweather.read.timeout.ms=10000  Drop clients idle for longer than this
+ *   -Dweather.verbose=false          Disable per-request console logs
+ *   -Dweather.cities.file=PATH       City data file (see CityStore)
+ *   -Dweather.metrics=false          Turn call metrics off
+ *   -Dweather.trace.sample=0.001     Share of untraced calls the server traces
+ *   -Dweather.metrics.port=PORT      Serve metrics as text over HTTP (main only)
+ *   -Dweather.compress.methods=LIST  Comma-separated methods whose responses may
+ *                                    be compressed (default getAllCities,
+ *                                    getWeatherBatch,searchCities; empty = none)
+ *   -Drpc.compress=false             Never negotiate compression
  * ============================================================
  */
 public class WeatherServer {
 
     // ========== SERVER CONFIGURATION ==========
     private static final int PORT = 5001;
+    private static final int BACKLOG = 1024;   // Room for bursts of concurrent connects
+    private static final int WORKER_THREADS = Integer.getInteger("weather.threads", 64);
+    private static final int CALL_THREADS = Integer.getInteger("weather.call.threads",
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    private static final int QUEUE_CAPACITY = Integer.getInteger("weather.queue", 256);
+    private static final int CALL_QUEUE_CAPACITY = Integer.getInteger("weather.call.queue", 1024);
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("weather.connection.inflight", 64);
+    private static final String BUSY_MESSAGE = "Server busy: call queue full";
+    private static final int READ_TIMEOUT_MS = Integer.getInteger("weather.read.timeout.ms", 10_000);
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getProperty("weather.verbose", "true"));
+    private static final String MBEAN_NAME = "RPC.RPCWeatherService:type=WeatherServer,port=";
+    private static final String COMPRESSED_METHODS =
+            System.getProperty("weather.compress.methods", "getAllCities,getWeatherBatch,searchCities");
+
+    // ========== EXECUTION MODES ==========
+    public enum ExecutionMode { FIXED_POOL, VIRTUAL_THREADS, BOUNDED_QUEUE }
     
-    // ========== WEATHER DATA STORAGE ==========
-    // HashMap storing base weather data for cities
-    private static HashMap<String, double[]> cityWeatherData = new HashMap<>();
-    
-    // ========== STATIC INITIALIZATION BLOCK ==========
-    static {
-        // Format: {baseTemperature, baseHumidity}
-        cityWeatherData.put("Colombo", new double[]{28.0, 75.0});
-        cityWeatherData.put("Kandy", new double[]{24.0, 70.0});
-        cityWeatherData.put("Galle", new double[]{27.0, 80.0});
-        cityWeatherData.put("Jaffna", new double[]{30.0, 65.0});
-        cityWeatherData.put("Nuwara Eliya", new double[]{16.0, 85.0});
+    // ========== SERVER INSTANCE STATE ==========
+    private final int port;
+    private final ExecutionMode mode;
+    private final ExecutorService executor;       // Runs one reader loop per connection
+    private final ExecutorService callExecutor;   // Runs individual RPC calls
+    private final AtomicLong rejectedConnections = new AtomicLong();
+    private final RPCMetrics metrics = new RPCMetrics();
+    private final RPCRegistry registry = new RPCRegistry();
+    private final WeatherService weatherService = new WeatherServiceImpl();
+    private volatile ServerSocket serverSocket;
+
+    // ========== CONSTRUCTOR ==========
+    public WeatherServer(int port, ExecutionMode mode) {
+        this.port = port;
+        this.mode = mode;
+        this.executor = createExecutor(mode);
+        metrics.setEnabled(Boolean.parseBoolean(System.getProperty("weather.metrics", "true")));
+        registry.register(WeatherService.class, weatherService);
+        registry.register(HealthService.class, System::currentTimeMillis);
+        // Thread-per-task executors are unbounded, so calls can share them
+        // (each connection is still capped at MAX_IN_FLIGHT)
+        this.callExecutor = mode == ExecutionMode.VIRTUAL_THREADS
+                ? executor
+                : new ThreadPoolExecutor(CALL_THREADS, CALL_THREADS, 0L, TimeUnit.MILLISECONDS,
+                                         new ArrayBlockingQueue<>(CALL_QUEUE_CAPACITY),
+                                         workerFactory("weather-call-"), new ThreadPoolExecutor.AbortPolicy());
     }
 
     // ========== MAIN METHOD ==========
     public static void main(String[] args) {
+        String modeName = args.length > 0 ? args[0] : System.getProperty("weather.executor", "FIXED_POOL");
+        ExecutionMode mode = ExecutionMode.valueOf(modeName.toUpperCase(Locale.ROOT));
+
         System.out.println("============================================");
         System.out.println("   RPC WEATHER SERVER STARTING");
         System.out.println("============================================");
         
-        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
-            System.out.println("Server listening on port " + PORT);
-            System.out.println("Available cities: " + cityWeatherData.keySet());
-            System.out.println("--------------------------------------------");
-            
-            // ========== MAIN SERVER LOOP ==========
-            while (true) {
-                // Accept incoming client connection
-                Socket clientSocket = serverSocket.accept();
-                System.out.println("Client connected: " + clientSocket.getRemoteSocketAddress());
-                
-                // Handle the RPC request
-                handleRPCRequest(clientSocket);
+        try {
+            WeatherServer server = new WeatherServer(PORT, mode);
+            Integer metricsPort = Integer.getInteger("weather.metrics.port");
+            if (metricsPort != null) {
+                server.serveMetrics(metricsPort);
             }
-            
+            server.serve();
         } catch (IOException e) {
             System.err.println("Server error: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    // ========== RPC REQUEST HANDLER ==========
-    private static void handleRPCRequest(Socket clientSocket) {
-        try (
-            ObjectInputStream in = new ObjectInputStream(clientSocket.getInputStream());
-            ObjectOutputStream out = new ObjectOutputStream(clientSocket.getOutputStream())
-        ) {
-            // Read the RPC request from client
-            RPCRequest request = (RPCRequest) in.readObject();
-            System.out.println("RPC Request: " + request.getMethodName());
+    // ========================================================
+    // SERVER LIFECYCLE
+    // ========================================================
+    /**
+     * Bind and run the accept loop in the calling thread.
+     */
+    public void serve() throws IOException {
+        bind();
+        acceptLoop();
+    }
+
+    /**
+     * Bind and run the accept loop in a background thread.
+     * Used by load tests that start several servers in one JVM.
+     */
+    public void start() throws IOException {
+        bind();
+        Thread acceptor = new Thread(this::acceptLoop, "weather-acceptor-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Stop accepting connections and shut the workers down.
+     */
+    public void stop() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // Already closed
+        }
+        executor.shutdownNow();
+        callExecutor.shutdownNow();
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(MBEAN_NAME + getPort()));
+        } catch (JMException e) {
+            // Never registered
+        }
+    }
+
+    /**
+     * Serve the metrics as plain text at http://host:port/metrics.
+     */
+    public void serveMetrics(int httpPort) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(httpPort), 0);
+        http.createContext("/metrics", exchange -> {
+            byte[] body = metrics.toText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        http.setExecutor(Executors.newSingleThreadExecutor(workerFactory("weather-metrics-")));
+        http.start();
+        System.out.println("Metrics served at http://localhost:" + httpPort + "/metrics");
+    }
+
+    private void bind() throws IOException {
+        serverSocket = new ServerSocket(port, BACKLOG);
+        System.out.println("Server listening on port " + getPort() + " (" + mode + ")");
+        String[] cities = weatherService.getAllCities();
+        System.out.println("Available cities: " + (cities.length <= 10 ? Arrays.toString(cities) : cities.length + " loaded"));
+        System.out.println("RPC methods: " + registry.getMethodNames());
+        markCompressedMethods();
+        registerMetrics();
+        System.out.println("--------------------------------------------");
+    }
+
+    // ========== MAIN SERVER LOOP ==========
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket clientSocket;
+            try {
+                // Accept incoming client connection
+                clientSocket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Accept error: " + e.getMessage());
+                }
+                continue;
+            }
+            if (VERBOSE) {
+                System.out.println("Client connected: " + clientSocket.getRemoteSocketAddress());
+            }
             
-            // Process the request and generate response
-            RPCResponse response = processRequest(request);
+            // Hand the connection to a worker; the loop goes straight back to accept()
+            try {
+                executor.execute(() -> handleRPCRequest(clientSocket));
+            } catch (RejectedExecutionException e) {
+                rejectedConnections.incrementAndGet();
+                closeQuietly(clientSocket);
+            }
+        }
+    }
+
+    public int getPort() { return serverSocket != null ? serverSocket.getLocalPort() : port; }
+    public ExecutionMode getMode() { return mode; }
+    public long getRejectedConnections() { return rejectedConnections.get(); }
+    public long getExpiredCalls() { return metrics.getExpiredCalls(); }
+    public long getCancelledCalls() { return metrics.getCancelledCalls(); }
+    public long getRejectedCalls() { return metrics.getRejectedCalls(); }
+    public RPCMetrics getMetrics() { return metrics; }
+    
+    /**
+     * Registry of served RPC methods; register further services before start().
+     */
+    public RPCRegistry getRegistry() { return registry; }
+    public WeatherService getWeatherService() { return weatherService; }
+
+    /**
+     * Applies -Dweather.compress.methods to the registry, once all
+     * services are registered.
+     */
+    private void markCompressedMethods() {
+        for (String name : COMPRESSED_METHODS.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (registry.getQualifiedName(name) == null) {
+                System.err.println("Cannot compress unknown RPC method: " + name);
+                continue;
+            }
+            registry.setCompressed(name, true);
+        }
+    }
+
+    /**
+     * Registers the call metrics with the platform MBean server
+     * so they can be inspected with jconsole / VisualVM.
+     */
+    private void registerMetrics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(MBEAN_NAME + getPort()));
+            System.out.println("Metrics available via JMX: " + MBEAN_NAME + getPort());
+        } catch (JMException e) {
+            System.err.println("Could not register metrics: " + e.getMessage());
+        }
+    }
+
+    // ========================================================
+    // EXECUTOR FACTORY
+    // ========================================================
+    private static ExecutorService createExecutor(ExecutionMode mode) {
+        switch (mode) {
+            case VIRTUAL_THREADS:
+                return Executors.newVirtualThreadPerTaskExecutor();
+            case BOUNDED_QUEUE:
+                // AbortPolicy: a full queue rejects instead of blocking the accept loop
+                return new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 0L, TimeUnit.MILLISECONDS,
+                                              new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                                              workerFactory("weather-worker-"), new ThreadPoolExecutor.AbortPolicy());
+            case FIXED_POOL:
+            default:
+                return Executors.newFixedThreadPool(WORKER_THREADS, workerFactory("weather-worker-"));
+        }
+    }
+
+    private static ThreadFactory workerFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // ========================================================
+    // RPC CONNECTION HANDLER
+    // ========================================================
+    // A connection carries any number of requests. The reader
+    // loop hands each request to the call executor, so slow calls
+    // do not hold up the ones behind them; responses are queued
+    // as they finish, tagged with their request ID, and written
+    // by the session's own writer (a call thread never blocks on
+    // a slow client). With MAX_IN_FLIGHT calls unanswered the
+    // reader waits for one to be written before reading on. A classic
+    // one-shot client simply closes after its single response.
+    // The wire format is negotiated first (see RPCCodec).
+    // ========================================================
+    private void handleRPCRequest(Socket clientSocket) {
+        try {
+            clientSocket.setSoTimeout(READ_TIMEOUT_MS);   // A silent client only holds its own worker
+            clientSocket.setTcpNoDelay(true);
+        } catch (SocketException e) {
+            closeQuietly(clientSocket);
+            return;
+        }
+        Semaphore callSlots = new Semaphore(MAX_IN_FLIGHT);   // One per accepted, unanswered call
+        Map<Long, ServerCall> calls = new ConcurrentHashMap<>();   // Accepted, not yet answered
+        RPCSession session = null;
+        try {
+            RPCCodec codec = RPCCodec.accept(clientSocket);
+            RPCSession callerSession = new RPCSession(clientSocket, codec);
+            session = callerSession;
             
-            // Send response back to client
-            out.writeObject(response);
-            out.flush();
+            while (true) {
+                // With MAX_IN_FLIGHT calls unanswered, wait for one before reading on
+                callSlots.acquireUninterruptibly();
+                boolean dispatched = false;
+                try {
+                    // Read the next RPC request from client
+                    RPCRequest request;
+                    try {
+                        request = codec.readRequest();
+                    } catch (SocketTimeoutException e) {
+                        if (callerSession.hasOpenStreams()) {
+                            continue; // Subscriber waiting for pushes, not idle
+                        }
+                        throw e;
+                    }
+                    if (request == null) {
+                        break; // Client finished sending
+                    }
+                    if (request.isCancel()) {
+                        ServerCall cancelled = calls.get(request.getRequestId());
+                        if (cancelled != null) {
+                            cancelled.cancelled = true;
+                        }
+                        continue;
+                    }
+                    if (VERBOSE) {
+                        System.out.println("RPC Request #" + request.getRequestId() + ": " + request.getMethodName());
+                    }
+                    
+                    // Process the request off the reader thread
+                    long traceId = request.getTraceId() != 0 ? request.getTraceId() : metrics.sampleTraceId();
+                    ServerCall call = new ServerCall(request, codec.getLastDecodeNanos(), metrics.startTimer(), traceId);
+                    calls.put(request.getRequestId(), call);
+                    try {
+                        callExecutor.execute(() -> runCall(callerSession, request, call, calls, callSlots));
+                        dispatched = true;
+                    } catch (RejectedExecutionException e) {
+                        calls.remove(request.getRequestId(), call);
+                        if (callExecutor.isShutdown()) {
+                            break; // Server is stopping
+                        }
+                        metrics.recordRejected();
+                        RPCResponse busy = new RPCResponse(false, BUSY_MESSAGE);
+                        busy.setRequestId(request.getRequestId());
+                        callerSession.respond(busy, false, () -> { });
+                    }
+                } finally {
+                    if (!dispatched) {
+                        callSlots.release();
+                    }
+                }
+            }
             
-            System.out.println("Response sent successfully");
+            // Let calls already accepted finish before the streams close
+            awaitInFlight(callSlots);
             
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (SocketTimeoutException e) {
+            if (VERBOSE) {
+                System.out.println("Idle client disconnected: " + clientSocket.getRemoteSocketAddress());
+            }
+        } catch (IOException e) {
             System.err.println("Error handling request: " + e.getMessage());
         } finally {
-            try {
-                clientSocket.close();
-            } catch (IOException e) {
-                e.printStackTrace();
+            if (session != null) {
+                session.close();
             }
+            closeQuietly(clientSocket);
         }
     }
 
-    // ========== REQUEST PROCESSOR ==========
-    private static RPCResponse processRequest(RPCRequest request) {
-        String methodName = request.getMethodName();
-        Object[] params = request.getParameters();
-        
-        switch (methodName) {
-            case "getWeather":
-                // Get weather for specified city
-                if (params != null && params.length > 0) {
-                    String city = (String) params[0];
-                    return getWeatherForCity(city);
+    // ========== ONE CALL (call executor) ==========
+    /**
+     * Run a call and queue its response on the session's outbox;
+     * the call's slot is released once the response is written.
+     */
+    private void runCall(RPCSession session, RPCRequest request, ServerCall call,
+                         Map<Long, ServerCall> calls, Semaphore callSlots) {
+        boolean responding = false;
+        try {
+            if (call.cancelled) {
+                metrics.recordCancelled();
+                return;
+            }
+            if (call.isExpired()) {
+                metrics.recordExpired(); // Caller already timed out
+                return;
+            }
+            long started = metrics.startTimer();
+            RPCSession.beginCall(session, request.getRequestId(), call.traceId);
+            RPCResponse response = registry.invoke(request);
+            Runnable afterResponse = RPCSession.endCall();
+            if (call.cancelled) {
+                metrics.recordCancelled();
+                return;
+            }
+            long executed = metrics.startTimer();
+            response.setRequestId(request.getRequestId());
+            responding = true;
+            session.respond(response, registry.isCompressed(request.getMethodName()), () -> {
+                if (VERBOSE) {
+                    System.out.println("Response #" + response.getRequestId() + " sent");
                 }
-                return new RPCResponse(false, "City name required");
-                
-            case "getAllCities":
-                // Return list of all available cities
-                return new RPCResponse(cityWeatherData.keySet().toArray(new String[0]));
-                
-            default:
-                return new RPCResponse(false, "Unknown method: " + methodName);
+                if (started != 0) {
+                    String method = registry.getQualifiedName(request.getMethodName());
+                    metrics.recordCall(method != null ? method : RPCMetrics.UNKNOWN_METHOD,
+                                       response.isSuccess(), call.decodeNanos,
+                                       call.acceptedNanos != 0 ? started - call.acceptedNanos : 0,
+                                       executed - started, System.nanoTime() - executed, call.traceId);
+                }
+                calls.remove(request.getRequestId(), call);
+                callSlots.release();
+            });
+            // Queued after the response, so written after it
+            if (afterResponse != null && response.isSuccess()) {
+                afterResponse.run();
+            }
+        } finally {
+            RPCSession.endCall();
+            if (!responding) {
+                calls.remove(request.getRequestId(), call);
+                callSlots.release();
+            }
         }
     }
 
-    // ========== WEATHER DATA GENERATOR ==========
-    private static RPCResponse getWeatherForCity(String city) {
-        if (!cityWeatherData.containsKey(city)) {
-            return new RPCResponse(false, "City not found: " + city);
+    private static void awaitInFlight(Semaphore callSlots) {
+        try {
+            callSlots.tryAcquire(MAX_IN_FLIGHT, READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        
-        double[] baseData = cityWeatherData.get(city);
-        Random random = new Random();
-        
-        // Generate dynamic weather with slight variations
-        double temperature = baseData[0] + (random.nextDouble() * 6 - 3); // ±3°C variation
-        double humidity = baseData[1] + (random.nextDouble() * 10 - 5);   // ±5% variation
-        
-        // Determine weather condition based on temperature and humidity
-        String condition = determineCondition(temperature, humidity);
-        
-        // Get current timestamp
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        
-        WeatherData weatherData = new WeatherData(city, temperature, humidity, condition, timestamp);
-        return new RPCResponse(weatherData);
     }
 
-    // ========== CONDITION DETERMINER ==========
-    private static String determineCondition(double temp, double humidity) {
-        if (humidity > 80) return "Rainy";
-        if (temp > 32) return "Hot & Sunny";
-        if (temp < 18) return "Cool";
-        if (humidity < 50) return "Dry";
-        return "Pleasant";
+    // ========== ONE ACCEPTED CALL ==========
+    private static final class ServerCall {
+        final long deadlineNanos;        // 0 = no deadline
+        final long decodeNanos;          // -1 = codec cannot tell
+        final long acceptedNanos;        // 0 = metrics off when read
+        final long traceId;              // 0 = not traced
+        volatile boolean cancelled;
+
+        ServerCall(RPCRequest request, long decodeNanos, long acceptedNanos, long traceId) {
+            this.decodeNanos = decodeNanos;
+            this.acceptedNanos = acceptedNanos;
+            this.traceId = traceId;
+            long timeoutMillis = request.getTimeoutMillis();
+            this.deadlineNanos = timeoutMillis > 0
+                    ? (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) | 1 // Never 0
+                    : 0;
+        }
+
+        boolean isExpired() {
+            return deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 }
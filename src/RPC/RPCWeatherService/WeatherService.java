@@ -0,0 +1,98 @@
+package RPC.RPCWeatherService;
+
+/**
+ * ============================================================
+ * WEATHER SERVICE INTERFACE
+ * ============================================================
+ * Remote methods of the weather service. Registered with the
+ * server's RPCRegistry; each method is callable by its name.
+ * 
+ * Failures are reported by throwing an exception whose message
+ * is sent back to the client as the RPC error message.
+ * ============================================================
+ */
+public interface WeatherService {
+
+    /**
+     * Get current weather for a city.
+     *
+     * @throws IllegalArgumentException if the city is unknown
+     */
+    WeatherData getWeather(String city);
+
+    /**
+     * Get current weather for a city with a lease: the client may
+     * serve it from its cache for leaseMillis, and is pushed the
+     * city name if the data changes before then.
+     *
+     * @throws IllegalArgumentException if the city is unknown
+     */
+    WeatherLease getWeatherLease(String city);
+
+    /**
+     * Get current weather for many cities in one call.
+     * Unknown cities get a per-city error instead of failing the batch.
+     *
+     * @throws IllegalArgumentException if the batch is too large
+     */
+    WeatherBatchResult getWeatherBatch(String[] cities);
+
+    /**
+     * Subscribe to weather updates for some cities. The answer is
+     * the current weather (as in getWeatherBatch); afterwards the
+     * server pushes a WeatherData on this call's stream whenever a
+     * city changes noticeably, at most once per minIntervalMillis
+     * per city. Only callable over a connection (RPCConnection.openStream).
+     *
+     * @throws IllegalArgumentException if the batch is too large or the interval negative
+     */
+    WeatherBatchResult subscribe(String[] cities, long minIntervalMillis);
+
+    /**
+     * Stop a subscription made on the same connection.
+     *
+     * @param subscriptionId The stream ID (request ID) of the subscribe call
+     * @return false if there was no such subscription
+     */
+    boolean unsubscribe(long subscriptionId);
+
+    /**
+     * Find cities whose name starts with a prefix (ignoring case),
+     * in name order.
+     *
+     * @throws IllegalArgumentException if the prefix is null or limit is not 1-1000
+     */
+    String[] searchCities(String prefix, int limit);
+
+    /**
+     * Find the city closest to a point (great-circle distance).
+     *
+     * @throws IllegalArgumentException if the coordinates are out of range
+     */
+    String nearestCity(double latitude, double longitude);
+
+    /**
+     * Get the names of all available cities.
+     */
+    String[] getAllCities();
+
+    /**
+     * Daily minimum, maximum and average temperature and average
+     * humidity of a city, for each day in [fromDate, toDate]
+     * (yyyy-MM-dd, inclusive, in the server's zone like reading
+     * timestamps) on which readings were recorded.
+     *
+     * @throws IllegalArgumentException if the city is unknown or the
+     *         range invalid (at most 3660 days)
+     */
+    DailyWeather getDailyWeather(String city, String fromDate, String toDate);
+
+    /**
+     * A city's weather over [fromDate, toDate] summarized, with the
+     * temperature trend (slope of the daily averages, °C per day).
+     *
+     * @throws IllegalArgumentException if the city is unknown or the
+     *         range invalid (at most 3660 days)
+     */
+    WeatherTrend getWeatherTrend(String city, String fromDate, String toDate);
+}
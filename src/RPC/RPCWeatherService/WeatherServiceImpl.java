@@ -0,0 +1,274 @@
+package RPC.RPCWeatherService;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * ============================================================
+ * WEATHER SERVICE IMPLEMENTATION
+ * ============================================================
+ * Generates weather readings from base values per city with
+ * random variation. Safe to call from many threads.
+ * 
+ * Hot path:
+ *   - Readings are served from a per-city WeatherCache (TTL with
+ *     refresh-ahead), already encoded in the binary wire format
+ *   - The city list is computed once, shared, and registered as
+ *     a pre-encoded constant; callers must not modify it
+ * 
+ * Leases: getWeatherLease grants the caller's session a lease
+ * until the cached value expires. When the cache replaces a
+ * value early (refresh-ahead), every session still holding a
+ * lease on it is pushed the city name (see LeaseTable,
+ * WeatherLeaseCache).
+ * 
+ * Subscriptions: subscribe answers with the current weather and
+ * then streams changes (see WeatherSubscriptions).
+ * 
+ * Batches of at least PARALLEL_THRESHOLD cities are resolved
+ * in parallel on the common fork-join pool.
+ * 
+ * Cities come from a CityStore (built-in five, or a data file
+ * of any size via -Dweather.cities.file), which also answers
+ * searchCities and nearestCity.
+ * 
+ * History: every generated reading is also recorded in a
+ * WeatherHistory (daily buckets per city), which answers
+ * getDailyWeather and getWeatherTrend.
+ * ============================================================
+ */
+public class WeatherServiceImpl implements WeatherService {
+
+    // Timestamps and history days are both in the server's zone
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger("weather.batch.parallel", 256);
+
+    private static final int MAX_SEARCH_LIMIT = 1_000;
+    private static final int MAX_HISTORY_DAYS = 3_660;
+
+    // ========== WEATHER DATA STORAGE ==========
+    // Base temperature, humidity and location per city (read-only after loading)
+    private static final CityStore CITIES = CityStore.load();
+    
+    // ========== PRECOMPUTED CITY LIST ==========
+    private static final String[] CITY_NAMES = CITIES.getNames();
+    
+    static {
+        BinaryCodec.registerConstant(CITY_NAMES);
+    }
+
+    // ========== HISTORY OF GENERATED READINGS ==========
+    private final WeatherHistory history = new WeatherHistory(CITIES.size(), ZONE);
+
+    // ========== RESPONSE CACHE ==========
+    private final WeatherCache cache = WeatherCache.fromSystemProperties(this::generateWeather);
+    private final LeaseTable leases = new LeaseTable();
+    private final WeatherSubscriptions subscriptions = new WeatherSubscriptions(cache::get);
+
+    // ========== CONSTRUCTOR ==========
+    public WeatherServiceImpl() {
+        cache.setChangeListener(leases::revoke);
+    }
+
+    // ========== RPC: GET ALL CITIES ==========
+    @Override
+    public String[] getAllCities() {
+        return CITY_NAMES;
+    }
+
+    // ========== RPC: SEARCH CITIES ==========
+    @Override
+    public String[] searchCities(String prefix, int limit) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix is required");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("Limit must be 1-" + MAX_SEARCH_LIMIT + ": " + limit);
+        }
+        return CITIES.search(prefix, limit);
+    }
+
+    // ========== RPC: NEAREST CITY ==========
+    @Override
+    public String nearestCity(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        int city = CITIES.nearest(latitude, longitude);
+        if (city < 0) {
+            throw new IllegalStateException("No cities loaded");
+        }
+        return CITIES.getName(city);
+    }
+
+    // ========== RPC: GET WEATHER ==========
+    @Override
+    public WeatherData getWeather(String city) {
+        WeatherData weather = cache.get(city);
+        if (weather == null) {
+            throw new IllegalArgumentException("City not found: " + city);
+        }
+        return weather;
+    }
+
+    // ========== RPC: GET WEATHER LEASE ==========
+    @Override
+    public WeatherLease getWeatherLease(String city) {
+        WeatherData weather = getWeather(city);
+        RPCSession session = RPCSession.current();
+        long remainingNanos = cache.remainingNanos(city, weather);
+        if (session != null && remainingNanos > 0) {
+            // The lease ends when the cached value expires
+            leases.grant(city, session, System.nanoTime() + remainingNanos);
+            // Checked after the grant: a change before it gives no lease, a change after it is pushed
+            remainingNanos = cache.remainingNanos(city, weather);
+        }
+        return new WeatherLease(weather, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+    }
+
+    // ========== RPC: GET WEATHER BATCH ==========
+    @Override
+    public WeatherBatchResult getWeatherBatch(String[] cities) {
+        if (cities.length > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch too large: " + cities.length + " cities (max " + MAX_BATCH_SIZE + ")");
+        }
+        
+        WeatherData[] weather = new WeatherData[cities.length];
+        String[] errors = new String[cities.length];
+        
+        IntStream indexes = IntStream.range(0, cities.length);
+        if (cities.length >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> {
+            weather[i] = cache.get(cities[i]);
+            if (weather[i] == null) {
+                errors[i] = "City not found: " + cities[i];
+            }
+        });
+        return new WeatherBatchResult(weather, errors);
+    }
+
+    // ========== RPC: SUBSCRIBE / UNSUBSCRIBE ==========
+    @Override
+    public WeatherBatchResult subscribe(String[] cities, long minIntervalMillis) {
+        RPCSession session = RPCSession.current();
+        if (session == null) {
+            throw new IllegalStateException("subscribe needs a client connection");
+        }
+        if (minIntervalMillis < 0) {
+            throw new IllegalArgumentException("Negative interval: " + minIntervalMillis);
+        }
+        WeatherBatchResult snapshot = getWeatherBatch(cities);
+        WeatherSubscriptions.Subscription subscription =
+                subscriptions.subscribe(session, RPCSession.currentRequestId(), snapshot, minIntervalMillis);
+        RPCSession.afterResponse(() -> subscriptions.start(subscription));
+        return snapshot;
+    }
+
+    @Override
+    public boolean unsubscribe(long subscriptionId) {
+        return subscriptions.unsubscribe(RPCSession.current(), subscriptionId);
+    }
+
+    // ========== RPC: HISTORY ==========
+    @Override
+    public DailyWeather getDailyWeather(String city, String fromDate, String toDate) {
+        int index = historyCity(city);
+        int[] range = historyRange(fromDate, toDate);
+        return history.getDaily(index, CITIES.getName(index), range[0], range[1]);
+    }
+
+    @Override
+    public WeatherTrend getWeatherTrend(String city, String fromDate, String toDate) {
+        int index = historyCity(city);
+        int[] range = historyRange(fromDate, toDate);
+        return history.getTrend(index, CITIES.getName(index), range[0], range[1]);
+    }
+
+    private static int historyCity(String city) {
+        int index = city != null ? CITIES.indexOf(city) : -1;
+        if (index < 0) {
+            throw new IllegalArgumentException("City not found: " + city);
+        }
+        return index;
+    }
+
+    /**
+     * @return {fromDay, toDay} as epoch days
+     */
+    private static int[] historyRange(String fromDate, String toDate) {
+        long from;
+        long to;
+        try {
+            from = LocalDate.parse(fromDate).toEpochDay();
+            to = LocalDate.parse(toDate).toEpochDay();
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Dates must be yyyy-MM-dd: " + fromDate + ", " + toDate);
+        }
+        if (from > to || to - from >= MAX_HISTORY_DAYS) {
+            throw new IllegalArgumentException("Range must be 1-" + MAX_HISTORY_DAYS + " days: " + fromDate + " to " + toDate);
+        }
+        return new int[]{(int) from, (int) to};
+    }
+
+    // ========== WEATHER DATA GENERATOR ==========
+    /**
+     * @return Weather for the city, or null if the city is unknown
+     */
+    private WeatherData generateWeather(String city) {
+        int index = CITIES.indexOf(city);
+        if (index < 0) {
+            return null;
+        }
+        
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        
+        // Generate dynamic weather with slight variations
+        double temperature = CITIES.getBaseTemperature(index) + (random.nextDouble() * 6 - 3); // ±3°C variation
+        double humidity = CITIES.getBaseHumidity(index) + (random.nextDouble() * 10 - 5);      // ±5% variation
+        
+        long now = System.currentTimeMillis();
+        history.record(index, now, temperature, humidity);
+        
+        // Determine weather condition based on temperature and humidity
+        String condition = determineCondition(temperature, humidity);
+        
+        // Get current timestamp
+        String timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZONE).format(TIMESTAMP_FORMAT);
+        
+        return new WeatherData(city, temperature, humidity, condition, timestamp);
+    }
+
+    /**
+     * Response cache, for hit/miss statistics.
+     */
+    public WeatherCache getCache() { return cache; }
+
+    /**
+     * Recorded readings, for loading or inspecting history directly.
+     */
+    public WeatherHistory getHistory() { return history; }
+
+    public int getSubscriberCount() { return subscriptions.getSubscriberCount(); }
+    public long getSentUpdates() { return subscriptions.getSentUpdates(); }
+    public long getConflatedUpdates() { return subscriptions.getConflatedUpdates(); }
+
+    // ========== CONDITION DETERMINER ==========
+    private static String determineCondition(double temp, double humidity) {
+        if (humidity > 80) return "Rainy";
+        if (temp > 32) return "Hot & Sunny";
+        if (temp < 18) return "Cool";
+        if (humidity < 50) return "Dry";
+        return "Pleasant";
+    }
+}
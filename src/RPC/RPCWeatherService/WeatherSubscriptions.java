@@ -0,0 +1,307 @@
+package RPC.RPCWeatherService;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * ============================================================
+ * WEATHER SUBSCRIPTIONS - SERVER-STREAMING UPDATES
+ * ============================================================
+ * Backs the subscribe RPC. A poller re-reads every subscribed
+ * city (through the response cache) and offers the value to
+ * each subscriber of that city:
+ *
+ *   - Change threshold: a value is only sent if temperature or
+ *     humidity moved by more than the configured delta since the
+ *     last value sent to that subscriber, or the condition changed
+ *   - Min interval: at most one update per city per subscriber
+ *     every minInterval; a newer value waits until it is due
+ *   - Conflation: each subscriber keeps at most one unsent value
+ *     per city, both while it waits for minInterval and once it
+ *     is queued in the session's outbox (RPCSession.pushLatest).
+ *     A slow consumer (full socket buffer) skips the values it
+ *     was too slow for and gets the latest one next
+ *
+ * Threads: one poller, and a small shared delivery pool that
+ * only queues values on the sessions' outboxes (never writes to
+ * a socket), so a stalled subscriber holds up neither polling nor
+ * anyone else's delivery. Each subscription is delivered by one
+ * thread at a time. Subscriptions end with unsubscribe or when
+ * their connection closes.
+ *
+ * Configuration (system properties):
+ *   -Dweather.subscribe.poll.ms=500         How often cities are re-read
+ *   -Dweather.subscribe.temp.delta=0.5      Min temperature change (C)
+ *   -Dweather.subscribe.humidity.delta=2.0  Min humidity change (%)
+ *   -Dweather.subscribe.threads=2           Delivery threads
+ * ============================================================
+ */
+class WeatherSubscriptions {
+
+    // ========== CONFIGURATION ==========
+    private static final long POLL_MS = Long.getLong("weather.subscribe.poll.ms", 500L);
+    private static final double TEMPERATURE_DELTA =
+            Double.parseDouble(System.getProperty("weather.subscribe.temp.delta", "0.5"));
+    private static final double HUMIDITY_DELTA =
+            Double.parseDouble(System.getProperty("weather.subscribe.humidity.delta", "2.0"));
+    private static final int DELIVERY_THREADS = Integer.getInteger("weather.subscribe.threads", 2);
+
+    // ========== SUBSCRIPTION INDEXES ==========
+    private final Function<String, WeatherData> source;
+    private final ConcurrentHashMap<String, Set<Subscription>> byCity = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<RPCSession, Map<Long, Subscription>> bySession = new ConcurrentHashMap<>();
+
+    // ========== THREADS (started by the first subscriber) ==========
+    private volatile ScheduledExecutorService poller;
+    private volatile ScheduledExecutorService scheduler;   // Delivery and minInterval timers
+
+    // ========== STATISTICS ==========
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+
+    // ========== CONSTRUCTOR ==========
+    /**
+     * @param source Current weather for a city, or null if unknown
+     */
+    WeatherSubscriptions(Function<String, WeatherData> source) {
+        this.source = source;
+    }
+
+    // ========================================================
+    // SUBSCRIBE / UNSUBSCRIBE
+    // ========================================================
+    /**
+     * Register a subscription. It stays silent until start(), so
+     * the snapshot answering the subscribe call is sent first.
+     *
+     * @param snapshot Values already sent to the client (per city)
+     */
+    Subscription subscribe(RPCSession session, long streamId, WeatherBatchResult snapshot, long minIntervalMillis) {
+        startThreads();
+        Subscription subscription = new Subscription(session, streamId, minIntervalMillis);
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.isSuccess(i)) {
+                subscription.cities.put(snapshot.getWeather(i).getCity(), new CityState(snapshot.getWeather(i)));
+            }
+        }
+        bySession.computeIfAbsent(session, key -> new ConcurrentHashMap<>()).put(streamId, subscription);
+        for (String city : subscription.cities.keySet()) {
+            byCity.computeIfAbsent(city, key -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        session.streamOpened();
+        return subscription;
+    }
+
+    void start(Subscription subscription) {
+        subscription.active = true;
+        subscription.requestDelivery();
+    }
+
+    /**
+     * @return false if the session has no such subscription
+     */
+    boolean unsubscribe(RPCSession session, long streamId) {
+        Map<Long, Subscription> subscriptions = session != null ? bySession.get(session) : null;
+        Subscription subscription = subscriptions != null ? subscriptions.get(streamId) : null;
+        if (subscription == null) {
+            return false;
+        }
+        remove(subscription);
+        return true;
+    }
+
+    private void remove(Subscription subscription) {
+        if (subscription.cancelled.getAndSet(true)) {
+            return;
+        }
+        for (String city : subscription.cities.keySet()) {
+            Set<Subscription> subscribers = byCity.get(city);
+            if (subscribers != null) {
+                subscribers.remove(subscription);
+            }
+        }
+        Map<Long, Subscription> subscriptions = bySession.get(subscription.session);
+        if (subscriptions != null) {
+            subscriptions.remove(subscription.streamId);
+            if (subscriptions.isEmpty()) {
+                bySession.remove(subscription.session, subscriptions);
+            }
+        }
+        subscription.session.streamClosed();
+    }
+
+    // ========== STATISTICS GETTERS ==========
+    int getSubscriberCount() {
+        int count = 0;
+        for (Map<Long, Subscription> subscriptions : bySession.values()) {
+            count += subscriptions.size();
+        }
+        return count;
+    }
+
+    long getSentUpdates() { return sent.sum(); }
+    long getConflatedUpdates() { return conflated.sum(); }
+
+    // ========================================================
+    // POLLING
+    // ========================================================
+    private synchronized void startThreads() {
+        if (scheduler == null) {
+            scheduler = Executors.newScheduledThreadPool(DELIVERY_THREADS, threadFactory("weather-subscriptions-"));
+            poller = Executors.newSingleThreadScheduledExecutor(threadFactory("weather-subscriptions-poll-"));
+            poller.scheduleWithFixedDelay(this::poll, POLL_MS, POLL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void poll() {
+        try {
+            for (Map.Entry<String, Set<Subscription>> entry : byCity.entrySet()) {
+                Set<Subscription> subscribers = entry.getValue();
+                if (subscribers.isEmpty()) {
+                    continue;
+                }
+                WeatherData weather = source.apply(entry.getKey());
+                if (weather == null) {
+                    continue;
+                }
+                for (Subscription subscription : subscribers) {
+                    if (!subscription.session.isOpen()) {
+                        remove(subscription);
+                    } else {
+                        subscription.offer(entry.getKey(), weather);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Subscription poll failed: " + e.getMessage()); // Keep polling
+        }
+    }
+
+    private static boolean changedEnough(WeatherData last, WeatherData next) {
+        return Math.abs(next.getTemperature() - last.getTemperature()) > TEMPERATURE_DELTA
+               || Math.abs(next.getHumidity() - last.getHumidity()) > HUMIDITY_DELTA
+               || !next.getCondition().equals(last.getCondition());
+    }
+
+    // ========================================================
+    // SUBSCRIPTION - ONE CLIENT STREAM
+    // ========================================================
+    final class Subscription {
+        final RPCSession session;
+        final long streamId;
+        final long minIntervalNanos;
+        final Map<String, CityState> cities = new HashMap<>();   // Fixed after subscribe()
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicInteger deliveryRequests = new AtomicInteger();
+        private final AtomicBoolean timerArmed = new AtomicBoolean();
+        volatile boolean active;
+
+        Subscription(RPCSession session, long streamId, long minIntervalMillis) {
+            this.session = session;
+            this.streamId = streamId;
+            this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        }
+
+        /** Called by the poller only. */
+        void offer(String city, WeatherData weather) {
+            CityState state = cities.get(city);
+            if (state == null || weather == state.lastSeen) {
+                return;
+            }
+            state.lastSeen = weather;
+            if (changedEnough(state.lastSent, weather)) {
+                if (state.pending.getAndSet(weather) != null) {
+                    conflated.increment(); // Replaced a value the client never got
+                }
+                requestDelivery();
+            }
+        }
+
+        /** Only one thread delivers at a time; requests made meanwhile make it loop again. */
+        void requestDelivery() {
+            if (active && deliveryRequests.getAndIncrement() == 0) {
+                scheduler.execute(this::deliverLoop);
+            }
+        }
+
+        private void deliverLoop() {
+            int requests = 1;
+            do {
+                deliver();
+                requests = deliveryRequests.addAndGet(-requests);
+            } while (requests != 0);
+        }
+
+        private void deliver() {
+            if (cancelled.get()) {
+                return;
+            }
+            long now = System.nanoTime();
+            long nextDue = Long.MAX_VALUE;
+            for (CityState state : cities.values()) {
+                if (state.pending.get() == null) {
+                    continue;
+                }
+                long waitNanos = state.lastSentNanos + minIntervalNanos - now;
+                if (waitNanos > 0) {
+                    nextDue = Math.min(nextDue, waitNanos);
+                    continue;
+                }
+                WeatherData weather = state.pending.getAndSet(null);
+                try {
+                    // Queued, never blocks; keyed by this subscriber's city
+                    if (session.pushLatest(state, streamId, weather)) {
+                        conflated.increment(); // The client had not taken the previous value yet
+                    }
+                } catch (IOException e) {
+                    remove(this); // Closed, or too slow to keep
+                    return;
+                }
+                sent.increment();
+                state.lastSent = weather;
+                state.lastSentNanos = System.nanoTime();
+            }
+            if (nextDue != Long.MAX_VALUE && timerArmed.compareAndSet(false, true)) {
+                scheduler.schedule(() -> {
+                    timerArmed.set(false);
+                    requestDelivery();
+                }, nextDue, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // ========== PER-CITY STATE OF ONE SUBSCRIPTION ==========
+    private static final class CityState {
+        final AtomicReference<WeatherData> pending = new AtomicReference<>();   // Conflated: newest only
+        volatile WeatherData lastSent;
+        long lastSentNanos;          // Written by the delivering thread
+        WeatherData lastSeen;        // Poller only
+
+        CityState(WeatherData snapshot) {
+            this.lastSent = snapshot;
+            this.lastSeen = snapshot;
+            this.lastSentNanos = System.nanoTime(); // The snapshot counts as the first update
+        }
+    }
+}
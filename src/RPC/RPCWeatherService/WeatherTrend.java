@@ -0,0 +1,69 @@
+package RPC.RPCWeatherService;
+
+import java.io.Serializable;
+
+/**
+ * ============================================================
+ * WEATHER TREND CLASS
+ * ============================================================
+ * Result of getWeatherTrend: a city's weather over a date range,
+ * summarized from its daily buckets. The trend is the slope of
+ * the least-squares line through the daily average temperatures
+ * (°C per day); it is NaN with fewer than two days of data, as
+ * are the averages with none.
+ * ============================================================
+ */
+public class WeatherTrend implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // ========== TREND ATTRIBUTES ==========
+    private final String city;
+    private final String fromDate;
+    private final String toDate;
+    private final int days;              // Days in the range that had readings
+    private final long readings;
+    private final double minTemperature;
+    private final double maxTemperature;
+    private final double avgTemperature;
+    private final double avgHumidity;
+    private final double temperatureSlope; // °C per day
+
+    // ========== CONSTRUCTOR ==========
+    public WeatherTrend(String city, String fromDate, String toDate, int days, long readings,
+                        double minTemperature, double maxTemperature, double avgTemperature,
+                        double avgHumidity, double temperatureSlope) {
+        this.city = city;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.days = days;
+        this.readings = readings;
+        this.minTemperature = minTemperature;
+        this.maxTemperature = maxTemperature;
+        this.avgTemperature = avgTemperature;
+        this.avgHumidity = avgHumidity;
+        this.temperatureSlope = temperatureSlope;
+    }
+
+    // ========== GETTER METHODS ==========
+    public String getCity() { return city; }
+    public String getFromDate() { return fromDate; }
+    public String getToDate() { return toDate; }
+    public int getDays() { return days; }
+    public long getReadings() { return readings; }
+    public double getMinTemperature() { return minTemperature; }
+    public double getMaxTemperature() { return maxTemperature; }
+    public double getAvgTemperature() { return avgTemperature; }
+    public double getAvgHumidity() { return avgHumidity; }
+    public double getTemperatureSlope() { return temperatureSlope; }
+
+    // ========== STRING REPRESENTATION ==========
+    @Override
+    public String toString() {
+        return String.format("Trend for %s, %s to %s: %d days, %d readings%n"
+                             + "  Temperature: min %.1f°C, max %.1f°C, avg %.1f°C, trend %+.3f°C/day%n"
+                             + "  Humidity:    avg %.1f%%",
+                             city, fromDate, toDate, days, readings, minTemperature, maxTemperature,
+                             avgTemperature, temperatureSlope, avgHumidity);
+    }
+}
@@ -1,9 +1,13 @@
 package TemperatureHumiditySensor;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.net.*;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * ============================================================
@@ -23,12 +27,27 @@ import java.util.concurrent.ConcurrentHashMap;
  *   - Automatic status calculation based on sensor readings
  *   - Thread-safe concurrent data management
  *   - Real-time monitoring dashboard
+ *   - JMX metrics for every ingest stage (see SensorMetrics)
+ * 
+ * Options:
+ *   -Dbasestation.verbose=false  Disable per-reading console logs
+ *   -Dbasestation.window.ms=N    Event-time window size
+ *   -Dbasestation.lateness.ms=N  Allowed lateness for out-of-order readings
+ *   -Dbasestation.rate.target=N  Ingest budget (readings/sec) for rate hints
+ *   -Dbasestation.history.rows=N Readings kept for columnar export
  * ============================================================
  */
 public class BaseStation {
 
     // ========== SERVER CONFIGURATION ==========
     private static final int PORT = 5004;
+    private static final String MBEAN_NAME = "TemperatureHumiditySensor:type=BaseStation";
+    private static final String RATE_MBEAN_NAME = "TemperatureHumiditySensor:type=RateController";
+    
+    // ========== INGEST METRICS ==========
+    // Per-stage latency and counters, exposed over JMX
+    private static final SensorMetrics metrics = new SensorMetrics(
+            Boolean.parseBoolean(System.getProperty("basestation.verbose", "true")));
     
     // ========================================================
     // DYNAMIC HASHMAPS FOR SENSOR DATA STORAGE
@@ -61,9 +80,66 @@ public class BaseStation {
     /**
      * HashMap storing last update timestamp for each sensor
      * Key: Sensor ID
-     * Value: Timestamp in milliseconds
+     * Value: Event timestamp (sensor clock) of the newest reading, in milliseconds
      */
     private static ConcurrentHashMap<String, Long> lastUpdateMap = new ConcurrentHashMap<>();
+    
+    /**
+     * HashMap storing when each sensor was last heard from
+     * Key: Sensor ID
+     * Value: Arrival time (base station clock) in milliseconds
+     */
+    private static ConcurrentHashMap<String, Long> lastSeenMap = new ConcurrentHashMap<>();
+    
+    /**
+     * HashMap storing the deadband heartbeat of sensors in deadband mode
+     * Key: Sensor ID
+     * Value: Heartbeat interval in milliseconds (absent = reports every reading)
+     */
+    private static ConcurrentHashMap<String, Long> heartbeatMap = new ConcurrentHashMap<>();
+    
+    // Silence longer than this many heartbeats marks a deadband sensor STALE
+    private static final int MISSED_HEARTBEATS_BEFORE_STALE = 2;
+
+    // ========================================================
+    // ORDERED RANGE INDEXES
+    // ========================================================
+    // Sorted views of the latest readings so threshold and top-K
+    // queries do not need to scan every sensor.
+    // ========================================================
+    private static final SensorRangeIndex temperatureIndex = new SensorRangeIndex();
+    private static final SensorRangeIndex humidityIndex = new SensorRangeIndex();
+
+    // ========================================================
+    // HIERARCHICAL GROUP ROLLUPS
+    // ========================================================
+    // Live aggregates per ID prefix (SITE, SITE-BUILDING, ...)
+    // ========================================================
+    private static final SensorGroupRollup groupRollup = new SensorGroupRollup();
+
+    // ========================================================
+    // EVENT-TIME WINDOWS
+    // ========================================================
+    // Readings are windowed by sensor timestamp; late readings
+    // update history without overwriting the latest state.
+    // ========================================================
+    private static final EventTimeWindows eventWindows = EventTimeWindows.fromSystemProperties();
+
+    // ========================================================
+    // ADAPTIVE REPORTING RATE
+    // ========================================================
+    // Rate hints sent back to sensors: unhealthy sensors report
+    // faster, stable ones back off, all back off under high load.
+    // ========================================================
+    private static final ReportingRateController rateController = ReportingRateController.fromSystemProperties();
+
+    // ========================================================
+    // READING HISTORY
+    // ========================================================
+    // Bounded columnar log of accepted readings (current and
+    // late), exportable to ".scol" files for offline analytics.
+    // ========================================================
+    private static final SensorHistory history = SensorHistory.fromSystemProperties();
 
     // ========== MAIN METHOD ==========
     public static void main(String[] args) {
@@ -72,6 +148,9 @@ public class BaseStation {
         System.out.println("   Central Monitoring Hub for Sensor Network");
         System.out.println("============================================================");
         
+        // Expose ingest metrics over JMX
+        registerMetrics();
+        
         // Start monitoring dashboard in separate thread
         startMonitoringDashboard();
         
@@ -107,6 +186,10 @@ public class BaseStation {
      */
     private static void handleSensorConnection(Socket sensorSocket) {
         String sensorId = "UNKNOWN";
+        boolean verbose = metrics.isVerboseLogging();
+        metrics.connectionOpened();
+        long stageStart = metrics.startTimer();
+        long loggingNanos = 0;   // Three pieces, recorded once per reading
         
         try (
             ObjectInputStream in = new ObjectInputStream(sensorSocket.getInputStream());
@@ -118,38 +201,72 @@ public class BaseStation {
             sensorId = receivedData.getSensorId();
             double temperature = receivedData.getTemperature();
             double humidity = receivedData.getHumidity();
+            long eventTime = receivedData.getTimestamp();
+            long heartbeatMillis = receivedData.getHeartbeatMillis();
+            stageStart = metrics.recordStage(SensorMetrics.Stage.DESERIALIZE, stageStart);
             
-            System.out.println("[RECEIVED] Sensor: " + sensorId + 
-                             " | Temp: " + temperature + "°C" + 
-                             " | Humidity: " + humidity + "%");
-            
-            // ========== UPDATE DYNAMIC HASHMAPS ==========
-            // Store the received readings in HashMaps
-            updateSensorData(sensorId, temperature, humidity);
+            if (verbose) {
+                System.out.println("[RECEIVED] Sensor: " + sensorId + 
+                                 " | Temp: " + temperature + "°C" + 
+                                 " | Humidity: " + humidity + "%");
+                long now = metrics.startTimer();
+                loggingNanos += metrics.elapsed(stageStart, now);
+                stageStart = now;
+            }
             
             // ========== CALCULATE STATUS ==========
             String status = StatusCalculator.calculateStatus(temperature, humidity);
-            statusMap.put(sensorId, status);
+            metrics.recordReading(status);
+            stageStart = metrics.recordStage(SensorMetrics.Stage.STATUS_CALC, stageStart);
+            
+            // ========== UPDATE DYNAMIC HASHMAPS ==========
+            // Store the received readings and status in HashMaps
+            EventTimeWindows.Outcome outcome = updateSensorData(sensorId, eventTime, heartbeatMillis,
+                                                                temperature, humidity, status);
+            metrics.recordEventTimeOutcome(outcome);
+            stageStart = metrics.recordStage(SensorMetrics.Stage.MAP_UPDATE, stageStart);
+            
+            if (verbose) {
+                if (outcome == EventTimeWindows.Outcome.CURRENT) {
+                    System.out.println("[HASHMAP UPDATE] Total sensors tracked: " + temperatureMap.size());
+                } else {
+                    System.out.println("[" + outcome + "] " + sensorId + " reading from " + eventTime
+                                     + " is older than " + eventWindows.getLatestEventTime(sensorId));
+                }
+                long now = metrics.startTimer();
+                loggingNanos += metrics.elapsed(stageStart, now);
+                stageStart = now;
+            }
             
             // ========== PREPARE RESPONSE ==========
             // Create response with temperature, humidity, and calculated status
             SensorData responseData = new SensorData(sensorId, temperature, humidity, status);
+            responseData.setSuggestedIntervalMillis(
+                    rateController.suggestInterval(sensorId, status, heartbeatMillis));
             
             // ========== SEND RESPONSE TO SENSOR ==========
             out.writeObject(responseData);
             out.flush();
+            stageStart = metrics.recordStage(SensorMetrics.Stage.RESPONSE_WRITE, stageStart);
             
-            System.out.println("[RESPONSE] Sent to " + sensorId + " | Status: " + status);
-            
-            // Log status message if not normal
-            if (!status.equals(StatusCalculator.STATUS_NORMAL)) {
-                String message = StatusCalculator.getStatusMessage(status, temperature, humidity);
-                System.out.println("[ALERT] " + sensorId + ": " + message);
+            if (verbose) {
+                System.out.println("[RESPONSE] Sent to " + sensorId + " | Status: " + status
+                                 + " | Next report in " + responseData.getSuggestedIntervalMillis() + "ms");
+                
+                // Log status message if not normal
+                if (!status.equals(StatusCalculator.STATUS_NORMAL)) {
+                    String message = StatusCalculator.getStatusMessage(status, temperature, humidity);
+                    System.out.println("[ALERT] " + sensorId + ": " + message);
+                }
+                loggingNanos += metrics.elapsed(stageStart, metrics.startTimer());
+                metrics.recordStageTotal(SensorMetrics.Stage.LOGGING, loggingNanos);
             }
             
         } catch (IOException | ClassNotFoundException e) {
+            metrics.connectionFailed();
             System.err.println("[SENSOR ERROR] " + sensorId + ": " + e.getMessage());
         } finally {
+            metrics.connectionClosed();
             try {
                 sensorSocket.close();
             } catch (IOException e) {
@@ -165,21 +282,61 @@ public class BaseStation {
      * Updates the dynamic HashMaps with new sensor readings.
      * This method is synchronized for thread safety.
      * 
+     * The reading is first placed in its event-time window. Only the
+     * newest reading of a sensor replaces the "latest" state; late
+     * readings update their historical window only.
+     * 
      * @param sensorId Unique sensor identifier
+     * @param eventTime Sensor-side timestamp of the reading
+     * @param heartbeatMillis Deadband heartbeat of the sensor (0 if not in deadband mode)
      * @param temperature Temperature reading
      * @param humidity Humidity reading
+     * @param status Calculated status
+     * @return Event-time classification of the reading
      */
-    private static synchronized void updateSensorData(String sensorId, double temperature, double humidity) {
+    private static synchronized EventTimeWindows.Outcome updateSensorData(String sensorId, long eventTime,
+                                                                         long heartbeatMillis,
+                                                                         double temperature, double humidity,
+                                                                         String status) {
+        // Any reading - even a late one - proves the sensor is alive
+        long arrivalTime = System.currentTimeMillis();
+        lastSeenMap.put(sensorId, arrivalTime);
+        if (heartbeatMillis > 0) {
+            heartbeatMap.put(sensorId, heartbeatMillis);
+        } else {
+            heartbeatMap.remove(sensorId);
+        }
+        
+        // Assign the reading to its event-time window
+        EventTimeWindows.Outcome outcome = eventWindows.accept(
+                sensorId, eventTime, arrivalTime, temperature, humidity, status);
+        if (outcome != EventTimeWindows.Outcome.DROPPED) {
+            history.append(sensorId, eventTime, temperature, humidity, status);
+        }
+        if (outcome != EventTimeWindows.Outcome.CURRENT) {
+            return outcome;
+        }
+        
         // Update temperature HashMap
         temperatureMap.put(sensorId, temperature);
         
         // Update humidity HashMap
         humidityMap.put(sensorId, humidity);
         
-        // Update last update timestamp
-        lastUpdateMap.put(sensorId, System.currentTimeMillis());
+        // Update status HashMap
+        statusMap.put(sensorId, status);
+        
+        // Update last update timestamp (event time of the newest reading)
+        lastUpdateMap.put(sensorId, eventTime);
+        
+        // Keep the ordered indexes in step with the HashMaps
+        temperatureIndex.update(sensorId, temperature);
+        humidityIndex.update(sensorId, humidity);
         
-        System.out.println("[HASHMAP UPDATE] Total sensors tracked: " + temperatureMap.size());
+        // Roll the reading up into its SITE / BUILDING / FLOOR groups
+        groupRollup.update(sensorId, temperature, humidity, status);
+        
+        return outcome;
     }
 
     // ========================================================
@@ -197,6 +354,33 @@ public class BaseStation {
                 displayDashboard();
             }
         }, 30000, 30000); // Display every 30 seconds
+        
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                metrics.sampleRate();
+                rateController.adjust();
+            }
+        }, 1000, 1000); // Refresh readings/sec and rate hints every second
+    }
+
+    // ========================================================
+    // JMX REGISTRATION
+    // ========================================================
+    /**
+     * Registers the ingest metrics with the platform MBean server
+     * so they can be inspected with jconsole / VisualVM.
+     */
+    private static void registerMetrics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(metrics, new ObjectName(MBEAN_NAME));
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(rateController, new ObjectName(RATE_MBEAN_NAME));
+            System.out.println("[BASE STATION] Metrics available via JMX: " + MBEAN_NAME);
+        } catch (JMException e) {
+            System.err.println("[BASE STATION] Could not register metrics: " + e.getMessage());
+        }
     }
 
     /**
@@ -221,8 +405,17 @@ public class BaseStation {
             String statusIcon = status.equals("NORMAL") ? "✅" : 
                                status.equals("WARNING") ? "⚡" : "⚠️";
             
-            System.out.printf("   %-15s %-12.1f %-12.1f %s %s%n", 
-                            sensorId, temp, humidity, statusIcon, status);
+            // Deadband sensors are silent while unchanged; flag only missed heartbeats
+            String staleFlag = isSensorStale(sensorId) ? " (STALE)" : "";
+            
+            System.out.printf("   %-15s %-12.1f %-12.1f %s %s%s%n", 
+                            sensorId, temp, humidity, statusIcon, status, staleFlag);
+        }
+        
+        // ========== SITE-LEVEL ROLLUPS ==========
+        System.out.println("------------------------------------------------------------");
+        for (String site : groupRollup.getChildGroups(SensorGroupRollup.FLEET_GROUP)) {
+            System.out.println("   " + groupRollup.getSummary(site));
         }
         
         System.out.println("============================================================\n");
@@ -253,6 +446,109 @@ public class BaseStation {
         return statusMap.get(sensorId);
     }
 
+    /**
+     * Get sensors whose temperature is above a threshold (ascending)
+     */
+    public static List<String> getSensorsAboveTemperature(double threshold, int limit) {
+        return temperatureIndex.above(threshold, limit);
+    }
+
+    /**
+     * Get sensors whose temperature is within [min, max] (ascending)
+     */
+    public static List<String> getSensorsInTemperatureRange(double min, double max, int limit) {
+        return temperatureIndex.between(min, max, limit);
+    }
+
+    /**
+     * Get sensors whose humidity is above a threshold (ascending)
+     */
+    public static List<String> getSensorsAboveHumidity(double threshold, int limit) {
+        return humidityIndex.above(threshold, limit);
+    }
+
+    /**
+     * Get sensors whose humidity is within [min, max] (ascending)
+     */
+    public static List<String> getSensorsInHumidityRange(double min, double max, int limit) {
+        return humidityIndex.between(min, max, limit);
+    }
+
+    /**
+     * Get the K hottest sensors (hottest first)
+     */
+    public static List<String> getHottestSensors(int k) {
+        return temperatureIndex.top(k);
+    }
+
+    /**
+     * Get the K most humid sensors (most humid first)
+     */
+    public static List<String> getMostHumidSensors(int k) {
+        return humidityIndex.top(k);
+    }
+
+    /**
+     * Get live aggregates for a sensor group prefix (e.g. "SITE" or
+     * "SITE-BUILDING"). Pass SensorGroupRollup.FLEET_GROUP for all sensors.
+     */
+    public static SensorGroupRollup.GroupSummary getGroupSummary(String groupPrefix) {
+        return groupRollup.getSummary(groupPrefix);
+    }
+
+    /**
+     * Get the direct sub-groups of a group prefix (e.g. buildings of a site)
+     */
+    public static List<String> getChildGroups(String groupPrefix) {
+        return groupRollup.getChildGroups(groupPrefix);
+    }
+
+    /**
+     * Get the event-time windows retained for a sensor (oldest first)
+     */
+    public static List<EventTimeWindows.WindowSnapshot> getSensorWindows(String sensorId) {
+        return eventWindows.getWindows(sensorId);
+    }
+
+    /**
+     * Get the current event-time watermark for a sensor
+     */
+    public static long getWatermark(String sensorId) {
+        return eventWindows.getWatermark(sensorId);
+    }
+
+    /**
+     * Export recorded readings with from <= event time <= to to a columnar file
+     *
+     * @return Number of rows written
+     */
+    public static long exportHistory(Path file, long from, long to,
+                                     boolean dictionaryStatus) throws IOException {
+        return ColumnarExporter.export(history, from, to, file, dictionaryStatus);
+    }
+
+    /**
+     * Get the ingest metrics collector
+     */
+    public static SensorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Check whether a deadband sensor has been silent for longer than
+     * its heartbeat allows. Silence inside the heartbeat window means
+     * "unchanged", so the last reading is still considered current.
+     * Sensors that report every reading are never marked stale.
+     */
+    public static boolean isSensorStale(String sensorId) {
+        Long heartbeat = heartbeatMap.get(sensorId);
+        Long lastSeen = lastSeenMap.get(sensorId);
+        if (heartbeat == null || lastSeen == null) {
+            return false;
+        }
+        return System.currentTimeMillis() - lastSeen > heartbeat * MISSED_HEARTBEATS_BEFORE_STALE;
+    }
+
     /**
      * Get all registered sensor IDs
      */
@@ -0,0 +1,318 @@
+package TemperatureHumiditySensor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ============================================================
+ * COLUMNAR EXPORTER - SENSOR HISTORY TO ".scol" FILES
+ * ============================================================
+ * Streams a time range of SensorHistory into a columnar file
+ * for offline analytics. Rows are written in row groups of up
+ * to ROW_GROUP_ROWS; inside a group every column is stored as
+ * one contiguous chunk with min/max statistics.
+ *
+ * File layout:
+ *   "SCOL" version(int)
+ *   RowGroup*
+ *   Footer: groupCount(int) { offset(long) rows(int) minTime(long) maxTime(long) }* totalRows(long)
+ *   footerOffset(long) "SCOL"
+ *
+ * RowGroup:
+ *   rows(int) columnCount(byte) Chunk*
+ *
+ * Chunk:
+ *   column(byte) encoding(byte) min(8 bytes) max(8 bytes) length(int) payload
+ *
+ * Columns and encodings:
+ *   TIMESTAMP   PLAIN       long per row, min/max = time range
+ *   SENSOR_ID   DICTIONARY  per-chunk dictionary + int code per row
+ *   TEMPERATURE PLAIN       double per row, min/max = value range
+ *   HUMIDITY    PLAIN       double per row, min/max = value range
+ *   STATUS      DICTIONARY  dictionary + byte code per row (optional)
+ *               PLAIN       length-prefixed UTF-8 per row
+ *
+ * Memory stays bounded by one row group regardless of export size.
+ * ============================================================
+ */
+public class ColumnarExporter implements Closeable {
+
+    // ========== FORMAT CONSTANTS ==========
+    static final byte[] MAGIC = {'S', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+    static final int ROW_GROUP_ROWS = 65_536;
+
+    static final byte COLUMN_TIMESTAMP = 0;
+    static final byte COLUMN_SENSOR_ID = 1;
+    static final byte COLUMN_TEMPERATURE = 2;
+    static final byte COLUMN_HUMIDITY = 3;
+    static final byte COLUMN_STATUS = 4;
+    static final byte COLUMN_COUNT = 5;
+
+    static final byte ENCODING_PLAIN = 0;
+    static final byte ENCODING_DICTIONARY = 1;
+
+    // ========== OUTPUT ==========
+    private final FileChannel channel;
+    private final boolean dictionaryStatus;
+    private final SensorHistory history;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    private long position;
+
+    // ========== ROW GROUP BUFFERS ==========
+    private final long[] eventTime = new long[ROW_GROUP_ROWS];
+    private final int[] sensor = new int[ROW_GROUP_ROWS];
+    private final double[] temperature = new double[ROW_GROUP_ROWS];
+    private final double[] humidity = new double[ROW_GROUP_ROWS];
+    private final byte[] status = new byte[ROW_GROUP_ROWS];
+    private int rows;
+
+    // Global sensor code -> code inside the current chunk dictionary
+    private int[] localCodes = new int[0];
+    private final List<long[]> groupIndex = new ArrayList<>();
+    private long totalRows;
+
+    // ========== CONSTRUCTOR ==========
+    private ColumnarExporter(SensorHistory history, Path file, boolean dictionaryStatus) throws IOException {
+        this.history = history;
+        this.dictionaryStatus = dictionaryStatus;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.put(MAGIC).putInt(VERSION);
+        flush();
+    }
+
+    // ========================================================
+    // EXPORT ENTRY POINT
+    // ========================================================
+    /**
+     * Export every reading with from <= eventTime <= to, across all sensors.
+     *
+     * @param history Source history
+     * @param from Inclusive start of the event-time range
+     * @param to Inclusive end of the event-time range
+     * @param file Target file (overwritten)
+     * @param dictionaryStatus Dictionary-encode the status column
+     * @return Number of rows written
+     */
+    public static long export(SensorHistory history, long from, long to, Path file,
+                              boolean dictionaryStatus) throws IOException {
+        try (ColumnarExporter exporter = new ColumnarExporter(history, file, dictionaryStatus)) {
+            for (SensorHistory.Segment segment : history.segments()) {
+                if (!segment.overlaps(from, to)) {
+                    continue; // Skip whole segments outside the range
+                }
+                int size = segment.size();
+                for (int row = 0; row < size; row++) {
+                    long time = segment.eventTime[row];
+                    if (time >= from && time <= to) {
+                        exporter.addRow(time, segment.sensor[row], segment.temperature[row],
+                                        segment.humidity[row], segment.status[row]);
+                    }
+                }
+            }
+            return exporter.totalRows + exporter.rows;
+        }
+    }
+
+    private void addRow(long time, int sensorCode, double temp, double hum, byte statusCode) throws IOException {
+        eventTime[rows] = time;
+        sensor[rows] = sensorCode;
+        temperature[rows] = temp;
+        humidity[rows] = hum;
+        status[rows] = statusCode;
+        if (++rows == ROW_GROUP_ROWS) {
+            writeRowGroup();
+        }
+    }
+
+    // ========================================================
+    // ROW GROUP WRITER
+    // ========================================================
+    private void writeRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        long groupOffset = position;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        for (int i = 0; i < rows; i++) {
+            minTime = Math.min(minTime, eventTime[i]);
+            maxTime = Math.max(maxTime, eventTime[i]);
+        }
+
+        ensureCapacity(5);
+        buffer.putInt(rows).put(COLUMN_COUNT);
+
+        // ---------- TIMESTAMP ----------
+        chunkHeader(COLUMN_TIMESTAMP, ENCODING_PLAIN, minTime, maxTime, rows * 8);
+        for (int i = 0; i < rows; i++) {
+            buffer.putLong(eventTime[i]);
+        }
+
+        // ---------- SENSOR_ID ----------
+        writeSensorChunk();
+
+        // ---------- TEMPERATURE / HUMIDITY ----------
+        writeDoubleChunk(COLUMN_TEMPERATURE, temperature);
+        writeDoubleChunk(COLUMN_HUMIDITY, humidity);
+
+        // ---------- STATUS ----------
+        writeStatusChunk();
+
+        flush();
+        groupIndex.add(new long[]{groupOffset, rows, minTime, maxTime});
+        totalRows += rows;
+        rows = 0;
+    }
+
+    private void writeSensorChunk() throws IOException {
+        // Build a dictionary of just the sensors present in this chunk
+        int capacity = sensorCapacity();
+        if (localCodes.length < capacity) {
+            localCodes = new int[capacity];
+        }
+        Arrays.fill(localCodes, 0, capacity, -1);
+        List<byte[]> dictionary = new ArrayList<>();
+        int dictionaryBytes = 0;
+        for (int i = 0; i < rows; i++) {
+            int global = sensor[i];
+            if (localCodes[global] < 0) {
+                localCodes[global] = dictionary.size();
+                byte[] name = history.sensorName(global).getBytes(StandardCharsets.UTF_8);
+                dictionary.add(name);
+                dictionaryBytes += 2 + name.length;
+            }
+        }
+
+        chunkHeader(COLUMN_SENSOR_ID, ENCODING_DICTIONARY, 0, dictionary.size() - 1,
+                    4 + dictionaryBytes + rows * 4);
+        buffer.putInt(dictionary.size());
+        for (byte[] name : dictionary) {
+            ensureCapacity(2 + name.length);
+            buffer.putShort((short) name.length).put(name);
+        }
+        ensureCapacity(rows * 4);
+        for (int i = 0; i < rows; i++) {
+            buffer.putInt(localCodes[sensor[i]]);
+        }
+    }
+
+    private void writeDoubleChunk(byte column, double[] values) throws IOException {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < rows; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        chunkHeader(column, ENCODING_PLAIN, Double.doubleToRawLongBits(min), Double.doubleToRawLongBits(max),
+                    rows * 8);
+        for (int i = 0; i < rows; i++) {
+            buffer.putDouble(values[i]);
+        }
+    }
+
+    private void writeStatusChunk() throws IOException {
+        int min = Byte.MAX_VALUE;
+        int max = Byte.MIN_VALUE;
+        for (int i = 0; i < rows; i++) {
+            min = Math.min(min, status[i]);
+            max = Math.max(max, status[i]);
+        }
+
+        if (dictionaryStatus) {
+            int dictionaryBytes = 0;
+            for (String value : SensorHistory.STATUS_VALUES) {
+                dictionaryBytes += 2 + value.length();
+            }
+            chunkHeader(COLUMN_STATUS, ENCODING_DICTIONARY, min, max, 4 + dictionaryBytes + rows);
+            buffer.putInt(SensorHistory.STATUS_VALUES.length);
+            for (String value : SensorHistory.STATUS_VALUES) {
+                buffer.putShort((short) value.length()).put(value.getBytes(StandardCharsets.US_ASCII));
+            }
+            buffer.put(status, 0, rows);
+        } else {
+            byte[][] encoded = new byte[SensorHistory.STATUS_VALUES.length][];
+            for (int s = 0; s < encoded.length; s++) {
+                encoded[s] = SensorHistory.STATUS_VALUES[s].getBytes(StandardCharsets.UTF_8);
+            }
+            int length = 0;
+            for (int i = 0; i < rows; i++) {
+                length += 2 + encoded[status[i]].length;
+            }
+            chunkHeader(COLUMN_STATUS, ENCODING_PLAIN, min, max, length);
+            for (int i = 0; i < rows; i++) {
+                byte[] value = encoded[status[i]];
+                ensureCapacity(2 + value.length);
+                buffer.putShort((short) value.length).put(value);
+            }
+        }
+    }
+
+    // ========================================================
+    // LOW-LEVEL OUTPUT
+    // ========================================================
+    private void chunkHeader(byte column, byte encoding, long min, long max, int length) throws IOException {
+        ensureCapacity(2 + 8 + 8 + 4 + length);
+        buffer.put(column).put(encoding).putLong(min).putLong(max).putInt(length);
+    }
+
+    private int sensorCapacity() {
+        int capacity = 0;
+        for (int i = 0; i < rows; i++) {
+            capacity = Math.max(capacity, sensor[i] + 1);
+        }
+        return capacity;
+    }
+
+    /**
+     * Make room for the next write. Small writes flush the buffer;
+     * a single chunk larger than the buffer grows it once.
+     */
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        flush();
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(bytes) << 1);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ========================================================
+    // FOOTER
+    // ========================================================
+    @Override
+    public void close() throws IOException {
+        try {
+            writeRowGroup();
+            long footerOffset = position;
+            ensureCapacity(4 + groupIndex.size() * 28 + 8 + 8 + 4);
+            buffer.putInt(groupIndex.size());
+            for (long[] group : groupIndex) {
+                buffer.putLong(group[0]).putInt((int) group[1]).putLong(group[2]).putLong(group[3]);
+            }
+            buffer.putLong(totalRows);
+            buffer.putLong(footerOffset).put(MAGIC);
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package TemperatureHumiditySensor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ============================================================
+ * COLUMNAR READER - ".scol" FILE VERIFICATION
+ * ============================================================
+ * Reads files written by ColumnarExporter. Uses the footer to
+ * skip row groups outside a requested time range, then decodes
+ * one row group at a time into column arrays.
+ *
+ * Usage (print a summary of an exported file):
+ *   java -cp out TemperatureHumiditySensor.ColumnarReader history.scol
+ * ============================================================
+ */
+public class ColumnarReader implements Closeable {
+
+    // ========== FILE STATE ==========
+    private final FileChannel channel;
+    private final long[] groupOffsets;
+    private final int[] groupRows;
+    private final long[] groupMinTime;
+    private final long[] groupMaxTime;
+    private final long footerOffset;
+    private final long totalRows;
+
+    // ========== CONSTRUCTOR ==========
+    public ColumnarReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readFully(0, 8);
+            checkMagic(header);
+            int version = header.getInt();
+            if (version != ColumnarExporter.VERSION) {
+                throw new IOException("Unsupported columnar file version: " + version);
+            }
+
+            ByteBuffer trailer = readFully(channel.size() - 12, 12);
+            footerOffset = trailer.getLong();
+            checkMagic(trailer);
+
+            ByteBuffer footer = readFully(footerOffset, (int) (channel.size() - 12 - footerOffset));
+            int groups = footer.getInt();
+            groupOffsets = new long[groups];
+            groupRows = new int[groups];
+            groupMinTime = new long[groups];
+            groupMaxTime = new long[groups];
+            for (int i = 0; i < groups; i++) {
+                groupOffsets[i] = footer.getLong();
+                groupRows[i] = footer.getInt();
+                groupMinTime[i] = footer.getLong();
+                groupMaxTime[i] = footer.getLong();
+            }
+            totalRows = footer.getLong();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // ========== METADATA ==========
+    public int getRowGroupCount() { return groupOffsets.length; }
+    public long getTotalRows() { return totalRows; }
+    public long getRowGroupMinTime(int group) { return groupMinTime[group]; }
+    public long getRowGroupMaxTime(int group) { return groupMaxTime[group]; }
+
+    // ========================================================
+    // ROW GROUP DECODING
+    // ========================================================
+    /**
+     * Decode one row group into column arrays.
+     */
+    public RowGroup readRowGroup(int group) throws IOException {
+        long end = group + 1 < groupOffsets.length ? groupOffsets[group + 1] : footerOffset;
+        ByteBuffer data = readFully(groupOffsets[group], (int) (end - groupOffsets[group]));
+
+        int rows = data.getInt();
+        int columns = data.get();
+        RowGroup result = new RowGroup(rows);
+        for (int c = 0; c < columns; c++) {
+            byte column = data.get();
+            byte encoding = data.get();
+            long min = data.getLong();
+            long max = data.getLong();
+            int length = data.getInt();
+            int chunkEnd = data.position() + length;
+
+            switch (column) {
+                case ColumnarExporter.COLUMN_TIMESTAMP:
+                    data.asLongBuffer().get(result.eventTime);
+                    result.minTime = min;
+                    result.maxTime = max;
+                    break;
+                case ColumnarExporter.COLUMN_SENSOR_ID:
+                    String[] names = readDictionary(data);
+                    for (int i = 0; i < rows; i++) {
+                        result.sensorId[i] = names[data.getInt()];
+                    }
+                    break;
+                case ColumnarExporter.COLUMN_TEMPERATURE:
+                    data.asDoubleBuffer().get(result.temperature);
+                    result.minTemperature = Double.longBitsToDouble(min);
+                    result.maxTemperature = Double.longBitsToDouble(max);
+                    break;
+                case ColumnarExporter.COLUMN_HUMIDITY:
+                    data.asDoubleBuffer().get(result.humidity);
+                    result.minHumidity = Double.longBitsToDouble(min);
+                    result.maxHumidity = Double.longBitsToDouble(max);
+                    break;
+                case ColumnarExporter.COLUMN_STATUS:
+                    if (encoding == ColumnarExporter.ENCODING_DICTIONARY) {
+                        String[] values = readDictionary(data);
+                        for (int i = 0; i < rows; i++) {
+                            result.status[i] = values[data.get()];
+                        }
+                    } else {
+                        for (int i = 0; i < rows; i++) {
+                            result.status[i] = readString(data);
+                        }
+                    }
+                    break;
+                default:
+                    // Unknown column from a newer writer - skip it
+                    break;
+            }
+            data.position(chunkEnd);
+        }
+        return result;
+    }
+
+    /**
+     * Read all rows with from <= eventTime <= to, skipping row groups
+     * whose statistics show they cannot match.
+     */
+    public List<SensorData> read(long from, long to) throws IOException {
+        List<SensorData> result = new ArrayList<>();
+        for (int g = 0; g < groupOffsets.length; g++) {
+            if (groupMaxTime[g] < from || groupMinTime[g] > to) {
+                continue;
+            }
+            RowGroup group = readRowGroup(g);
+            for (int i = 0; i < group.rows; i++) {
+                if (group.eventTime[i] >= from && group.eventTime[i] <= to) {
+                    result.add(new SensorData(group.sensorId[i], group.temperature[i], group.humidity[i],
+                                              group.status[i], group.eventTime[i]));
+                }
+            }
+        }
+        return result;
+    }
+
+    // ========== LOW-LEVEL INPUT ==========
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void checkMagic(ByteBuffer buffer) throws IOException {
+        byte[] magic = new byte[4];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, ColumnarExporter.MAGIC)) {
+            throw new IOException("Not a columnar sensor history file");
+        }
+    }
+
+    private static String[] readDictionary(ByteBuffer data) {
+        String[] values = new String[data.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(data);
+        }
+        return values;
+    }
+
+    private static String readString(ByteBuffer data) {
+        byte[] bytes = new byte[data.getShort() & 0xFFFF];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ========================================================
+    // ROW GROUP - DECODED COLUMNS
+    // ========================================================
+    public static class RowGroup {
+        public final int rows;
+        public final long[] eventTime;
+        public final String[] sensorId;
+        public final double[] temperature;
+        public final double[] humidity;
+        public final String[] status;
+
+        // Chunk statistics as written by the exporter
+        public long minTime, maxTime;
+        public double minTemperature, maxTemperature;
+        public double minHumidity, maxHumidity;
+
+        RowGroup(int rows) {
+            this.rows = rows;
+            this.eventTime = new long[rows];
+            this.sensorId = new String[rows];
+            this.temperature = new double[rows];
+            this.humidity = new double[rows];
+            this.status = new String[rows];
+        }
+    }
+
+    // ========================================================
+    // COMMAND LINE SUMMARY
+    // ========================================================
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: ColumnarReader <file.scol>");
+            return;
+        }
+        try (ColumnarReader reader = new ColumnarReader(Paths.get(args[0]))) {
+            System.out.println("============================================================");
+            System.out.println("   COLUMNAR SENSOR HISTORY: " + args[0]);
+            System.out.println("============================================================");
+            System.out.println("   Rows: " + reader.getTotalRows() + " | Row groups: " + reader.getRowGroupCount());
+            System.out.println("------------------------------------------------------------");
+            for (int g = 0; g < reader.getRowGroupCount(); g++) {
+                RowGroup group = reader.readRowGroup(g);
+                System.out.printf("   Group %d: %d rows | time %d..%d | temp %.1f..%.1f | humidity %.1f..%.1f%n",
+                                  g, group.rows, group.minTime, group.maxTime,
+                                  group.minTemperature, group.maxTemperature,
+                                  group.minHumidity, group.maxHumidity);
+            }
+            System.out.println("============================================================");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package TemperatureHumiditySensor;
+
+/**
+ * ============================================================
+ * DEADBAND FILTER - DELTA REPORTING
+ * ============================================================
+ * Decides whether a sensor reading is worth sending to the
+ * Base Station. A reading is reported when:
+ *   - It is the first reading, or
+ *   - Temperature moved more than the temperature deadband, or
+ *   - Humidity moved more than the humidity deadband, or
+ *   - Nothing was sent for a full heartbeat interval
+ *
+ * Changes are measured against the last SENT value (not the last
+ * sampled one), so slow drift still gets reported once it adds up.
+ *
+ * Not thread-safe: each sensor owns its own filter.
+ * ============================================================
+ */
+public class DeadbandFilter {
+
+    // ========== CONFIGURATION ==========
+    private final double temperatureDeadband;   // °C
+    private final double humidityDeadband;      // % points
+    private final long heartbeatMillis;
+
+    // ========== LAST SENT STATE ==========
+    private boolean hasSent;
+    private double lastTemperature;
+    private double lastHumidity;
+    private long lastSentTime;
+
+    // ========== CONSTRUCTOR ==========
+    /**
+     * @param temperatureDeadband Minimum temperature change to report (°C)
+     * @param humidityDeadband Minimum humidity change to report (%)
+     * @param heartbeatMillis Maximum silence before a reading is sent anyway
+     */
+    public DeadbandFilter(double temperatureDeadband, double humidityDeadband, long heartbeatMillis) {
+        if (temperatureDeadband < 0 || humidityDeadband < 0 || heartbeatMillis <= 0) {
+            throw new IllegalArgumentException("Deadbands must be >= 0 and heartbeat > 0");
+        }
+        this.temperatureDeadband = temperatureDeadband;
+        this.humidityDeadband = humidityDeadband;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    /**
+     * Create a filter configured from system properties:
+     *   -Dsensor.deadband.temp=0.5
+     *   -Dsensor.deadband.humidity=2.0
+     *   -Dsensor.heartbeat.seconds=60
+     */
+    public static DeadbandFilter fromSystemProperties() {
+        return new DeadbandFilter(
+                Double.parseDouble(System.getProperty("sensor.deadband.temp", "0.5")),
+                Double.parseDouble(System.getProperty("sensor.deadband.humidity", "2.0")),
+                Long.getLong("sensor.heartbeat.seconds", 60L) * 1000L);
+    }
+
+    // ========== DECISION ==========
+    /**
+     * Check whether a sampled reading should be sent.
+     *
+     * @param temperature Sampled temperature
+     * @param humidity Sampled humidity
+     * @param nowMillis Current time
+     * @return true if the reading is outside the deadband or a heartbeat is due
+     */
+    public boolean shouldReport(double temperature, double humidity, long nowMillis) {
+        if (!hasSent) {
+            return true;
+        }
+        return Math.abs(temperature - lastTemperature) > temperatureDeadband
+            || Math.abs(humidity - lastHumidity) > humidityDeadband
+            || nowMillis - lastSentTime >= heartbeatMillis;
+    }
+
+    /**
+     * Remember a reading that was successfully sent.
+     */
+    public void markSent(double temperature, double humidity, long nowMillis) {
+        hasSent = true;
+        lastTemperature = temperature;
+        lastHumidity = humidity;
+        lastSentTime = nowMillis;
+    }
+
+    // ========== GETTER METHODS ==========
+    public double getTemperatureDeadband() { return temperatureDeadband; }
+    public double getHumidityDeadband() { return humidityDeadband; }
+    public long getHeartbeatMillis() { return heartbeatMillis; }
+}
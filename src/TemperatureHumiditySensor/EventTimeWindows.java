@@ -0,0 +1,274 @@
+package TemperatureHumiditySensor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ============================================================
+ * EVENT-TIME WINDOWS - PER-SENSOR WATERMARKS
+ * ============================================================
+ * Assigns every reading to a tumbling window by the sensor-side
+ * timestamp (event time) instead of the arrival time.
+ *
+ * Per sensor:
+ *   - Max event time seen so far
+ *   - Watermark = max event time - allowed lateness
+ *   - Ring of the most recent windows (count, min/max/avg, worst status)
+ *
+ * Each reading is classified as:
+ *   - CURRENT:  newest reading for the sensor -> update "latest" state
+ *   - LATE:     older than the newest, but within allowed lateness
+ *               -> only its historical window is updated
+ *   - DROPPED:  behind the watermark -> ignored
+ *
+ * Event times more than MAX_CLOCK_SKEW_MS in the future are clamped
+ * to the arrival time so one bad sensor clock cannot push its
+ * watermark ahead and make every later reading look late.
+ *
+ * Configuration (system properties):
+ *   -Dbasestation.window.ms=60000      Window size
+ *   -Dbasestation.lateness.ms=300000   Allowed lateness
+ * ============================================================
+ */
+public class EventTimeWindows {
+
+    // ========== CLASSIFICATION ==========
+    public enum Outcome { CURRENT, LATE, DROPPED }
+
+    // ========== CONFIGURATION ==========
+    private static final long MAX_CLOCK_SKEW_MS = 60_000;
+
+    private final long windowSizeMillis;
+    private final long allowedLatenessMillis;
+    private final int retainedWindows;
+
+    // ========== STATE ==========
+    private final ConcurrentHashMap<String, SensorWindows> sensors = new ConcurrentHashMap<>();
+
+    // ========== CONSTRUCTORS ==========
+    /**
+     * @param windowSizeMillis Tumbling window size
+     * @param allowedLatenessMillis How far behind a sensor's newest reading
+     *                              a late reading may still be accepted
+     */
+    public EventTimeWindows(long windowSizeMillis, long allowedLatenessMillis) {
+        if (windowSizeMillis <= 0 || allowedLatenessMillis < 0) {
+            throw new IllegalArgumentException("Window size must be positive and lateness non-negative");
+        }
+        this.windowSizeMillis = windowSizeMillis;
+        this.allowedLatenessMillis = allowedLatenessMillis;
+        // Keep every window that can still receive a late reading, plus the current one
+        this.retainedWindows = (int) (allowedLatenessMillis / windowSizeMillis) + 2;
+    }
+
+    /**
+     * Create windows configured from system properties.
+     */
+    public static EventTimeWindows fromSystemProperties() {
+        return new EventTimeWindows(
+                Long.getLong("basestation.window.ms", 60_000L),
+                Long.getLong("basestation.lateness.ms", 300_000L));
+    }
+
+    // ========================================================
+    // INGEST
+    // ========================================================
+    /**
+     * Apply a reading to its event-time window.
+     *
+     * @param sensorId Unique sensor identifier
+     * @param eventTime Sensor-side timestamp of the reading
+     * @param arrivalTime Base station clock when the reading arrived
+     * @param temperature Temperature reading
+     * @param humidity Humidity reading
+     * @param status Calculated status
+     * @return Whether the reading is the newest, late or dropped
+     */
+    public Outcome accept(String sensorId, long eventTime, long arrivalTime,
+                          double temperature, double humidity, String status) {
+        long effectiveTime = eventTime > arrivalTime + MAX_CLOCK_SKEW_MS ? arrivalTime : eventTime;
+        SensorWindows windows = sensors.computeIfAbsent(sensorId, id -> new SensorWindows(retainedWindows));
+        return windows.accept(effectiveTime, temperature, humidity, status);
+    }
+
+    // ========================================================
+    // QUERIES
+    // ========================================================
+    /**
+     * Current watermark for a sensor, or Long.MIN_VALUE if unseen.
+     */
+    public long getWatermark(String sensorId) {
+        SensorWindows windows = sensors.get(sensorId);
+        return windows == null ? Long.MIN_VALUE : windows.watermark();
+    }
+
+    /**
+     * Newest event time seen for a sensor, or Long.MIN_VALUE if unseen.
+     */
+    public long getLatestEventTime(String sensorId) {
+        SensorWindows windows = sensors.get(sensorId);
+        return windows == null ? Long.MIN_VALUE : windows.latestEventTime();
+    }
+
+    /**
+     * Retained windows for a sensor, oldest first.
+     */
+    public List<WindowSnapshot> getWindows(String sensorId) {
+        SensorWindows windows = sensors.get(sensorId);
+        return windows == null ? new ArrayList<>() : windows.snapshot(sensorId);
+    }
+
+    public long getWindowSizeMillis() { return windowSizeMillis; }
+    public long getAllowedLatenessMillis() { return allowedLatenessMillis; }
+
+    // ========================================================
+    // PER-SENSOR WINDOW RING
+    // ========================================================
+    private final class SensorWindows {
+        private final Window[] ring;
+        private long latestEventTime = Long.MIN_VALUE;
+
+        SensorWindows(int size) {
+            ring = new Window[size];
+        }
+
+        synchronized Outcome accept(long eventTime, double temperature, double humidity, String status) {
+            if (latestEventTime != Long.MIN_VALUE && eventTime < watermark()) {
+                return Outcome.DROPPED;
+            }
+
+            long windowIndex = Math.floorDiv(eventTime, windowSizeMillis);
+            int slot = (int) Math.floorMod(windowIndex, (long) ring.length);
+            Window window = ring[slot];
+            if (window == null || window.index < windowIndex) {
+                window = new Window(windowIndex);
+                ring[slot] = window;
+            } else if (window.index > windowIndex) {
+                return Outcome.DROPPED; // Slot already reused by a newer window
+            }
+            window.add(temperature, humidity, status);
+
+            if (eventTime >= latestEventTime) {
+                latestEventTime = eventTime;
+                return Outcome.CURRENT;
+            }
+            return Outcome.LATE;
+        }
+
+        synchronized long watermark() {
+            return latestEventTime == Long.MIN_VALUE ? Long.MIN_VALUE : latestEventTime - allowedLatenessMillis;
+        }
+
+        synchronized long latestEventTime() {
+            return latestEventTime;
+        }
+
+        synchronized List<WindowSnapshot> snapshot(String sensorId) {
+            List<WindowSnapshot> result = new ArrayList<>();
+            for (Window window : ring) {
+                if (window != null) {
+                    result.add(window.snapshot(sensorId));
+                }
+            }
+            result.sort((a, b) -> Long.compare(a.getWindowStart(), b.getWindowStart()));
+            return result;
+        }
+    }
+
+    // ========================================================
+    // WINDOW AGGREGATE
+    // ========================================================
+    private final class Window {
+        final long index;
+        long count;
+        double temperatureMin = Double.MAX_VALUE;
+        double temperatureMax = -Double.MAX_VALUE;
+        double temperatureSum;
+        double humidityMin = Double.MAX_VALUE;
+        double humidityMax = -Double.MAX_VALUE;
+        double humiditySum;
+        String worstStatus = StatusCalculator.STATUS_NORMAL;
+
+        Window(long index) {
+            this.index = index;
+        }
+
+        void add(double temperature, double humidity, String status) {
+            count++;
+            temperatureMin = Math.min(temperatureMin, temperature);
+            temperatureMax = Math.max(temperatureMax, temperature);
+            temperatureSum += temperature;
+            humidityMin = Math.min(humidityMin, humidity);
+            humidityMax = Math.max(humidityMax, humidity);
+            humiditySum += humidity;
+            if (StatusCalculator.STATUS_CRITICAL.equals(status)
+                    || (StatusCalculator.STATUS_WARNING.equals(status)
+                        && StatusCalculator.STATUS_NORMAL.equals(worstStatus))) {
+                worstStatus = status;
+            }
+        }
+
+        WindowSnapshot snapshot(String sensorId) {
+            return new WindowSnapshot(sensorId, index * windowSizeMillis, windowSizeMillis, count,
+                    temperatureMin, temperatureMax, temperatureSum / count,
+                    humidityMin, humidityMax, humiditySum / count, worstStatus);
+        }
+    }
+
+    // ========================================================
+    // WINDOW SNAPSHOT - IMMUTABLE QUERY RESULT
+    // ========================================================
+    public static class WindowSnapshot {
+        private final String sensorId;
+        private final long windowStart;
+        private final long windowSize;
+        private final long count;
+        private final double minTemperature;
+        private final double maxTemperature;
+        private final double averageTemperature;
+        private final double minHumidity;
+        private final double maxHumidity;
+        private final double averageHumidity;
+        private final String worstStatus;
+
+        WindowSnapshot(String sensorId, long windowStart, long windowSize, long count,
+                       double minTemperature, double maxTemperature, double averageTemperature,
+                       double minHumidity, double maxHumidity, double averageHumidity,
+                       String worstStatus) {
+            this.sensorId = sensorId;
+            this.windowStart = windowStart;
+            this.windowSize = windowSize;
+            this.count = count;
+            this.minTemperature = minTemperature;
+            this.maxTemperature = maxTemperature;
+            this.averageTemperature = averageTemperature;
+            this.minHumidity = minHumidity;
+            this.maxHumidity = maxHumidity;
+            this.averageHumidity = averageHumidity;
+            this.worstStatus = worstStatus;
+        }
+
+        // ========== GETTER METHODS ==========
+        public String getSensorId() { return sensorId; }
+        public long getWindowStart() { return windowStart; }
+        public long getWindowEnd() { return windowStart + windowSize; }
+        public long getCount() { return count; }
+        public double getMinTemperature() { return minTemperature; }
+        public double getMaxTemperature() { return maxTemperature; }
+        public double getAverageTemperature() { return averageTemperature; }
+        public double getMinHumidity() { return minHumidity; }
+        public double getMaxHumidity() { return maxHumidity; }
+        public double getAverageHumidity() { return averageHumidity; }
+        public String getWorstStatus() { return worstStatus; }
+
+        // ========== STRING REPRESENTATION ==========
+        @Override
+        public String toString() {
+            return String.format(
+                "Window[%s @%d] n=%d | Temp min/avg/max: %.1f/%.1f/%.1f°C | Humidity min/avg/max: %.1f/%.1f/%.1f%% | %s",
+                sensorId, windowStart, count, minTemperature, averageTemperature, maxTemperature,
+                minHumidity, averageHumidity, maxHumidity, worstStatus);
+        }
+    }
+}
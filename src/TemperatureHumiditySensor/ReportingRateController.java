@@ -0,0 +1,192 @@
+package TemperatureHumiditySensor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * REPORTING RATE CONTROLLER - ADAPTIVE SENSOR INTERVALS
+ * ============================================================
+ * Computes the reporting interval hint the Base Station sends
+ * back to each sensor with every response.
+ *
+ * Per-sensor rules:
+ *   - CRITICAL: report every CRITICAL interval (fastest)
+ *   - WARNING:  report every WARNING interval
+ *   - NORMAL:   start at the NORMAL interval and double it for
+ *               every STABLE_STREAK consecutive NORMAL readings,
+ *               never beyond the sensor's deadband heartbeat
+ *   A sensor silent for SILENT_AFTER_MS loses its streak (swept
+ *   every EVICT_PERIOD_MS), so departed sensors are not kept.
+ *
+ * Closed loop (adjust() once per second):
+ *   measured    = EWMA of readings/sec (sensors react only after
+ *                 their current interval, so the loop must be slow)
+ *   loadFactor *= (measured / target)^LOOP_GAIN, clamped to [1, MAX_LOAD_FACTOR]
+ *   NORMAL intervals are multiplied by loadFactor, so healthy
+ *   sensors back off when ingest exceeds the budget and speed up
+ *   again once it drops. WARNING/CRITICAL sensors are never slowed
+ *   down, so unhealthy sensors keep full resolution.
+ *
+ * Configuration (system properties):
+ *   -Dbasestation.rate.target=1000     Target readings/sec
+ *   -Dbasestation.rate.normal.ms=10000 Base NORMAL interval
+ * ============================================================
+ */
+public class ReportingRateController implements ReportingRateControllerMXBean {
+
+    // ========== INTERVAL POLICY ==========
+    private static final long CRITICAL_INTERVAL_MS = 1_000;
+    private static final long WARNING_INTERVAL_MS = 3_000;
+    private static final long MAX_INTERVAL_MS = 300_000;
+    private static final int STABLE_STREAK = 5;          // NORMAL readings per doubling
+    private static final int MAX_STABLE_DOUBLINGS = 4;   // At most 16x the NORMAL interval
+    private static final double MAX_LOAD_FACTOR = 64.0;
+    private static final double RATE_SMOOTHING = 0.05;   // EWMA weight of the newest sample
+    private static final double LOOP_GAIN = 0.02;        // Fraction of the error corrected per second
+    private static final long SILENT_AFTER_MS = 2 * MAX_INTERVAL_MS;   // No hint is longer than MAX_INTERVAL_MS
+    private static final long EVICT_PERIOD_MS = 60_000;
+
+    private final long normalIntervalMillis;
+    private volatile double targetReadingsPerSecond;
+
+    // ========== CONTROL STATE ==========
+    private final LongAdder readings = new LongAdder();
+    private final ConcurrentHashMap<String, StableStreak> stableStreaks = new ConcurrentHashMap<>();
+    private long lastAdjustNanos = System.nanoTime();
+    private long lastEvictMillis = System.currentTimeMillis();
+    private volatile double measuredReadingsPerSecond;
+    private volatile double loadFactor = 1.0;
+
+    // ========== PER-SENSOR STATE ==========
+    private static final class StableStreak {
+        final int count;
+        final long lastSeenMillis;
+
+        StableStreak(int count, long lastSeenMillis) {
+            this.count = count;
+            this.lastSeenMillis = lastSeenMillis;
+        }
+    }
+
+    // ========== CONSTRUCTORS ==========
+    public ReportingRateController(double targetReadingsPerSecond, long normalIntervalMillis) {
+        if (targetReadingsPerSecond <= 0 || normalIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Target rate and NORMAL interval must be positive");
+        }
+        this.targetReadingsPerSecond = targetReadingsPerSecond;
+        this.normalIntervalMillis = normalIntervalMillis;
+    }
+
+    /**
+     * Create a controller configured from system properties.
+     */
+    public static ReportingRateController fromSystemProperties() {
+        return new ReportingRateController(
+                Double.parseDouble(System.getProperty("basestation.rate.target", "1000")),
+                Long.getLong("basestation.rate.normal.ms", 10_000L));
+    }
+
+    // ========================================================
+    // PER-READING HINT
+    // ========================================================
+    /**
+     * Record a reading and compute the interval the sensor should use next.
+     *
+     * @param sensorId Sensor that just reported
+     * @param status Its calculated status
+     * @param heartbeatMillis Deadband heartbeat of the sensor (0 if none);
+     *                        NORMAL hints never exceed it so heartbeats are not missed
+     * @return Suggested reporting interval in milliseconds
+     */
+    public long suggestInterval(String sensorId, String status, long heartbeatMillis) {
+        readings.increment();
+
+        if (StatusCalculator.STATUS_CRITICAL.equals(status)) {
+            stableStreaks.remove(sensorId);
+            return CRITICAL_INTERVAL_MS;
+        }
+        if (StatusCalculator.STATUS_WARNING.equals(status)) {
+            stableStreaks.remove(sensorId);
+            return WARNING_INTERVAL_MS;
+        }
+
+        long now = System.currentTimeMillis();
+        int streak = stableStreaks.merge(sensorId, new StableStreak(1, now),
+                (old, one) -> new StableStreak(Math.min(old.count + 1, Integer.MAX_VALUE - 1), now)).count;
+        int doublings = Math.min(streak / STABLE_STREAK, MAX_STABLE_DOUBLINGS);
+        long interval = (long) ((normalIntervalMillis << doublings) * loadFactor);
+        long ceiling = heartbeatMillis > 0 ? Math.min(heartbeatMillis, MAX_INTERVAL_MS) : MAX_INTERVAL_MS;
+        // Ceiling last: a heartbeat shorter than the floor still wins
+        return Math.min(ceiling, Math.max(WARNING_INTERVAL_MS, interval));
+    }
+
+    // ========================================================
+    // CONTROL LOOP
+    // ========================================================
+    /**
+     * Compare the measured ingest rate with the target and update
+     * the load factor. Called periodically by a single timer.
+     */
+    public synchronized void adjust() {
+        long now = System.nanoTime();
+        long elapsed = now - lastAdjustNanos;
+        if (elapsed <= 0) {
+            return;
+        }
+        double sample = readings.sumThenReset() * 1_000_000_000.0 / elapsed;
+        lastAdjustNanos = now;
+        double measured = measuredReadingsPerSecond + RATE_SMOOTHING * (sample - measuredReadingsPerSecond);
+        measuredReadingsPerSecond = measured;
+
+        // A small gain damps the response so the loop converges instead of oscillating
+        double ratio = Math.max(measured, 1e-9) / targetReadingsPerSecond;
+        double next = loadFactor * Math.pow(ratio, LOOP_GAIN);
+        loadFactor = Math.max(1.0, Math.min(MAX_LOAD_FACTOR, next));
+
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis - lastEvictMillis >= EVICT_PERIOD_MS) {
+            lastEvictMillis = nowMillis;
+            stableStreaks.values().removeIf(streak -> nowMillis - streak.lastSeenMillis > SILENT_AFTER_MS);
+        }
+    }
+
+    /**
+     * Forget per-sensor state (e.g. when a sensor is removed).
+     */
+    public void forget(String sensorId) {
+        stableStreaks.remove(sensorId);
+    }
+
+    // ========================================================
+    // MXBEAN ATTRIBUTES
+    // ========================================================
+    @Override
+    public double getTargetReadingsPerSecond() { return targetReadingsPerSecond; }
+
+    @Override
+    public void setTargetReadingsPerSecond(double target) {
+        if (target <= 0) {
+            throw new IllegalArgumentException("Target rate must be positive");
+        }
+        this.targetReadingsPerSecond = target;
+    }
+
+    @Override
+    public double getMeasuredReadingsPerSecond() { return measuredReadingsPerSecond; }
+
+    @Override
+    public double getLoadFactor() { return loadFactor; }
+
+    @Override
+    public long getCriticalIntervalMillis() { return CRITICAL_INTERVAL_MS; }
+
+    @Override
+    public long getWarningIntervalMillis() { return WARNING_INTERVAL_MS; }
+
+    @Override
+    public long getNormalIntervalMillis() { return normalIntervalMillis; }
+
+    @Override
+    public long getMaxIntervalMillis() { return MAX_INTERVAL_MS; }
+}
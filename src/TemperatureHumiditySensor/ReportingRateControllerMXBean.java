@@ -0,0 +1,24 @@
+package TemperatureHumiditySensor;
+
+/**
+ * ============================================================
+ * REPORTING RATE CONTROLLER MANAGEMENT INTERFACE
+ * ============================================================
+ * JMX view of the closed-loop reporting rate controller.
+ * Registered under "TemperatureHumiditySensor:type=RateController".
+ * ============================================================
+ */
+public interface ReportingRateControllerMXBean {
+
+    // ========== CONTROL LOOP ==========
+    double getTargetReadingsPerSecond();
+    void setTargetReadingsPerSecond(double target);
+    double getMeasuredReadingsPerSecond();
+    double getLoadFactor();
+
+    // ========== INTERVALS ==========
+    long getCriticalIntervalMillis();
+    long getWarningIntervalMillis();
+    long getNormalIntervalMillis();
+    long getMaxIntervalMillis();
+}
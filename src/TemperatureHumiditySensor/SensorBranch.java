@@ -4,8 +4,6 @@ import java.io.*;
 import java.net.*;
 import java.util.Random;
 import java.util.Scanner;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * ============================================================
@@ -25,6 +23,13 @@ import java.util.TimerTask;
  *   - Random or manual temperature/humidity generation
  *   - Periodic automatic readings (optional)
  *   - Real-time status feedback from base station
+ *   - Deadband reporting: only send when readings change
+ * 
+ * Options:
+ *   -Dsensor.deadband=true        Enable deadband mode for automatic readings
+ *   -Dsensor.deadband.temp=0.5    Temperature deadband (°C)
+ *   -Dsensor.deadband.humidity=2  Humidity deadband (%)
+ *   -Dsensor.heartbeat.seconds=60 Send at least once per heartbeat
  * ============================================================
  */
 public class SensorBranch {
@@ -38,6 +43,18 @@ public class SensorBranch {
     
     // ========== RANDOM GENERATOR FOR SENSOR READINGS ==========
     private static final Random random = new Random();
+    
+    // ========== DEADBAND REPORTING ==========
+    // In deadband mode automatic readings follow a realistic drift
+    // and are only sent when they leave the deadband or a heartbeat is due
+    private static final boolean DEADBAND_MODE = Boolean.getBoolean("sensor.deadband");
+    private static final DeadbandFilter deadband = DeadbandFilter.fromSystemProperties();
+    private static SensorDriftModel driftModel;
+    
+    // ========== AUTOMATIC READING LIMITS ==========
+    private static final int AUTOMATIC_CYCLES = 5;
+    private static final long MIN_INTERVAL_MS = 500;
+    private static final long MAX_INTERVAL_MS = 600_000;
 
     // ========== MAIN METHOD ==========
     public static void main(String[] args) {
@@ -59,6 +76,12 @@ public class SensorBranch {
         
         System.out.println("------------------------------------------------------------");
         System.out.println("Sensor " + sensorId + " initialized.");
+        if (DEADBAND_MODE) {
+            driftModel = SensorDriftModel.indoor(sensorId.hashCode());
+            System.out.println("Deadband mode: ±" + deadband.getTemperatureDeadband() + "°C, ±"
+                             + deadband.getHumidityDeadband() + "%, heartbeat "
+                             + deadband.getHeartbeatMillis() / 1000 + "s");
+        }
         System.out.println("------------------------------------------------------------");
         
         // ========== MAIN MENU LOOP ==========
@@ -117,8 +140,9 @@ public class SensorBranch {
      * 
      * @param temperature Temperature reading in Celsius
      * @param humidity Humidity reading in percentage
+     * @return Response from the base station, or null if sending failed
      */
-    private static void sendReading(double temperature, double humidity) {
+    private static SensorData sendReading(double temperature, double humidity) {
         try (
             Socket socket = new Socket(BASE_STATION_HOST, BASE_STATION_PORT);
             ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
@@ -127,6 +151,10 @@ public class SensorBranch {
             // ========== CREATE SENSOR DATA ==========
             // Package sensor ID with readings
             SensorData sensorData = new SensorData(sensorId, temperature, humidity);
+            if (DEADBAND_MODE) {
+                // Tell the base station how long silence still means "unchanged"
+                sensorData.setHeartbeatMillis(deadband.getHeartbeatMillis());
+            }
             
             System.out.println("\n[SENDING] Temperature: " + temperature + "°C, Humidity: " + humidity + "%");
             
@@ -156,10 +184,12 @@ public class SensorBranch {
                 );
                 System.out.println("   " + message);
             }
+            return response;
             
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("[ERROR] Could not connect to Base Station: " + e.getMessage());
             System.err.println("Make sure Base Station is running on " + BASE_STATION_HOST + ":" + BASE_STATION_PORT);
+            return null;
         }
     }
 
@@ -170,8 +200,10 @@ public class SensorBranch {
      * Generates and sends random temperature and humidity readings.
      * Temperature range: 10°C to 40°C
      * Humidity range: 20% to 85%
+     * 
+     * @return Response from the base station, or null if sending failed
      */
-    private static void sendRandomReading() {
+    private static SensorData sendRandomReading() {
         // Generate random temperature (10°C to 40°C)
         double temperature = 10 + (random.nextDouble() * 30);
         temperature = Math.round(temperature * 10.0) / 10.0; // Round to 1 decimal
@@ -180,37 +212,79 @@ public class SensorBranch {
         double humidity = 20 + (random.nextDouble() * 65);
         humidity = Math.round(humidity * 10.0) / 10.0; // Round to 1 decimal
         
-        sendReading(temperature, humidity);
+        return sendReading(temperature, humidity);
+    }
+
+    // ========================================================
+    // DEADBAND READING
+    // ========================================================
+    /**
+     * Samples the drift model and sends the reading only if it
+     * moved outside the deadband or a heartbeat is due.
+     * 
+     * @return Response from the base station, or null if nothing was sent
+     */
+    private static SensorData sendDeadbandReading() {
+        long now = System.currentTimeMillis();
+        double[] reading = driftModel.next(now);
+        
+        if (!deadband.shouldReport(reading[0], reading[1], now)) {
+            System.out.println("[DEADBAND] " + reading[0] + "°C, " + reading[1] + "% unchanged - not sent");
+            return null;
+        }
+        SensorData response = sendReading(reading[0], reading[1]);
+        if (response != null) {
+            deadband.markSent(reading[0], reading[1], now);
+        }
+        return response;
     }
 
     // ========================================================
     // AUTOMATIC READING SCHEDULER
     // ========================================================
     /**
-     * Starts automatic periodic readings at specified interval.
+     * Starts automatic periodic readings, beginning at the specified
+     * interval. After each reading the interval follows the rate hint
+     * returned by the base station (faster when WARNING/CRITICAL,
+     * slower when stable or when the base station is busy).
      * 
-     * @param intervalSeconds Interval between readings in seconds
+     * @param intervalSeconds Initial interval between readings in seconds
      */
     private static void startAutomaticReadings(int intervalSeconds) {
         System.out.println("Starting automatic readings every " + intervalSeconds + " seconds...");
-        System.out.println("Press Ctrl+C to stop.");
+        System.out.println("The base station may adjust the interval. Press Ctrl+C to stop.");
         
-        Timer timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                sendRandomReading();
-            }
-        }, 0, intervalSeconds * 1000L);
+        long intervalMillis = intervalSeconds * 1000L;
         
         // Keep running for 5 readings then stop
         try {
-            Thread.sleep(intervalSeconds * 5000L);
-            timer.cancel();
-            System.out.println("Automatic readings stopped after 5 cycles.");
+            for (int cycle = 1; cycle <= AUTOMATIC_CYCLES; cycle++) {
+                SensorData response = DEADBAND_MODE ? sendDeadbandReading() : sendRandomReading();
+                intervalMillis = applyRateHint(response, intervalMillis);
+                
+                if (cycle < AUTOMATIC_CYCLES) {
+                    Thread.sleep(intervalMillis);
+                }
+            }
+            System.out.println("Automatic readings stopped after " + AUTOMATIC_CYCLES + " cycles.");
         } catch (InterruptedException e) {
-            timer.cancel();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pick the next reporting interval from the base station's hint,
+     * clamped to sane bounds. Keeps the current interval if there is no hint.
+     */
+    private static long applyRateHint(SensorData response, long currentIntervalMillis) {
+        if (response == null || response.getSuggestedIntervalMillis() <= 0) {
+            return currentIntervalMillis;
+        }
+        long hinted = Math.max(MIN_INTERVAL_MS, Math.min(MAX_INTERVAL_MS, response.getSuggestedIntervalMillis()));
+        if (hinted != currentIntervalMillis) {
+            System.out.println("[RATE HINT] Next reading in " + hinted / 1000.0 + "s");
         }
+        return hinted;
     }
 
     // ========================================================
@@ -16,12 +16,17 @@ import java.io.Serializable;
  */
 public class SensorData implements Serializable {
     
+    // Pinned to the original class hash so older sensors stay compatible
+    private static final long serialVersionUID = -5841750281945775827L;
+    
     // ========== SENSOR ATTRIBUTES ==========
     private String sensorId;        // Unique sensor identifier
     private double temperature;     // Temperature in Celsius
     private double humidity;        // Humidity percentage (0-100)
     private String status;          // Calculated status (NORMAL/WARNING/CRITICAL)
     private long timestamp;         // Reading timestamp
+    private long heartbeatMillis;   // Deadband heartbeat interval (0 = reports every reading)
+    private long suggestedIntervalMillis; // Rate hint from base station (0 = no hint)
 
     // ========== CONSTRUCTORS ==========
     
@@ -29,11 +34,19 @@ public class SensorData implements Serializable {
      * Full constructor with all fields
      */
     public SensorData(String sensorId, double temperature, double humidity, String status) {
+        this(sensorId, temperature, humidity, status, System.currentTimeMillis());
+    }
+    
+    /**
+     * Full constructor with an explicit event timestamp
+     * (used when replaying buffered readings after an outage)
+     */
+    public SensorData(String sensorId, double temperature, double humidity, String status, long timestamp) {
         this.sensorId = sensorId;
         this.temperature = temperature;
         this.humidity = humidity;
         this.status = status;
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = timestamp;
     }
     
     /**
@@ -49,10 +62,18 @@ public class SensorData implements Serializable {
     public double getHumidity() { return humidity; }
     public String getStatus() { return status; }
     public long getTimestamp() { return timestamp; }
+    public long getHeartbeatMillis() { return heartbeatMillis; }
+    public long getSuggestedIntervalMillis() { return suggestedIntervalMillis; }
 
     // ========== SETTER FOR STATUS ==========
     public void setStatus(String status) { this.status = status; }
 
+    // ========== SETTER FOR DEADBAND HEARTBEAT ==========
+    public void setHeartbeatMillis(long heartbeatMillis) { this.heartbeatMillis = heartbeatMillis; }
+
+    // ========== SETTER FOR RATE HINT ==========
+    public void setSuggestedIntervalMillis(long intervalMillis) { this.suggestedIntervalMillis = intervalMillis; }
+
     // ========== STRING REPRESENTATION ==========
     @Override
     public String toString() {
@@ -0,0 +1,93 @@
+package TemperatureHumiditySensor;
+
+import java.util.Random;
+
+/**
+ * ============================================================
+ * SENSOR DRIFT MODEL - REALISTIC READING GENERATOR
+ * ============================================================
+ * Produces slowly drifting temperature/humidity readings, the
+ * way a physical sensor in a room or warehouse behaves:
+ *
+ *   - Daily cycle: sinusoid over 24h (humidity moves opposite
+ *     to temperature)
+ *   - Random walk: small mean-reverting wander around the base
+ *   - Disturbances: rare step changes (door opened, HVAC cycling)
+ *     that decay back over a few minutes
+ *   - Quantization: values rounded to 0.1 like SensorBranch sends
+ * ============================================================
+ */
+public class SensorDriftModel {
+
+    // ========== MODEL PARAMETERS ==========
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final double WALK_STEP = 0.03;          // per sample
+    private static final double WALK_REVERSION = 0.01;     // pull back toward base
+    private static final double DISTURBANCE_DECAY = 0.95;  // per sample
+
+    private final Random random;
+    private final double baseTemperature;
+    private final double baseHumidity;
+    private final double dailyAmplitude;
+    private final double phase;
+    private final double disturbanceProbability;
+
+    // ========== STATE ==========
+    private double walkTemperature;
+    private double walkHumidity;
+    private double disturbance;
+
+    // ========== CONSTRUCTORS ==========
+    /**
+     * @param seed Random seed (e.g. sensor ID hash) for reproducible runs
+     * @param baseTemperature Mean temperature (°C)
+     * @param baseHumidity Mean humidity (%)
+     * @param dailyAmplitude Peak deviation of the daily cycle (°C)
+     * @param disturbanceProbability Chance of a step change per sample
+     */
+    public SensorDriftModel(long seed, double baseTemperature, double baseHumidity,
+                            double dailyAmplitude, double disturbanceProbability) {
+        this.random = new Random(seed);
+        this.baseTemperature = baseTemperature;
+        this.baseHumidity = baseHumidity;
+        this.dailyAmplitude = dailyAmplitude;
+        this.disturbanceProbability = disturbanceProbability;
+        this.phase = random.nextDouble() * 2 * Math.PI;
+    }
+
+    /**
+     * Indoor sensor with typical defaults around a random base
+     * (20-28°C, 45-60% humidity, ±2°C daily swing).
+     */
+    public static SensorDriftModel indoor(long seed) {
+        Random base = new Random(~seed);
+        return new SensorDriftModel(seed, 20 + base.nextDouble() * 8, 45 + base.nextDouble() * 15, 2.0, 0.002);
+    }
+
+    // ========== READING GENERATION ==========
+    /**
+     * Generate the next reading at the given time.
+     *
+     * @param timeMillis Sample time
+     * @return {temperature, humidity}, each rounded to 1 decimal
+     */
+    public double[] next(long timeMillis) {
+        double angle = 2 * Math.PI * (timeMillis % DAY_MILLIS) / DAY_MILLIS + phase;
+        double daily = Math.sin(angle) * dailyAmplitude;
+
+        walkTemperature += random.nextGaussian() * WALK_STEP - walkTemperature * WALK_REVERSION;
+        walkHumidity += random.nextGaussian() * WALK_STEP * 3 - walkHumidity * WALK_REVERSION;
+
+        if (random.nextDouble() < disturbanceProbability) {
+            disturbance = (random.nextBoolean() ? 1 : -1) * (1.5 + random.nextDouble() * 3);
+        }
+        disturbance *= DISTURBANCE_DECAY;
+
+        double temperature = baseTemperature + daily + walkTemperature + disturbance;
+        double humidity = baseHumidity - daily * 2 + walkHumidity - disturbance;
+        return new double[]{
+            Math.round(temperature * 10.0) / 10.0,
+            Math.round(Math.max(0, Math.min(100, humidity)) * 10.0) / 10.0
+        };
+    }
+}
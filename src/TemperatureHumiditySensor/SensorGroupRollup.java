@@ -0,0 +1,267 @@
+package TemperatureHumiditySensor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ============================================================
+ * SENSOR GROUP ROLLUP - HIERARCHICAL AGGREGATES
+ * ============================================================
+ * Maintains live aggregates for every prefix of a hierarchical
+ * sensor ID, updated incrementally on each reading.
+ *
+ * Example: "COLOMBO-HQ-F3-017" contributes to the groups
+ *   ""                  (whole fleet)
+ *   "COLOMBO"           (site)
+ *   "COLOMBO-HQ"        (building)
+ *   "COLOMBO-HQ-F3"     (floor)
+ *
+ * Per group:
+ *   - Sensor count and status counts (worst status in O(1))
+ *   - Sum of temperature / humidity (average in O(1)), kept as
+ *     fixed-point longs so repeated add/remove never drifts
+ *   - Max temperature / humidity via a counted multiset of
+ *     values quantized to 0.01, so its size is bounded by the
+ *     value range rather than by the number of sensors
+ *
+ * A new reading subtracts the sensor's previous contribution and
+ * adds the new one - queries never re-aggregate.
+ * ============================================================
+ */
+public class SensorGroupRollup {
+
+    // ========== CONFIGURATION ==========
+    public static final String FLEET_GROUP = "";
+    private static final String SEPARATOR = "-";
+    private static final double QUANTUM = 100.0; // 0.01 resolution for sums and max
+
+    // ========== STORAGE ==========
+    private final ConcurrentHashMap<String, Group> groups = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Member> members = new ConcurrentHashMap<>();
+
+    // ========================================================
+    // UPDATES
+    // ========================================================
+    /**
+     * Apply a new reading for a sensor to all of its groups.
+     *
+     * @param sensorId Hierarchical sensor ID (SITE-BUILDING-FLOOR-NNN)
+     * @param temperature Latest temperature
+     * @param humidity Latest humidity
+     * @param status Latest calculated status
+     */
+    public void update(String sensorId, double temperature, double humidity, String status) {
+        int severity = severityOf(status);
+        members.compute(sensorId, (id, member) -> {
+            if (member == null) {
+                member = new Member(resolveGroups(id));
+            } else {
+                for (Group group : member.groups) {
+                    group.remove(member.temperature, member.humidity, member.severity);
+                }
+            }
+            member.temperature = temperature;
+            member.humidity = humidity;
+            member.severity = severity;
+            for (Group group : member.groups) {
+                group.add(temperature, humidity, severity);
+            }
+            return member;
+        });
+    }
+
+    // ========================================================
+    // QUERIES
+    // ========================================================
+    /**
+     * Current aggregate for a group prefix, or null if no sensor
+     * belongs to it. Use FLEET_GROUP for the whole fleet.
+     */
+    public GroupSummary getSummary(String prefix) {
+        Group group = groups.get(prefix);
+        return group == null ? null : group.snapshot(prefix);
+    }
+
+    /**
+     * Direct children of a group (e.g. buildings of a site), sorted by name.
+     */
+    public List<String> getChildGroups(String prefix) {
+        Group group = groups.get(prefix);
+        List<String> children = new ArrayList<>();
+        if (group != null) {
+            children.addAll(group.children);
+            children.sort(null);
+        }
+        return children;
+    }
+
+    // ========== GROUP RESOLUTION ==========
+    /**
+     * Build the chain of groups for a new sensor, creating any that
+     * do not exist yet. The last ID segment is the sensor itself.
+     */
+    private Group[] resolveGroups(String sensorId) {
+        String[] parts = sensorId.split(SEPARATOR);
+        List<Group> chain = new ArrayList<>(parts.length);
+        Group parent = groups.computeIfAbsent(FLEET_GROUP, key -> new Group());
+        chain.add(parent);
+
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < parts.length - 1; i++) {
+            if (i > 0) {
+                prefix.append(SEPARATOR);
+            }
+            prefix.append(parts[i]);
+            if (parts[i].isEmpty()) {
+                continue; // Malformed ID segment - fold into the parent group
+            }
+            String key = prefix.toString();
+            Group group = groups.computeIfAbsent(key, k -> new Group());
+            parent.children.add(key);
+            chain.add(group);
+            parent = group;
+        }
+        return chain.toArray(new Group[0]);
+    }
+
+    private static int severityOf(String status) {
+        switch (status) {
+            case StatusCalculator.STATUS_CRITICAL: return 2;
+            case StatusCalculator.STATUS_WARNING:  return 1;
+            default:                                return 0;
+        }
+    }
+
+    private static String statusOf(int severity) {
+        switch (severity) {
+            case 2:  return StatusCalculator.STATUS_CRITICAL;
+            case 1:  return StatusCalculator.STATUS_WARNING;
+            default: return StatusCalculator.STATUS_NORMAL;
+        }
+    }
+
+    // ========================================================
+    // MEMBER - LAST CONTRIBUTION OF ONE SENSOR
+    // ========================================================
+    private static final class Member {
+        final Group[] groups;
+        double temperature;
+        double humidity;
+        int severity;
+
+        Member(Group[] groups) {
+            this.groups = groups;
+        }
+    }
+
+    // ========================================================
+    // GROUP - RUNNING AGGREGATE
+    // ========================================================
+    private static final class Group {
+        final Set<String> children = ConcurrentHashMap.newKeySet();
+        final long[] statusCounts = new long[3];
+        final TreeMap<Long, Integer> temperatureValues = new TreeMap<>();
+        final TreeMap<Long, Integer> humidityValues = new TreeMap<>();
+        long count;
+        long temperatureSum;
+        long humiditySum;
+
+        synchronized void add(double temperature, double humidity, int severity) {
+            long t = quantize(temperature);
+            long h = quantize(humidity);
+            count++;
+            temperatureSum += t;
+            humiditySum += h;
+            statusCounts[severity]++;
+            temperatureValues.merge(t, 1, Integer::sum);
+            humidityValues.merge(h, 1, Integer::sum);
+        }
+
+        synchronized void remove(double temperature, double humidity, int severity) {
+            long t = quantize(temperature);
+            long h = quantize(humidity);
+            count--;
+            temperatureSum -= t;
+            humiditySum -= h;
+            statusCounts[severity]--;
+            decrement(temperatureValues, t);
+            decrement(humidityValues, h);
+        }
+
+        synchronized GroupSummary snapshot(String name) {
+            int worst = statusCounts[2] > 0 ? 2 : statusCounts[1] > 0 ? 1 : 0;
+            return new GroupSummary(
+                    name, count, statusOf(worst),
+                    statusCounts[0], statusCounts[1], statusCounts[2],
+                    count == 0 ? 0.0 : temperatureSum / QUANTUM / count,
+                    temperatureValues.isEmpty() ? 0.0 : temperatureValues.lastKey() / QUANTUM,
+                    count == 0 ? 0.0 : humiditySum / QUANTUM / count,
+                    humidityValues.isEmpty() ? 0.0 : humidityValues.lastKey() / QUANTUM);
+        }
+
+        private static long quantize(double value) {
+            return Math.round(value * QUANTUM);
+        }
+
+        private static void decrement(Map<Long, Integer> values, long key) {
+            values.computeIfPresent(key, (k, n) -> n == 1 ? null : n - 1);
+        }
+    }
+
+    // ========================================================
+    // GROUP SUMMARY - IMMUTABLE QUERY RESULT
+    // ========================================================
+    public static class GroupSummary {
+        private final String group;
+        private final long sensorCount;
+        private final String worstStatus;
+        private final long normalCount;
+        private final long warningCount;
+        private final long criticalCount;
+        private final double averageTemperature;
+        private final double maxTemperature;
+        private final double averageHumidity;
+        private final double maxHumidity;
+
+        GroupSummary(String group, long sensorCount, String worstStatus,
+                     long normalCount, long warningCount, long criticalCount,
+                     double averageTemperature, double maxTemperature,
+                     double averageHumidity, double maxHumidity) {
+            this.group = group;
+            this.sensorCount = sensorCount;
+            this.worstStatus = worstStatus;
+            this.normalCount = normalCount;
+            this.warningCount = warningCount;
+            this.criticalCount = criticalCount;
+            this.averageTemperature = averageTemperature;
+            this.maxTemperature = maxTemperature;
+            this.averageHumidity = averageHumidity;
+            this.maxHumidity = maxHumidity;
+        }
+
+        // ========== GETTER METHODS ==========
+        public String getGroup() { return group; }
+        public long getSensorCount() { return sensorCount; }
+        public String getWorstStatus() { return worstStatus; }
+        public long getNormalCount() { return normalCount; }
+        public long getWarningCount() { return warningCount; }
+        public long getCriticalCount() { return criticalCount; }
+        public double getAverageTemperature() { return averageTemperature; }
+        public double getMaxTemperature() { return maxTemperature; }
+        public double getAverageHumidity() { return averageHumidity; }
+        public double getMaxHumidity() { return maxHumidity; }
+
+        // ========== STRING REPRESENTATION ==========
+        @Override
+        public String toString() {
+            return String.format(
+                "Group[%s] Sensors: %d | Worst: %s | Temp avg/max: %.1f/%.1f°C | Humidity avg/max: %.1f/%.1f%%",
+                group.isEmpty() ? "ALL" : group, sensorCount, worstStatus,
+                averageTemperature, maxTemperature, averageHumidity, maxHumidity);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package TemperatureHumiditySensor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ============================================================
+ * SENSOR HISTORY - COLUMNAR IN-MEMORY READING LOG
+ * ============================================================
+ * Append-only log of every accepted reading, stored column by
+ * column in fixed-size segments of primitive arrays:
+ *
+ *   eventTime[]   long    sensor-side timestamp
+ *   sensor[]      int     index into the sensor ID dictionary
+ *   temperature[] double
+ *   humidity[]    double
+ *   status[]      byte    0 = NORMAL, 1 = WARNING, 2 = CRITICAL
+ *
+ * Memory is bounded: once maxRows is exceeded the oldest segment
+ * is dropped. Sealed segments never change; the active segment
+ * only grows, so readers can scan without blocking writers.
+ *
+ * Configuration (system property):
+ *   -Dbasestation.history.rows=1000000  Rows kept in memory
+ * ============================================================
+ */
+public class SensorHistory {
+
+    // ========== CONFIGURATION ==========
+    static final int SEGMENT_ROWS = 65_536;
+    static final String[] STATUS_VALUES = {
+        StatusCalculator.STATUS_NORMAL, StatusCalculator.STATUS_WARNING, StatusCalculator.STATUS_CRITICAL
+    };
+
+    private final int maxSegments;
+
+    // ========== STORAGE ==========
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final Map<String, Integer> sensorCodes = new HashMap<>();
+    private volatile String[] sensorNames = new String[16];
+    private int sensorCount;
+
+    // ========== CONSTRUCTORS ==========
+    /**
+     * @param maxRows Approximate number of readings to keep (rounded up to whole segments)
+     */
+    public SensorHistory(long maxRows) {
+        this.maxSegments = (int) Math.max(1, (maxRows + SEGMENT_ROWS - 1) / SEGMENT_ROWS);
+    }
+
+    public static SensorHistory fromSystemProperties() {
+        return new SensorHistory(Long.getLong("basestation.history.rows", 1_000_000L));
+    }
+
+    // ========================================================
+    // APPEND
+    // ========================================================
+    /**
+     * Append one reading.
+     */
+    public synchronized void append(String sensorId, long eventTime,
+                                    double temperature, double humidity, String status) {
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.isFull()) {
+            segment = new Segment();
+            segments.addLast(segment);
+            if (segments.size() > maxSegments) {
+                segments.removeFirst();
+            }
+        }
+        segment.append(eventTime, codeFor(sensorId), temperature, humidity, statusCode(status));
+    }
+
+    private int codeFor(String sensorId) {
+        Integer code = sensorCodes.get(sensorId);
+        if (code == null) {
+            code = sensorCount;
+            String[] names = sensorNames;
+            if (code == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+            }
+            names[code] = sensorId;
+            sensorNames = names; // Publish after the slot is filled
+            sensorCodes.put(sensorId, code);
+            sensorCount++;
+        }
+        return code;
+    }
+
+    static byte statusCode(String status) {
+        switch (status) {
+            case StatusCalculator.STATUS_CRITICAL: return 2;
+            case StatusCalculator.STATUS_WARNING:  return 1;
+            default:                                return 0;
+        }
+    }
+
+    // ========================================================
+    // READ ACCESS
+    // ========================================================
+    /**
+     * Stable view of the current segments, oldest first.
+     */
+    synchronized List<Segment> segments() {
+        return new ArrayList<>(segments);
+    }
+
+    /**
+     * Sensor ID for a dictionary code.
+     */
+    String sensorName(int code) {
+        return sensorNames[code];
+    }
+
+    public synchronized long size() {
+        long rows = 0;
+        for (Segment segment : segments) {
+            rows += segment.size();
+        }
+        return rows;
+    }
+
+    // ========================================================
+    // SEGMENT - FIXED-SIZE COLUMN ARRAYS
+    // ========================================================
+    static final class Segment {
+        final long[] eventTime = new long[SEGMENT_ROWS];
+        final int[] sensor = new int[SEGMENT_ROWS];
+        final double[] temperature = new double[SEGMENT_ROWS];
+        final double[] humidity = new double[SEGMENT_ROWS];
+        final byte[] status = new byte[SEGMENT_ROWS];
+
+        // Readers only look at rows below size, which is published last
+        private volatile int size;
+        private volatile long minTime = Long.MAX_VALUE;
+        private volatile long maxTime = Long.MIN_VALUE;
+
+        boolean isFull() {
+            return size == SEGMENT_ROWS;
+        }
+
+        void append(long time, int sensorCode, double temp, double hum, byte statusCode) {
+            int row = size;
+            eventTime[row] = time;
+            sensor[row] = sensorCode;
+            temperature[row] = temp;
+            humidity[row] = hum;
+            status[row] = statusCode;
+            if (time < minTime) minTime = time;
+            if (time > maxTime) maxTime = time;
+            size = row + 1;
+        }
+
+        int size() { return size; }
+
+        /**
+         * Whether any row of this segment may fall inside [from, to].
+         */
+        boolean overlaps(long from, long to) {
+            return size > 0 && maxTime >= from && minTime <= to;
+        }
+    }
+}
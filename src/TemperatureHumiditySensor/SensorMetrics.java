@@ -0,0 +1,270 @@
+package TemperatureHumiditySensor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================================
+ * SENSOR METRICS - INGEST PIPELINE INSTRUMENTATION
+ * ============================================================
+ * Collects timing and counters for every reading handled by
+ * the Base Station. All counters are striped (LongAdder) so
+ * concurrent sensor threads never contend on a single field.
+ *
+ * Usage in the hot path:
+ *   long t = metrics.startTimer();
+ *   ... work ...
+ *   t = metrics.recordStage(Stage.MAP_UPDATE, t);
+ *
+ * When disabled, startTimer() returns 0 and every record call
+ * becomes a single volatile read.
+ * ============================================================
+ */
+public class SensorMetrics implements SensorMetricsMXBean {
+
+    // ========== PIPELINE STAGES ==========
+    public enum Stage {
+        DESERIALIZE, MAP_UPDATE, STATUS_CALC, RESPONSE_WRITE, LOGGING
+    }
+
+    // ========== SWITCHES ==========
+    private volatile boolean enabled = true;
+    private volatile boolean verboseLogging;
+
+    // ========== COUNTERS ==========
+    private final LatencyHistogram[] stageHistograms = new LatencyHistogram[Stage.values().length];
+    private final LongAdder readingsTotal = new LongAdder();
+    private final LongAdder lateReadings = new LongAdder();
+    private final LongAdder droppedReadings = new LongAdder();
+    private final LongAdder activeConnections = new LongAdder();
+    private final LongAdder connectionErrors = new LongAdder();
+    private final LongAdder normalCount = new LongAdder();
+    private final LongAdder warningCount = new LongAdder();
+    private final LongAdder criticalCount = new LongAdder();
+
+    // ========== RATE SAMPLING ==========
+    // Updated once per second by sampleRate()
+    private long lastSampleReadings;
+    private long lastSampleNanos = System.nanoTime();
+    private volatile double readingsPerSecond;
+
+    // ========== CONSTRUCTOR ==========
+    public SensorMetrics(boolean verboseLogging) {
+        this.verboseLogging = verboseLogging;
+        for (int i = 0; i < stageHistograms.length; i++) {
+            stageHistograms[i] = new LatencyHistogram();
+        }
+    }
+
+    // ========================================================
+    // HOT PATH RECORDING
+    // ========================================================
+
+    /**
+     * Start timing a stage.
+     *
+     * @return Current nanoTime, or 0 if metrics are disabled
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record the time spent in a stage and start timing the next one.
+     *
+     * @param stage Stage that just finished
+     * @param startNanos Value returned by startTimer() or a previous recordStage()
+     * @return Timestamp to pass to the next recordStage() call
+     */
+    public long recordStage(Stage stage, long startNanos) {
+        if (!enabled) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        if (startNanos != 0L) {
+            stageHistograms[stage.ordinal()].record(now - startNanos);
+        }
+        return now;
+    }
+
+    /**
+     * Time a piece of a stage that runs in several pieces (LOGGING):
+     * add the result to a running total, recorded once per reading
+     * with recordStageTotal().
+     *
+     * @param startNanos Value returned by startTimer() or recordStage()
+     * @param nowNanos   Value returned by startTimer(), which also starts the next stage
+     * @return Elapsed nanos, or 0 if metrics were disabled at either end
+     */
+    public long elapsed(long startNanos, long nowNanos) {
+        return startNanos != 0L && nowNanos != 0L ? nowNanos - startNanos : 0L;
+    }
+
+    /**
+     * Record the total time of a stage timed in several pieces.
+     */
+    public void recordStageTotal(Stage stage, long totalNanos) {
+        if (enabled) {
+            stageHistograms[stage.ordinal()].record(totalNanos);
+        }
+    }
+
+    /**
+     * Count a processed reading and its calculated status.
+     */
+    public void recordReading(String status) {
+        if (!enabled) {
+            return;
+        }
+        readingsTotal.increment();
+        switch (status) {
+            case StatusCalculator.STATUS_CRITICAL:
+                criticalCount.increment();
+                break;
+            case StatusCalculator.STATUS_WARNING:
+                warningCount.increment();
+                break;
+            default:
+                normalCount.increment();
+        }
+    }
+
+    /**
+     * Count a reading by its event-time classification.
+     */
+    public void recordEventTimeOutcome(EventTimeWindows.Outcome outcome) {
+        if (!enabled) {
+            return;
+        }
+        if (outcome == EventTimeWindows.Outcome.LATE) {
+            lateReadings.increment();
+        } else if (outcome == EventTimeWindows.Outcome.DROPPED) {
+            droppedReadings.increment();
+        }
+    }
+
+    public void connectionOpened() { activeConnections.increment(); }
+    public void connectionClosed() { activeConnections.decrement(); }
+    public void connectionFailed() { connectionErrors.increment(); }
+
+    /**
+     * Recompute readings/sec from the delta since the previous sample.
+     * Called periodically by a single background timer.
+     */
+    public synchronized void sampleRate() {
+        long now = System.nanoTime();
+        long readings = readingsTotal.sum();
+        long elapsed = now - lastSampleNanos;
+        if (elapsed > 0) {
+            readingsPerSecond = (readings - lastSampleReadings) * 1_000_000_000.0 / elapsed;
+        }
+        lastSampleReadings = readings;
+        lastSampleNanos = now;
+    }
+
+    // ========================================================
+    // MXBEAN ATTRIBUTES
+    // ========================================================
+
+    @Override
+    public long getReadingsTotal() { return readingsTotal.sum(); }
+
+    @Override
+    public double getReadingsPerSecond() { return readingsPerSecond; }
+
+    @Override
+    public long getLateReadings() { return lateReadings.sum(); }
+
+    @Override
+    public long getDroppedReadings() { return droppedReadings.sum(); }
+
+    @Override
+    public long getActiveConnections() { return activeConnections.sum(); }
+
+    @Override
+    public long getConnectionErrors() { return connectionErrors.sum(); }
+
+    @Override
+    public Map<String, Long> getStatusDistribution() {
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        distribution.put(StatusCalculator.STATUS_NORMAL, normalCount.sum());
+        distribution.put(StatusCalculator.STATUS_WARNING, warningCount.sum());
+        distribution.put(StatusCalculator.STATUS_CRITICAL, criticalCount.sum());
+        return distribution;
+    }
+
+    @Override
+    public Map<String, StageLatency> getStageLatencies() {
+        Map<String, StageLatency> latencies = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            latencies.put(stage.name(), new StageLatency(stageHistograms[stage.ordinal()]));
+        }
+        return latencies;
+    }
+
+    @Override
+    public boolean isEnabled() { return enabled; }
+
+    @Override
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    @Override
+    public boolean isVerboseLogging() { return verboseLogging; }
+
+    @Override
+    public void setVerboseLogging(boolean verbose) { this.verboseLogging = verbose; }
+
+    @Override
+    public void resetStatistics() {
+        for (LatencyHistogram histogram : stageHistograms) {
+            histogram.reset();
+        }
+        readingsTotal.reset();
+        lateReadings.reset();
+        droppedReadings.reset();
+        connectionErrors.reset();
+        normalCount.reset();
+        warningCount.reset();
+        criticalCount.reset();
+        synchronized (this) {
+            lastSampleReadings = 0;
+            lastSampleNanos = System.nanoTime();
+        }
+    }
+
+    // ========================================================
+    // STAGE LATENCY SNAPSHOT
+    // ========================================================
+    /**
+     * Point-in-time latency summary for one stage.
+     * Exposed over JMX as CompositeData.
+     */
+    public static class StageLatency {
+        private final long count;
+        private final double meanMicros;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double p999Micros;
+
+        StageLatency(LatencyHistogram histogram) {
+            this.count = histogram.getCount();
+            this.meanMicros = histogram.getMeanNanos() / 1000.0;
+            this.p50Micros = histogram.getPercentileNanos(50) / 1000.0;
+            this.p99Micros = histogram.getPercentileNanos(99) / 1000.0;
+            this.p999Micros = histogram.getPercentileNanos(99.9) / 1000.0;
+        }
+
+        public long getCount() { return count; }
+        public double getMeanMicros() { return meanMicros; }
+        public double getP50Micros() { return p50Micros; }
+        public double getP99Micros() { return p99Micros; }
+        public double getP999Micros() { return p999Micros; }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus",
+                    count, meanMicros, p50Micros, p99Micros, p999Micros);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package TemperatureHumiditySensor;
+
+import java.util.Map;
+
+/**
+ * ============================================================
+ * SENSOR METRICS MANAGEMENT INTERFACE
+ * ============================================================
+ * JMX view of the base station ingest pipeline.
+ * Registered under "TemperatureHumiditySensor:type=BaseStation".
+ *
+ * Exposes:
+ *   - Per-stage latency (deserialize, map update, status, write, logging)
+ *   - Readings per second and total readings
+ *   - Late (out-of-order) and dropped (behind watermark) readings
+ *   - Active connections and connection errors
+ *   - Status distribution (NORMAL / WARNING / CRITICAL)
+ * ============================================================
+ */
+public interface SensorMetricsMXBean {
+
+    // ========== THROUGHPUT ==========
+    long getReadingsTotal();
+    double getReadingsPerSecond();
+    long getLateReadings();
+    long getDroppedReadings();
+
+    // ========== CONNECTIONS ==========
+    long getActiveConnections();
+    long getConnectionErrors();
+
+    // ========== DISTRIBUTIONS ==========
+    Map<String, Long> getStatusDistribution();
+    Map<String, SensorMetrics.StageLatency> getStageLatencies();
+
+    // ========== SWITCHES ==========
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+    boolean isVerboseLogging();
+    void setVerboseLogging(boolean verbose);
+
+    // ========== OPERATIONS ==========
+    void resetStatistics();
+}
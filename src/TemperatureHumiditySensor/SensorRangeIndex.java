@@ -0,0 +1,191 @@
+package TemperatureHumiditySensor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * ============================================================
+ * SENSOR RANGE INDEX
+ * ============================================================
+ * Concurrently maintained ordered index over the latest value
+ * of one measurement (temperature or humidity) per sensor.
+ *
+ * Answers questions without scanning every sensor:
+ *   - "Which sensors are above 40°C?"  -> above(40, limit)
+ *   - "Which sensors are between A and B?" -> between(a, b, limit)
+ *   - "Top 20 most humid sensors"       -> top(20)
+ *
+ * Structure:
+ *   - ConcurrentSkipListSet ordered by (value, sensorId)
+ *   - ConcurrentHashMap sensorId -> current entry, so the old
+ *     entry can be removed in O(log n) when a new value arrives
+ *
+ * Updates cost O(log n); range queries cost O(log n + results).
+ * ============================================================
+ */
+public class SensorRangeIndex {
+
+    // ========== INDEX STORAGE ==========
+    private final NavigableSet<Entry> ordered = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<String, Entry> current = new ConcurrentHashMap<>();
+
+    // ========================================================
+    // UPDATES
+    // ========================================================
+    /**
+     * Record the latest value for a sensor, replacing any previous one.
+     * Updates for the same sensor are serialized by the map's per-key lock.
+     *
+     * @param sensorId Unique sensor identifier
+     * @param value Latest measured value
+     */
+    public void update(String sensorId, double value) {
+        current.compute(sensorId, (id, previous) -> {
+            if (previous != null) {
+                if (Double.compare(previous.value, value) == 0) {
+                    return previous; // Unchanged - nothing to re-order
+                }
+                ordered.remove(previous);
+            }
+            Entry entry = new Entry(value, id);
+            ordered.add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Remove a sensor from the index.
+     */
+    public void remove(String sensorId) {
+        current.computeIfPresent(sensorId, (id, previous) -> {
+            ordered.remove(previous);
+            return null;
+        });
+    }
+
+    // ========================================================
+    // QUERIES
+    // ========================================================
+    /**
+     * Sensors whose latest value is strictly above the threshold,
+     * in ascending order of value.
+     *
+     * @param threshold Exclusive lower bound
+     * @param limit Maximum number of sensor IDs to return
+     */
+    public List<String> above(double threshold, int limit) {
+        return collect(ordered.tailSet(Entry.lowerBound(Math.nextUp(threshold)), true).iterator(), limit);
+    }
+
+    /**
+     * Sensors whose latest value is strictly below the threshold,
+     * in descending order of value.
+     *
+     * @param threshold Exclusive upper bound
+     * @param limit Maximum number of sensor IDs to return
+     */
+    public List<String> below(double threshold, int limit) {
+        return collect(ordered.headSet(Entry.lowerBound(threshold), false).descendingIterator(), limit);
+    }
+
+    /**
+     * Sensors whose latest value lies in [min, max], ascending.
+     *
+     * @param min Inclusive lower bound
+     * @param max Inclusive upper bound
+     * @param limit Maximum number of sensor IDs to return
+     */
+    public List<String> between(double min, double max, int limit) {
+        if (min > max) {
+            return new ArrayList<>();
+        }
+        NavigableSet<Entry> range = ordered.subSet(
+                Entry.lowerBound(min), true, Entry.lowerBound(Math.nextUp(max)), false);
+        return collect(range.iterator(), limit);
+    }
+
+    /**
+     * The k sensors with the highest latest value, highest first.
+     */
+    public List<String> top(int k) {
+        return collect(ordered.descendingIterator(), k);
+    }
+
+    /**
+     * The k sensors with the lowest latest value, lowest first.
+     */
+    public List<String> bottom(int k) {
+        return collect(ordered.iterator(), k);
+    }
+
+    /**
+     * Latest indexed value for a sensor, or null if not indexed.
+     */
+    public Double valueOf(String sensorId) {
+        Entry entry = current.get(sensorId);
+        return entry == null ? null : entry.value;
+    }
+
+    public int size() {
+        return current.size();
+    }
+
+    // ========== HELPER ==========
+    private static List<String> collect(Iterator<Entry> entries, int limit) {
+        List<String> result = new ArrayList<>(Math.min(Math.max(limit, 0), 1024));
+        while (result.size() < limit && entries.hasNext()) {
+            result.add(entries.next().sensorId);
+        }
+        return result;
+    }
+
+    // ========================================================
+    // INDEX ENTRY
+    // ========================================================
+    /**
+     * Immutable (value, sensorId) pair. A null sensorId sorts before
+     * every real sensor and is only used as a query bound.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        final double value;
+        final String sensorId;
+
+        Entry(double value, String sensorId) {
+            this.value = value;
+            this.sensorId = sensorId;
+        }
+
+        static Entry lowerBound(double value) {
+            return new Entry(value, null);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byValue = Double.compare(value, other.value);
+            if (byValue != 0) {
+                return byValue;
+            }
+            if (sensorId == null) {
+                return other.sensorId == null ? 0 : -1;
+            }
+            if (other.sensorId == null) {
+                return 1;
+            }
+            return sensorId.compareTo(other.sensorId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry && compareTo((Entry) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Double.hashCode(value) + (sensorId == null ? 0 : sensorId.hashCode());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package TemperatureHumiditySensor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+/**
+ * ============================================================
+ * SENSOR SWARM SIMULATOR - DEADBAND REDUCTION BENCHMARK
+ * ============================================================
+ * Simulates a site full of sensors with realistic drift
+ * (SensorDriftModel) and measures how many readings would
+ * actually be sent with deadband reporting (DeadbandFilter)
+ * compared to reporting every sample.
+ *
+ * Runs entirely in simulated time - no Base Station needed.
+ *
+ * Usage:
+ *   java -cp out TemperatureHumiditySensor.SensorSwarmSimulator [sensors] [hours] [sampleSeconds]
+ *   defaults: 1000 sensors, 24 hours, 10 second sampling
+ * ============================================================
+ */
+public class SensorSwarmSimulator {
+
+    // ========== DEADBAND SETTINGS TO COMPARE ==========
+    // {temperature deadband, humidity deadband, heartbeat seconds}
+    private static final double[][] SETTINGS = {
+        {0.2, 1.0, 60},
+        {0.5, 2.0, 60},
+        {0.5, 2.0, 300},
+        {1.0, 3.0, 300},
+    };
+
+    // ========== MAIN METHOD ==========
+    public static void main(String[] args) throws IOException {
+        int sensors = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int hours = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+        int sampleSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        long samplesPerSensor = hours * 3600L / sampleSeconds;
+        int bytesPerReading = serializedSize();
+
+        System.out.println("============================================================");
+        System.out.println("   SENSOR SWARM SIMULATOR - DEADBAND REPORTING");
+        System.out.println("============================================================");
+        System.out.printf("   Sensors: %d | Duration: %dh | Sample every %ds | %d bytes/reading%n",
+                          sensors, hours, sampleSeconds, bytesPerReading);
+        System.out.println("------------------------------------------------------------");
+        System.out.printf("   %-10s %-10s %-8s %-10s %-10s %-9s %s%n",
+                          "TEMP DB", "HUM DB", "HB (s)", "SENT", "HEARTBEAT", "REDUCTION", "MB SAVED");
+
+        for (double[] setting : SETTINGS) {
+            long[] result = simulate(sensors, samplesPerSensor, sampleSeconds * 1000L,
+                                     setting[0], setting[1], (long) setting[2] * 1000L);
+            long total = sensors * samplesPerSensor;
+            long sent = result[0];
+            double mbSaved = (total - sent) * (double) bytesPerReading / (1024 * 1024);
+            System.out.printf("   %-10.1f %-10.1f %-8d %-10d %-10d %-9s %.1f%n",
+                              setting[0], setting[1], (long) setting[2], sent, result[1],
+                              String.format("%.1fx", (double) total / Math.max(1, sent)), mbSaved);
+        }
+        System.out.println("------------------------------------------------------------");
+        System.out.println("   Baseline (report every sample): " + sensors * samplesPerSensor + " readings");
+        System.out.println("============================================================");
+    }
+
+    // ========== SIMULATION ==========
+    /**
+     * @return {readings sent, of which heartbeats}
+     */
+    private static long[] simulate(int sensors, long samples, long sampleMillis,
+                                   double temperatureDeadband, double humidityDeadband, long heartbeatMillis) {
+        long sent = 0;
+        long heartbeats = 0;
+        for (int s = 0; s < sensors; s++) {
+            SensorDriftModel model = SensorDriftModel.indoor(s);
+            DeadbandFilter filter = new DeadbandFilter(temperatureDeadband, humidityDeadband, heartbeatMillis);
+            DeadbandFilter changeOnly = new DeadbandFilter(temperatureDeadband, humidityDeadband, Long.MAX_VALUE);
+
+            for (long i = 0; i < samples; i++) {
+                long now = i * sampleMillis;
+                double[] reading = model.next(now);
+                if (filter.shouldReport(reading[0], reading[1], now)) {
+                    sent++;
+                    if (!changeOnly.shouldReport(reading[0], reading[1], now)) {
+                        heartbeats++;
+                    }
+                    filter.markSent(reading[0], reading[1], now);
+                    changeOnly.markSent(reading[0], reading[1], now);
+                }
+            }
+        }
+        return new long[]{sent, heartbeats};
+    }
+
+    /**
+     * Size of one SensorData message as sent by SensorBranch.
+     */
+    private static int serializedSize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new SensorData("SITE-BLDG-F1-001", 22.5, 55.0));
+        }
+        return bytes.size();
+    }
+}